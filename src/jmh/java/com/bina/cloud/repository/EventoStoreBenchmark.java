@@ -0,0 +1,129 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import com.bina.cloud.model.Evento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventoStore JPA (H2 em arquivo com WRITE_DELAY=0, como em produção) x log
+ * de segmentos com fsync: gravação de um lote do group commit (50 eventos) e
+ * as leituras quentes sobre PRELOAD eventos.
+ * mvn -Pjmh -DskipTests verify -Djmh.includes=EventoStoreBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventoStoreBenchmark {
+
+    private static final int PRELOAD = 20000;
+    private static final int PHONES = 1000;
+    private static final int BATCH_SIZE = 50;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+
+    @Param({ "jpa", "segment-log" })
+    public String engine;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private EventoStore store;
+    private TransactionTemplate transactionTemplate;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("evento-store-benchmark");
+        context = new SpringApplicationBuilder(BinaCloudServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("eventosdb")
+                                + ";DB_CLOSE_DELAY=-1;WRITE_DELAY=0",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.bina.cloud=WARN",
+                        "--bina.phone-stats.rebuild.on-startup=false",
+                        "--bina.store.engine=" + engine,
+                        "--bina.store.segment-log.dir=" + directory.resolve("eventlog"));
+        store = context.getBean(EventoStore.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        for (int loaded = 0; loaded < PRELOAD; loaded += 500) {
+            saveBatch(500);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<Evento> saveAll() {
+        return saveBatch(BATCH_SIZE);
+    }
+
+    @Benchmark
+    public List<Evento> findByPhoneNumber() {
+        return store.findByPhoneNumber(phone(++sequence), 50);
+    }
+
+    @Benchmark
+    public List<Evento> findLatest() {
+        return store.findLatest(50);
+    }
+
+    @Benchmark
+    public List<Evento> findByTimestampBetween() {
+        LocalDateTime from = BASE.plusSeconds(++sequence % PRELOAD);
+        return store.findByTimestampBetween(from, from.plusMinutes(5), 50);
+    }
+
+    private List<Evento> saveBatch(int size) {
+        List<Evento> eventos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long n = ++sequence;
+            Evento evento = new Evento();
+            evento.setDescription("Chamada recebida");
+            evento.setDeviceId("device-" + (n % 16));
+            evento.setEventType("CALL_RECEIVED");
+            evento.setPhoneNumber(phone(n));
+            evento.setAdditionalData("{\"numero\":\"0" + phone(n) + "\",\"data\":\"24/06/2025 20:00:00\"}");
+            evento.setTimestamp(BASE.plusSeconds(n));
+            eventos.add(evento);
+        }
+        return transactionTemplate.execute(status -> store.saveAll(eventos));
+    }
+
+    private static String phone(long n) {
+        return String.valueOf(61981000000L + n % PHONES);
+    }
+}
@@ -0,0 +1,119 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.util.TimezoneUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linhas do histórico do /monitor (50 eventos do buffer) até o template ler
+ * as colunas: cópia da entidade com o horário convertido (versão antiga),
+ * proxy de projeção por interface e record. Alocação por página em
+ * gc.alloc.rate.norm: mvn -Pjmh -DskipTests verify -Djmh.includes=EventoViewBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventoViewBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * Projeção por interface usada antes dos records
+     */
+    public interface MonitorRow {
+        String getEventType();
+
+        String getDeviceId();
+
+        String getPhoneNumber();
+
+        String getAdditionalData();
+
+        LocalDateTime getTimestamp();
+    }
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    private List<Evento> page;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 24, 23, 0, 0);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Evento evento = new Evento();
+            evento.setId((long) i);
+            evento.setDescription("Chamada recebida");
+            evento.setEventType("CALL_RECEIVED");
+            evento.setDeviceId("device-" + (i % 5));
+            evento.setAdditionalData("{\"numero\":\"06198112" + String.format("%04d", i) + "\"}");
+            evento.setPhoneNumber("6198112" + String.format("%04d", i));
+            evento.setTimestamp(base.minusMinutes(7L * i));
+            page.add(evento);
+        }
+        // Classe do proxy gerada fora da medição
+        projectionFactory.createProjection(MonitorRow.class, page.get(0)).getEventType();
+    }
+
+    @Benchmark
+    public void copyOnRead(Blackhole blackhole) {
+        for (Evento evento : page) {
+            Evento copia = new Evento();
+            copia.setId(evento.getId());
+            copia.setDescription(evento.getDescription());
+            copia.setTimestamp(TimezoneUtil.convertUtcToBrasiliaDateTime(evento.getTimestamp()));
+            copia.setDeviceId(evento.getDeviceId());
+            copia.setEventType(evento.getEventType());
+            copia.setAdditionalData(evento.getAdditionalData());
+            copia.setPhoneNumber(evento.getPhoneNumber());
+            blackhole.consume(copia.getEventType());
+            blackhole.consume(copia.getDeviceId());
+            blackhole.consume(copia.getPhoneNumber());
+            blackhole.consume(copia.getAdditionalData());
+            blackhole.consume(copia.getTimestamp());
+        }
+    }
+
+    @Benchmark
+    public void interfaceProjection(Blackhole blackhole) {
+        for (Evento evento : page) {
+            MonitorRow row = projectionFactory.createProjection(MonitorRow.class, evento);
+            blackhole.consume(row.getEventType());
+            blackhole.consume(row.getDeviceId());
+            blackhole.consume(row.getPhoneNumber());
+            blackhole.consume(row.getAdditionalData());
+            blackhole.consume(TimezoneUtil.convertUtcToBrasiliaDateTime(row.getTimestamp()));
+        }
+    }
+
+    @Benchmark
+    public void recordProjection(Blackhole blackhole) {
+        for (Evento evento : page) {
+            EventoMonitorView row = EventoMonitorView.of(evento);
+            blackhole.consume(row.eventType());
+            blackhole.consume(row.deviceId());
+            blackhole.consume(row.phoneNumber());
+            blackhole.consume(row.additionalData());
+            blackhole.consume(row.brasiliaTimestamp());
+        }
+    }
+}
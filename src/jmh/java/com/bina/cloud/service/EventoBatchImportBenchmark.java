@@ -0,0 +1,90 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.EventoBatchResult;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importação NDJSON de um dispositivo que ficou offline (POST /api/eventos/batch
+ * sem a camada HTTP): meta de 1s para 10k eventos. As invocações acumulam na
+ * mesma tabela; a partir da segunda os telefones já têm linha em phone_stats
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventoBatchImportBenchmark {
+
+    @Param({ "10000" })
+    public int events;
+
+    private ConfigurableApplicationContext context;
+    private EventoService eventoService;
+    private ObjectMapper objectMapper;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(BinaCloudServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:batch-import;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.bina.cloud=WARN");
+        eventoService = context.getBean(EventoService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        StringBuilder ndjson = new StringBuilder();
+        LocalDateTime base = LocalDateTime.of(2025, 6, 24, 0, 0, 0);
+        for (int i = 0; i < events; i++) {
+            Evento evento = new Evento();
+            evento.setDescription("Chamada recebida");
+            evento.setDeviceId("device-" + (i % 10));
+            evento.setEventType("CALL_RECEIVED");
+            evento.setAdditionalData("{\"numero\":\"" + String.format("061%08d", i % 500)
+                    + "\",\"data\":\"24/06/2025 20:00:00\"}");
+            evento.setTimestamp(base.plusSeconds(i));
+            ndjson.append(objectMapper.writeValueAsString(evento)).append('\n');
+        }
+        body = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public EventoBatchResult importar() throws IOException {
+        try (MappingIterator<Evento> eventos = objectMapper.readerFor(Evento.class).readValues(body)) {
+            return eventoService.criarEventos(eventos);
+        }
+    }
+}
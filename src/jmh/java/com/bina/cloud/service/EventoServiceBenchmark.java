@@ -0,0 +1,78 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import com.bina.cloud.model.Evento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caminho completo de criarEvento (persistência, índice de ligações e
+ * notificação STOMP) com a aplicação inteira rodando sobre H2 em memória
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class EventoServiceBenchmark {
+
+    private static final int PHONES = 1000;
+
+    @Param({ "true", "false" })
+    public boolean batchEnabled;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private EventoService eventoService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BinaCloudServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.bina.cloud=WARN",
+                        "--bina.persistence.batch.enabled=" + batchEnabled);
+        eventoService = context.getBean(EventoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Evento criarEvento() {
+        long n = sequence.incrementAndGet();
+        Evento evento = new Evento();
+        evento.setDescription("Chamada recebida");
+        evento.setDeviceId("device-" + (n % 16));
+        evento.setEventType("CALL");
+        evento.setAdditionalData("{\"numero\":\"0619" + (81000000 + n % PHONES)
+                + "\",\"data\":\"24/06/2025 20:00:00\"}");
+        return eventoService.criarEvento(evento);
+    }
+}
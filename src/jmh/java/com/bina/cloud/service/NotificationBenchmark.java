@@ -0,0 +1,107 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventNotification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do payload da notificação: texto do tempo desde a última ligação
+ * e serialização JSON enviada ao broker STOMP. Alocações por evento em
+ * gc.alloc.rate.norm: mvn -Pjmh -DskipTests verify -Djmh.includes=NotificationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationBenchmark {
+
+    private static final int DESTINATIONS = 3;
+
+    private ObjectMapper objectMapper;
+    private NotificationEncoder encoder;
+    private MappingJackson2MessageConverter converter;
+    private EventNotification notification;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        encoder = new NotificationEncoder(objectMapper);
+        converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        notification = new EventNotification("1", "Chamada recebida", "CALL", "device-001", "24/06/2025 20:00:00",
+                "{\"numero\":\"061981122752\",\"data\":\"24/06/2025 20:00:00\"}",
+                "https://portal.gasdelivery.com.br/secure/client/?primary_phone=61981122752", "2 horas, 5 minutos",
+                "61981122752", null);
+    }
+
+    @Benchmark
+    public String formatDuration(DurationState state) {
+        return NotificationService.formatDuration(state.parsed);
+    }
+
+    @Benchmark
+    public byte[] serializeNotification() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(notification);
+    }
+
+    /**
+     * Envio anterior: convertAndSend serializava a notificação uma vez por
+     * destino (geral, dispositivo e telefone)
+     */
+    @Benchmark
+    public void convertPerDestination(Blackhole blackhole) {
+        for (int i = 0; i < DESTINATIONS; i++) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+            accessor.setLeaveMutable(true);
+            blackhole.consume(converter.toMessage(notification, accessor.getMessageHeaders()));
+        }
+    }
+
+    /**
+     * Envio atual: uma serialização e uma mensagem por destino com os mesmos bytes
+     */
+    @Benchmark
+    public void encodeOnce(Blackhole blackhole) {
+        EncodedNotification encoded = encoder.encode(notification);
+        for (int i = 0; i < DESTINATIONS; i++) {
+            Message<byte[]> message = NotificationEncoder.toMessage(encoded.payload(), notification.eventType());
+            blackhole.consume(message);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DurationState {
+
+        @Param({ "PT30S", "PT45M", "PT5H20M", "P3DT2H" })
+        public String duration;
+
+        private Duration parsed;
+
+        @Setup
+        public void setUp() {
+            parsed = Duration.parse(duration);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bina.cloud.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extração do telefone a partir do additionalData enviado pelo Android
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhoneNumberUtilBenchmark {
+
+    @Param({
+            "{\"numero\":\"061981122752\",\"data\":\"24/06/2025 20:00:00\",\"receivingNumber\":\"\",\"metodo\":\"GSM\"}",
+            "Numero: 061981122752",
+            "{\"test\": \"data\"}"
+    })
+    public String additionalData;
+
+    @Benchmark
+    public String extractPhoneNumber() {
+        return PhoneNumberUtil.extractPhoneNumber(additionalData);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bina.cloud.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Conversões de UTC para o horário de Brasília usadas em toda notificação e
+ * nas páginas (50 linhas no /monitor)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimezoneUtilBenchmark {
+
+    private final LocalDateTime utcDateTime = LocalDateTime.of(2025, 6, 24, 23, 0, 0);
+    private final String isoTimestamp = "2025-06-24T23:00:00";
+    private final String brasiliaTimestamp = "24/06/2025 20:00:00";
+    private final List<LocalDateTime> page = IntStream.range(0, 50)
+            .mapToObj(i -> utcDateTime.minusMinutes(7L * i))
+            .toList();
+
+    @Benchmark
+    public String convertUtcToBrasilia() {
+        return TimezoneUtil.convertUtcToBrasilia(utcDateTime);
+    }
+
+    @Benchmark
+    public String convertTimestampToBrasilia_Iso() {
+        return TimezoneUtil.convertTimestampToBrasilia(isoTimestamp);
+    }
+
+    @Benchmark
+    public String convertTimestampToBrasilia_AlreadyBrasilia() {
+        return TimezoneUtil.convertTimestampToBrasilia(brasiliaTimestamp);
+    }
+
+    @Benchmark
+    public List<String> convertAllUtcToBrasilia_Page() {
+        return TimezoneUtil.convertAllUtcToBrasilia(page);
+    }
+}
@@ -0,0 +1,241 @@
+package com.bina.cloud.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboards conectados em /ws (SockJS + STOMP), todos assinando o mesmo
+ * tópico. Cada frame é conferido contra o run atual: conta entregas únicas e
+ * duplicadas por assinante e mede a latência desde o envio do POST.
+ */
+class DashboardSubscribers implements AutoCloseable {
+
+    private static final int MESSAGE_SIZE_LIMIT = 1024 * 1024;
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(60);
+
+    private final LoadScenario scenario;
+    private final String runId;
+    private final ObjectMapper objectMapper;
+    private final WebSocketStompClient stompClient;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final Recorder deliveryLatency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder connectLatency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong unreadable = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+    private final AtomicLong transportErrors = new AtomicLong();
+
+    DashboardSubscribers(LoadScenario scenario, String runId, ObjectMapper objectMapper) {
+        this.scenario = scenario;
+        this.runId = runId;
+        this.objectMapper = objectMapper;
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.setDefaultMaxTextMessageBufferSize(MESSAGE_SIZE_LIMIT);
+        SockJsClient sockJsClient = new SockJsClient(
+                List.of(new WebSocketTransport(new StandardWebSocketClient(container))));
+        this.stompClient = new WebSocketStompClient(sockJsClient);
+        this.stompClient.setInboundMessageSizeLimit(MESSAGE_SIZE_LIMIT);
+        for (int i = 0; i < scenario.subscribers(); i++) {
+            subscribers.add(new Subscriber());
+        }
+    }
+
+    /**
+     * Conecta todos os assinantes ao mesmo tempo e espera as assinaturas
+     */
+    void connectAll() throws InterruptedException {
+        List<CompletableFuture<?>> connections = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            connections.add(subscriber.connect());
+        }
+        for (CompletableFuture<?> connection : connections) {
+            try {
+                connection.get(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                connectFailures.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Tempestade de reconexão: derruba todas as sessões e reconecta todas de
+     * uma vez. Eventos publicados sem sessão ativa não chegam e contam como
+     * perdidos.
+     */
+    void reconnectAll() throws InterruptedException {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.disconnect();
+        }
+        connectAll();
+    }
+
+    int connected() {
+        int connected = 0;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.session != null && subscriber.session.isConnected()) {
+                connected++;
+            }
+        }
+        return connected;
+    }
+
+    Recorder deliveryLatency() {
+        return deliveryLatency;
+    }
+
+    Recorder connectLatency() {
+        return connectLatency;
+    }
+
+    long frames() {
+        return frames.get();
+    }
+
+    long delivered() {
+        return delivered.get();
+    }
+
+    long duplicates() {
+        return duplicates.get();
+    }
+
+    long unreadable() {
+        return unreadable.get();
+    }
+
+    long connectFailures() {
+        return connectFailures.get();
+    }
+
+    long transportErrors() {
+        return transportErrors.get();
+    }
+
+    @Override
+    public void close() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.disconnect();
+        }
+        stompClient.stop();
+    }
+
+    private void onPayload(Subscriber subscriber, byte[] payload) {
+        long receivedAt = LoadTest.epochMicros();
+        frames.incrementAndGet();
+        try {
+            JsonNode root = objectMapper.readTree(payload);
+            // /topic/events/batch entrega um array por frame
+            if (root.isArray()) {
+                for (JsonNode notification : root) {
+                    onNotification(subscriber, notification, receivedAt);
+                }
+            } else {
+                onNotification(subscriber, root, receivedAt);
+            }
+        } catch (IOException e) {
+            unreadable.incrementAndGet();
+        }
+    }
+
+    private void onNotification(Subscriber subscriber, JsonNode notification, long receivedAt) throws IOException {
+        JsonNode additionalData = notification.get("additionalData");
+        if (additionalData == null || !additionalData.isTextual()) {
+            return;
+        }
+        JsonNode marker = objectMapper.readTree(additionalData.asText());
+        if (!runId.equals(marker.path("run").asText())) {
+            // Evento de outro run ou de outro cliente do servidor
+            return;
+        }
+        if (!subscriber.markSeen(marker.path("seq").asInt())) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        delivered.incrementAndGet();
+        deliveryLatency.recordValue(Math.min(Math.max(0, receivedAt - marker.path("sentAt").asLong()),
+                HIGHEST_TRACKABLE_MICROS));
+    }
+
+    private final class Subscriber extends StompSessionHandlerAdapter {
+
+        private final BitSet seen = new BitSet();
+        private volatile StompSession session;
+        private volatile long connectStartedAt;
+
+        CompletableFuture<StompSession> connect() {
+            connectStartedAt = LoadTest.epochMicros();
+            return stompClient.connectAsync(scenario.baseUrl() + "/ws", this);
+        }
+
+        void disconnect() {
+            StompSession current = session;
+            session = null;
+            if (current != null && current.isConnected()) {
+                current.disconnect();
+            }
+        }
+
+        synchronized boolean markSeen(int seq) {
+            if (seen.get(seq)) {
+                return false;
+            }
+            seen.set(seq);
+            return true;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            this.session = session;
+            session.subscribe(scenario.topic(), this);
+            connectLatency.recordValue(Math.min(LoadTest.epochMicros() - connectStartedAt,
+                    HIGHEST_TRACKABLE_MICROS));
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            onPayload(this, (byte[]) payload);
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                byte[] payload, Throwable exception) {
+            transportErrors.incrementAndGet();
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            transportErrors.incrementAndGet();
+        }
+    }
+}
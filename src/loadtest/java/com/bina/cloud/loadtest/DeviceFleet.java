@@ -0,0 +1,134 @@
+package com.bina.cloud.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Frota de aparelhos Android: cada evento sai de um deviceId da frota com o
+ * telefone fixo do aparelho, em POST /api/eventos. Os aparelhos compartilham
+ * um HttpClient assíncrono; max-in-flight limita as requisições pendentes e o
+ * que passar disso conta como saturated (o gerador não acompanhou a taxa).
+ *
+ * O additionalData leva run, seq e sentAt (epoch em microssegundos), lidos de
+ * volta pelos assinantes para medir a latência de ingestão até a entrega.
+ */
+class DeviceFleet {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final LoadScenario scenario;
+    private final String runId;
+    private final URI eventosUri;
+    private final HttpClient httpClient;
+    private final Semaphore inFlight;
+    private final String[] deviceIds;
+    private final String[] phoneNumbers;
+    private final Recorder httpLatency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong saturated = new AtomicLong();
+
+    DeviceFleet(LoadScenario scenario, String runId) {
+        this.scenario = scenario;
+        this.runId = runId;
+        this.eventosUri = URI.create(scenario.baseUrl() + "/api/eventos");
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.inFlight = new Semaphore(scenario.maxInFlight());
+        this.deviceIds = new String[scenario.devices()];
+        this.phoneNumbers = new String[scenario.devices()];
+        for (int device = 0; device < scenario.devices(); device++) {
+            deviceIds[device] = String.format("loadtest-%05d", device);
+            phoneNumbers[device] = String.format("0619%08d", device);
+        }
+    }
+
+    /**
+     * Envia o evento de número seq sem esperar a resposta
+     */
+    void send(long seq) {
+        if (!inFlight.tryAcquire()) {
+            saturated.incrementAndGet();
+            return;
+        }
+        int device = (int) (seq % scenario.devices());
+        long sentAt = LoadTest.epochMicros();
+        HttpRequest request = HttpRequest.newBuilder(eventosUri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body(device, seq, sentAt)))
+                .build();
+        sent.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    inFlight.release();
+                    if (failure != null) {
+                        errors.incrementAndGet();
+                        return;
+                    }
+                    httpLatency.recordValue(Math.min(LoadTest.epochMicros() - sentAt, HIGHEST_TRACKABLE_MICROS));
+                    // 200 gravado, 202 enfileirado (bina.ingest.async.enabled)
+                    if (response.statusCode() / 100 == 2) {
+                        accepted.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                });
+    }
+
+    /**
+     * Espera as respostas pendentes; false se o prazo acabar antes
+     */
+    boolean awaitInFlight(Duration timeout) throws InterruptedException {
+        if (!inFlight.tryAcquire(scenario.maxInFlight(), timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        inFlight.release(scenario.maxInFlight());
+        return true;
+    }
+
+    private String body(int device, long seq, long sentAt) {
+        String additionalData = "{\\\"numero\\\":\\\"" + phoneNumbers[device] + "\\\",\\\"run\\\":\\\"" + runId
+                + "\\\",\\\"seq\\\":" + seq + ",\\\"sentAt\\\":" + sentAt + "}";
+        return "{\"description\":\"Chamada recebida\",\"deviceId\":\"" + deviceIds[device]
+                + "\",\"eventType\":\"CALL_RECEIVED\",\"additionalData\":\"" + additionalData + "\"}";
+    }
+
+    Recorder httpLatency() {
+        return httpLatency;
+    }
+
+    long sent() {
+        return sent.get();
+    }
+
+    long accepted() {
+        return accepted.get();
+    }
+
+    long rejected() {
+        return rejected.get();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    long saturated() {
+        return saturated.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.bina.cloud.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resultado de um run: vazão da ingestão, latências em milissegundos
+ * (HTTP e ingestão até a entrega) e frames perdidos. dropped considera que
+ * cada assinante deveria receber todo evento aceito pelo servidor.
+ */
+record LoadReport(
+        String scenario,
+        String runId,
+        int devices,
+        int subscribers,
+        String topic,
+        List<PhaseResult> phases,
+        long sent,
+        long accepted,
+        long rejected,
+        long errors,
+        long saturated,
+        double acceptedPerSecond,
+        Latency httpLatency,
+        long expectedDeliveries,
+        long delivered,
+        long dropped,
+        long duplicates,
+        long frames,
+        long unreadableFrames,
+        Latency deliveryLatency,
+        Latency connectLatency,
+        long connectFailures,
+        long transportErrors) {
+
+    void print() {
+        System.out.printf(Locale.ROOT, "[LoadTest] scenario=%s runId=%s devices=%d subscribers=%d topic=%s%n",
+                scenario, runId, devices, subscribers, topic);
+        for (PhaseResult phase : phases) {
+            System.out.printf(Locale.ROOT, "[LoadTest] phase=%s durationS=%.1f targetRate=%d sent=%d sendRate=%.0f/s%s%n",
+                    phase.name(), phase.durationSeconds(), phase.targetRate(), phase.sent(),
+                    phase.sent() / Math.max(phase.durationSeconds(), 0.001), phase.reconnect() ? " reconnect" : "");
+        }
+        System.out.printf(Locale.ROOT, "[LoadTest] ingest sent=%d accepted=%d rejected=%d errors=%d saturated=%d "
+                + "throughput=%.0f events/s%n", sent, accepted, rejected, errors, saturated, acceptedPerSecond);
+        System.out.printf(Locale.ROOT, "[LoadTest] http %s%n", httpLatency);
+        System.out.printf(Locale.ROOT, "[LoadTest] delivery %s%n", deliveryLatency);
+        System.out.printf(Locale.ROOT, "[LoadTest] frames expected=%d delivered=%d dropped=%d duplicates=%d "
+                + "frames=%d unreadable=%d%n", expectedDeliveries, delivered, dropped, duplicates, frames,
+                unreadableFrames);
+        System.out.printf(Locale.ROOT, "[LoadTest] connect %s failures=%d transportErrors=%d%n", connectLatency,
+                connectFailures, transportErrors);
+    }
+
+    record PhaseResult(String name, double durationSeconds, int targetRate, long sent, boolean reconnect) {
+    }
+
+    /**
+     * Percentis em milissegundos de um histograma em microssegundos
+     */
+    record Latency(long count, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static Latency of(Histogram micros) {
+            return new Latency(micros.getTotalCount(), toMillis(micros.getValueAtPercentile(50)),
+                    toMillis(micros.getValueAtPercentile(99)), toMillis(micros.getValueAtPercentile(99.9)),
+                    toMillis(micros.getMaxValue()));
+        }
+
+        private static double toMillis(long micros) {
+            return micros / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "count=%d p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms", count, p50Ms,
+                    p99Ms, p999Ms, maxMs);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.bina.cloud.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Cenário de carga lido de um arquivo .properties: os embutidos ficam em
+ * scenarios/ no classpath (steady, burst, reconnect-storm) e qualquer outro
+ * arquivo pode ser passado pelo caminho. Chaves avulsas (devices=5000)
+ * sobrescrevem o arquivo.
+ *
+ * phases é uma lista nome:segundos:eventos-por-segundo[:reconnect], executada
+ * em ordem; reconnect derruba e reconecta todos os assinantes ao mesmo tempo
+ * no início da fase.
+ */
+record LoadScenario(
+        String name,
+        String baseUrl,
+        int devices,
+        int subscribers,
+        String topic,
+        int maxInFlight,
+        int drainSeconds,
+        String reportFile,
+        List<Phase> phases) {
+
+    private static final String BUILT_IN_PREFIX = "scenarios/";
+    private static final String BUILT_IN_SUFFIX = ".properties";
+
+    static LoadScenario load(String scenario, List<String> overrides) throws IOException {
+        Properties properties = new Properties();
+        Path file = Path.of(scenario);
+        String name;
+        if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            name = file.getFileName().toString().replace(BUILT_IN_SUFFIX, "");
+        } else {
+            try (InputStream input = LoadScenario.class.getClassLoader()
+                    .getResourceAsStream(BUILT_IN_PREFIX + scenario + BUILT_IN_SUFFIX)) {
+                if (input == null) {
+                    throw new IllegalArgumentException("Cenário não encontrado: " + scenario);
+                }
+                properties.load(input);
+            }
+            name = scenario;
+        }
+        for (String override : overrides) {
+            int separator = override.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Esperado chave=valor: " + override);
+            }
+            properties.setProperty(override.substring(0, separator).trim(), override.substring(separator + 1).trim());
+        }
+
+        LoadScenario loaded = new LoadScenario(
+                name,
+                properties.getProperty("base-url", "http://localhost:8080"),
+                intProperty(properties, "devices", 1000),
+                intProperty(properties, "subscribers", 100),
+                properties.getProperty("topic", "/topic/events"),
+                intProperty(properties, "max-in-flight", 256),
+                intProperty(properties, "drain-seconds", 10),
+                properties.getProperty("report", "target/loadtest-" + name + ".json"),
+                parsePhases(properties.getProperty("phases", "steady:60:100")));
+        if (loaded.devices() <= 0 || loaded.maxInFlight() <= 0 || loaded.subscribers() < 0) {
+            throw new IllegalArgumentException("devices e max-in-flight devem ser positivos");
+        }
+        return loaded;
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static List<Phase> parsePhases(String value) {
+        List<Phase> phases = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length < 3 || parts.length > 4 || (parts.length == 4 && !"reconnect".equals(parts[3]))) {
+                throw new IllegalArgumentException("Fase inválida (nome:segundos:eventos-por-segundo[:reconnect]): "
+                        + item);
+            }
+            phases.add(new Phase(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                    parts.length == 4));
+        }
+        return List.copyOf(phases);
+    }
+
+    record Phase(String name, int durationSeconds, int eventsPerSecond, boolean reconnect) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.bina.cloud.loadtest;
+
+import com.bina.cloud.loadtest.LoadReport.Latency;
+import com.bina.cloud.loadtest.LoadReport.PhaseResult;
+import com.bina.cloud.loadtest.LoadScenario.Phase;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga contra um servidor já rodando: aparelhos enviando POST
+ * /api/eventos na taxa de cada fase e dashboards recebendo pelo /ws.
+ *
+ * Uso: LoadTest &lt;cenário ou arquivo .properties&gt; [chave=valor ...]
+ * (pelo Maven: mvn -Ploadtest -DskipTests verify -Dloadtest.scenario=burst)
+ */
+public final class LoadTest {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final Duration IN_FLIGHT_TIMEOUT = Duration.ofSeconds(60);
+    // Tempo para as assinaturas chegarem ao broker antes do primeiro evento
+    private static final long SUBSCRIBE_SETTLE_MS = 500;
+    private static final long DRAIN_POLL_MS = 100;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: LoadTest <steady|burst|reconnect-storm|arquivo.properties> [chave=valor ...]");
+            System.exit(2);
+        }
+        List<String> overrides = Arrays.stream(args, 1, args.length)
+                .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+                .filter(arg -> !arg.isEmpty())
+                .toList();
+        LoadScenario scenario = LoadScenario.load(args[0], overrides);
+        configureLogging();
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        LoadReport report = run(scenario, objectMapper);
+        report.print();
+        Path reportFile = Path.of(scenario.reportFile());
+        if (reportFile.getParent() != null) {
+            Files.createDirectories(reportFile.getParent());
+        }
+        objectMapper.writeValue(reportFile.toFile(), report);
+        System.out.println("[LoadTest] report=" + reportFile.toAbsolutePath());
+        // Threads do cliente WebSocket não são daemon
+        System.exit(0);
+    }
+
+    static LoadReport run(LoadScenario scenario, ObjectMapper objectMapper) throws Exception {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        System.out.printf("[LoadTest] run - IN scenario=%s runId=%s baseUrl=%s%n", scenario.name(), runId,
+                scenario.baseUrl());
+        DeviceFleet fleet = new DeviceFleet(scenario, runId);
+        try (DashboardSubscribers subscribers = new DashboardSubscribers(scenario, runId, objectMapper)) {
+            subscribers.connectAll();
+            System.out.printf("[LoadTest] subscribers connected=%d/%d%n", subscribers.connected(),
+                    scenario.subscribers());
+            Thread.sleep(SUBSCRIBE_SETTLE_MS);
+
+            List<PhaseResult> phases = new ArrayList<>();
+            long seq = 0;
+            long startedAt = System.nanoTime();
+            for (Phase phase : scenario.phases()) {
+                CompletableFuture<Void> reconnect = null;
+                if (phase.reconnect()) {
+                    reconnect = CompletableFuture.runAsync(() -> reconnect(subscribers));
+                }
+                long phaseStart = System.nanoTime();
+                long sentBefore = fleet.sent();
+                seq = runPhase(fleet, phase, seq);
+                if (reconnect != null) {
+                    reconnect.join();
+                }
+                phases.add(new PhaseResult(phase.name(), (System.nanoTime() - phaseStart) / 1e9,
+                        phase.eventsPerSecond(), fleet.sent() - sentBefore, phase.reconnect()));
+                System.out.printf("[LoadTest] phase=%s done sent=%d accepted=%d delivered=%d%n", phase.name(),
+                        fleet.sent(), fleet.accepted(), subscribers.delivered());
+            }
+            double sendSeconds = (System.nanoTime() - startedAt) / 1e9;
+
+            if (!fleet.awaitInFlight(IN_FLIGHT_TIMEOUT)) {
+                System.out.println("[LoadTest] requisições ainda pendentes após " + IN_FLIGHT_TIMEOUT);
+            }
+            long expected = fleet.accepted() * scenario.subscribers();
+            awaitDeliveries(subscribers, expected, scenario.drainSeconds());
+
+            return new LoadReport(scenario.name(), runId, scenario.devices(), scenario.subscribers(),
+                    scenario.topic(), List.copyOf(phases), fleet.sent(), fleet.accepted(), fleet.rejected(),
+                    fleet.errors(), fleet.saturated(), fleet.accepted() / sendSeconds,
+                    Latency.of(fleet.httpLatency().getIntervalHistogram()), expected, subscribers.delivered(),
+                    Math.max(0, expected - subscribers.delivered()), subscribers.duplicates(), subscribers.frames(),
+                    subscribers.unreadable(), Latency.of(subscribers.deliveryLatency().getIntervalHistogram()),
+                    Latency.of(subscribers.connectLatency().getIntervalHistogram()), subscribers.connectFailures(),
+                    subscribers.transportErrors());
+        }
+    }
+
+    /**
+     * Envia no ritmo da fase, em ticks curtos para espalhar os envios dentro
+     * de cada segundo; retorna o próximo seq
+     */
+    private static long runPhase(DeviceFleet fleet, Phase phase, long firstSeq) {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(phase.durationSeconds());
+        long seq = firstSeq;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            long due = firstSeq + (long) ((now - start) / 1e9 * phase.eventsPerSecond());
+            while (seq < due) {
+                fleet.send(seq++);
+            }
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+        return seq;
+    }
+
+    private static void reconnect(DashboardSubscribers subscribers) {
+        try {
+            subscribers.reconnectAll();
+            System.out.printf("[LoadTest] reconnect done connected=%d%n", subscribers.connected());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitDeliveries(DashboardSubscribers subscribers, long expected, int drainSeconds)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (subscribers.delivered() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(DRAIN_POLL_MS);
+        }
+    }
+
+    private static void configureLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        // Frames que chegam com a sessão já fechando no fim do run ou na reconexão
+        ((Logger) LoggerFactory.getLogger("org.springframework.web.socket.sockjs.client")).setLevel(Level.OFF);
+    }
+
+    static long epochMicros() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + now.getNano() / 1000;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bina.cloud.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches Caffeine configurados por spring.cache.* (tamanho, TTL e recordStats
+ * para as métricas cache.gets / cache.evictions do actuator)
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EVENTOS_CACHE = "eventos";
+}
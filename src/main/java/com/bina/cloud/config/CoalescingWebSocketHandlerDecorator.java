@@ -0,0 +1,466 @@
+package com.bina.cloud.config;
+
+import com.bina.cloud.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envia os frames de cada sessão em uma thread de escrita própria, fora do
+ * canal de saída do STOMP. Enquanto uma escrita está em andamento (cliente
+ * lento), frames MESSAGE pendentes do tópico em lote para a mesma assinatura
+ * são unidos em um único array, em vez de acumular um frame por lote até
+ * estourar o buffer de envio.
+ *
+ * Um cliente lento só ocupa a própria fila: as threads do canal de saída
+ * apenas enfileiram, e as threads de escrita atendem no máximo
+ * MAX_FRAMES_PER_DRAIN frames por sessão antes de passar a vez. Quando o
+ * pendente passa do limite, a {@link SlowConsumerPolicy} decide entre
+ * encerrar a sessão, descartar os frames mais antigos ou manter só o mais
+ * recente de cada assinatura; o próximo frame escrito da assinatura leva o
+ * header gap com o seq anterior ao primeiro descartado, para o cliente pedir
+ * o intervalo ao replay. Uma verificação periódica encerra as sessões com
+ * escrita parada além de sendTimeLimit, sem esperar o próximo frame.
+ */
+@Slf4j
+public class CoalescingWebSocketHandlerDecorator extends WebSocketHandlerDecorator {
+
+    static final int MAX_FRAMES_PER_DRAIN = 16;
+
+    /**
+     * Header do primeiro frame escrito depois de um descarte na assinatura:
+     * seq da última notificação entregue antes do intervalo perdido, vazio
+     * quando os frames descartados não tinham seq
+     */
+    static final String GAP_HEADER = "gap";
+
+    private final String coalescedDestination;
+    private final int maxPendingBytes;
+    private final long sendTimeLimitNanos;
+    private final SlowConsumerPolicy policy;
+    private final Executor writer;
+    private final Map<String, CoalescingSession> sessions = new ConcurrentHashMap<>();
+    private final Counter sentCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+    private final Counter conflatedCounter;
+    private final Counter slowConsumerCounter;
+    private final DistributionSummary queueDepthSummary;
+
+    public CoalescingWebSocketHandlerDecorator(WebSocketHandler delegate, String coalescedDestination,
+            int maxPendingBytes, long sendTimeLimitMs, SlowConsumerPolicy policy, Executor writer,
+            ScheduledExecutorService watchdog, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.coalescedDestination = coalescedDestination;
+        this.maxPendingBytes = maxPendingBytes;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.policy = policy;
+        this.writer = writer;
+        this.sentCounter = Counter.builder("bina.websocket.frames")
+                .tag("result", "sent")
+                .description("Frames escritos nas sessões WebSocket")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("bina.websocket.frames")
+                .tag("result", "coalesced")
+                .description("Frames de lote unidos a um frame pendente da mesma assinatura")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("bina.websocket.frames")
+                .tag("result", "dropped")
+                .description("Frames pendentes descartados de clientes lentos (drop-oldest)")
+                .register(meterRegistry);
+        this.conflatedCounter = Counter.builder("bina.websocket.frames")
+                .tag("result", "conflated")
+                .description("Frames pendentes substituídos por um mais recente da mesma assinatura (conflate)")
+                .register(meterRegistry);
+        this.slowConsumerCounter = Counter.builder("bina.websocket.slow-consumer.closed")
+                .description("Sessões encerradas por excederem o limite de envio pendente")
+                .register(meterRegistry);
+        this.queueDepthSummary = DistributionSummary.builder("bina.websocket.session.queue-depth")
+                .description("Frames pendentes na sessão a cada frame enfileirado")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("bina.websocket.sessions.pending-bytes", sessions,
+                CoalescingWebSocketHandlerDecorator::pendingBytes)
+                .description("Bytes aguardando escrita somando todas as sessões")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        long checkIntervalMs = Math.max(1, sendTimeLimitMs / 4);
+        watchdog.scheduleWithFixedDelay(this::closeStalledWrites, checkIntervalMs, checkIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        CoalescingSession coalescing = new CoalescingSession(session);
+        sessions.put(session.getId(), coalescing);
+        super.afterConnectionEstablished(coalescing);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(decorated(session), message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        super.handleTransportError(decorated(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        CoalescingSession coalescing = sessions.remove(session.getId());
+        if (coalescing != null) {
+            coalescing.discard();
+        }
+        super.afterConnectionClosed(coalescing != null ? coalescing : session, closeStatus);
+    }
+
+    private WebSocketSession decorated(WebSocketSession session) {
+        CoalescingSession coalescing = sessions.get(session.getId());
+        return coalescing != null ? coalescing : session;
+    }
+
+    /**
+     * Encerra as sessões com escrita parada além do limite, liberando a
+     * thread de escrita presa nelas
+     */
+    void closeStalledWrites() {
+        long now = System.nanoTime();
+        for (CoalescingSession session : sessions.values()) {
+            try {
+                session.closeIfStalled(now);
+            } catch (RuntimeException e) {
+                log.warn("[CoalescingWebSocketHandlerDecorator] closeStalledWrites - ERROR sessionId={} message={}",
+                        session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static double pendingBytes(Map<String, CoalescingSession> sessions) {
+        long total = 0;
+        for (CoalescingSession session : sessions.values()) {
+            total += session.pendingBytes();
+        }
+        return total;
+    }
+
+    final class CoalescingSession extends WebSocketSessionDecorator {
+
+        private final Deque<Frame> pending = new ArrayDeque<>();
+        // subscription -> seq anterior ao primeiro frame descartado (-1 sem seq)
+        private final Map<String, Long> gaps = new HashMap<>();
+        private int pendingBytes;
+        private boolean writing;
+        private boolean closed;
+        private long writeStartedAt;
+
+        private CoalescingSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                Frame frame = Frame.of(message, coalescedDestination);
+                Frame last = pending.peekLast();
+                if (last != null && last.canMerge(frame)) {
+                    pending.pollLast();
+                    pendingBytes -= last.size();
+                    frame = last.merge(frame);
+                    coalescedCounter.increment();
+                }
+                pending.addLast(frame);
+                pendingBytes += frame.size();
+                queueDepthSummary.record(pending.size());
+
+                String limit = exceededLimit();
+                if (limit != null) {
+                    markSlowConsumer("sendMessage", limit);
+                    closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+                    return;
+                }
+                schedule = !writing;
+                if (schedule) {
+                    writing = true;
+                    writeStartedAt = System.nanoTime();
+                }
+            }
+            if (schedule) {
+                writer.execute(this::drain);
+            }
+        }
+
+        private void closeIfStalled(long now) {
+            synchronized (this) {
+                if (closed || !stalled(now)) {
+                    return;
+                }
+                markSlowConsumer("closeIfStalled",
+                        "sendTimeMs=" + TimeUnit.NANOSECONDS.toMillis(now - writeStartedAt));
+            }
+            // Fora do lock: o close pode esperar a escrita parada, e sendMessage não deve esperar junto
+            closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+        }
+
+        private boolean stalled(long now) {
+            return writing && now - writeStartedAt > sendTimeLimitNanos;
+        }
+
+        private void markSlowConsumer(String method, String limit) {
+            closed = true;
+            pending.clear();
+            gaps.clear();
+            pendingBytes = 0;
+            slowConsumerCounter.increment();
+            log.warn("[CoalescingWebSocketHandlerDecorator] {} - SLOW_CONSUMER sessionId={} {}", method, getId(),
+                    limit);
+        }
+
+        private String exceededLimit() {
+            // Escrita parada: descartar frames não libera a sessão
+            long now = System.nanoTime();
+            if (stalled(now)) {
+                return "sendTimeMs=" + TimeUnit.NANOSECONDS.toMillis(now - writeStartedAt);
+            }
+            if (pendingBytes > maxPendingBytes && !relieve()) {
+                return "pendingBytes=" + pendingBytes + " policy=" + policy;
+            }
+            return null;
+        }
+
+        /**
+         * Aplica a política ao pendente; true se voltou ao limite
+         */
+        private boolean relieve() {
+            switch (policy) {
+                case DROP_OLDEST -> dropOldest();
+                case CONFLATE -> conflate();
+                case DISCONNECT -> {
+                }
+            }
+            return pendingBytes <= maxPendingBytes;
+        }
+
+        private void dropOldest() {
+            int dropped = 0;
+            Iterator<Frame> frames = pending.iterator();
+            while (pendingBytes > maxPendingBytes && frames.hasNext()) {
+                Frame frame = frames.next();
+                // Só frames MESSAGE; CONNECTED, RECEIPT e ERROR seguem sempre
+                if (frame.subscription() != null) {
+                    frames.remove();
+                    pendingBytes -= frame.size();
+                    markGap(frame);
+                    dropped++;
+                }
+            }
+            droppedCounter.increment(dropped);
+            log.debug("[CoalescingWebSocketHandlerDecorator] dropOldest - OUT sessionId={} dropped={} pendingBytes={}",
+                    getId(), dropped, pendingBytes);
+        }
+
+        private void conflate() {
+            Set<String> subscriptions = new HashSet<>();
+            int conflated = 0;
+            Iterator<Frame> frames = pending.descendingIterator();
+            while (frames.hasNext()) {
+                Frame frame = frames.next();
+                if (frame.subscription() != null && !subscriptions.add(frame.subscription())) {
+                    frames.remove();
+                    pendingBytes -= frame.size();
+                    markGap(frame);
+                    conflated++;
+                }
+            }
+            conflatedCounter.increment(conflated);
+            log.debug("[CoalescingWebSocketHandlerDecorator] conflate - OUT sessionId={} conflated={} pendingBytes={}",
+                    getId(), conflated, pendingBytes);
+        }
+
+        private void markGap(Frame dropped) {
+            long seq = dropped.firstSeq();
+            long since = seq > 0 ? seq - 1 : -1;
+            gaps.merge(dropped.subscription(), since,
+                    (current, next) -> current < 0 || next < 0 ? -1 : Math.min(current, next));
+        }
+
+        private synchronized int pendingBytes() {
+            return pendingBytes;
+        }
+
+        private void drain() {
+            for (int written = 0; written < MAX_FRAMES_PER_DRAIN; written++) {
+                WebSocketMessage<?> next;
+                synchronized (this) {
+                    Frame frame = closed ? null : pending.pollFirst();
+                    if (frame == null) {
+                        writing = false;
+                        return;
+                    }
+                    pendingBytes -= frame.size();
+                    writeStartedAt = System.nanoTime();
+                    Long gap = frame.subscription() != null ? gaps.remove(frame.subscription()) : null;
+                    next = gap != null ? frame.withGap(gap) : frame.message();
+                }
+                try {
+                    getDelegate().sendMessage(next);
+                    sentCounter.increment();
+                } catch (IOException | RuntimeException e) {
+                    log.debug("[CoalescingWebSocketHandlerDecorator] drain - ERROR sessionId={} message={}", getId(),
+                            e.getMessage());
+                    discard();
+                    closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+                    return;
+                }
+            }
+            // Passa a vez às outras sessões; o restante volta para o fim da fila de escrita
+            writer.execute(this::drain);
+        }
+
+        private synchronized void discard() {
+            closed = true;
+            writing = false;
+            pending.clear();
+            gaps.clear();
+            pendingBytes = 0;
+        }
+
+        private void closeQuietly(CloseStatus status) {
+            try {
+                getDelegate().close(status);
+            } catch (IOException e) {
+                log.debug("[CoalescingWebSocketHandlerDecorator] close - ERROR sessionId={} message={}", getId(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Frame pendente. subscription é preenchido nos frames MESSAGE, os únicos
+     * que as políticas de cliente lento descartam; batch marca os do destino
+     * em lote com corpo em array JSON, os únicos que podem ser unidos.
+     */
+    record Frame(WebSocketMessage<?> message, String subscription, boolean batch, String headers, String body) {
+
+        private static final String CONTENT_LENGTH = "content-length:";
+        private static final String SEQ = NotificationService.SEQUENCE_HEADER + ":";
+
+        static Frame of(WebSocketMessage<?> message, String coalescedDestination) {
+            if (!(message instanceof TextMessage text)) {
+                return new Frame(message, null, false, null, null);
+            }
+            String payload = text.getPayload();
+            int headersEnd = payload.indexOf("\n\n");
+            if (!payload.startsWith("MESSAGE\n") || headersEnd < 0 || !payload.endsWith("\0")) {
+                return new Frame(message, null, false, null, null);
+            }
+            String headers = payload.substring(0, headersEnd);
+            String subscription = header(headers, "subscription:");
+            if (subscription == null || !coalescedDestination.equals(header(headers, "destination:"))) {
+                return new Frame(message, subscription, false, null, null);
+            }
+            String body = payload.substring(headersEnd + 2, payload.length() - 1);
+            if (!body.startsWith("[") || !body.endsWith("]") || body.length() < 3) {
+                return new Frame(message, subscription, false, null, null);
+            }
+            return new Frame(message, subscription, true, headers, body);
+        }
+
+        int size() {
+            return message.getPayloadLength();
+        }
+
+        boolean canMerge(Frame newer) {
+            return batch && newer.batch && subscription.equals(newer.subscription);
+        }
+
+        /**
+         * Seq da primeira notificação do frame (no lote, o primeiro da lista); -1 sem seq
+         */
+        long firstSeq() {
+            if (!(message instanceof TextMessage text)) {
+                return -1;
+            }
+            String payload = text.getPayload();
+            int headersEnd = payload.indexOf("\n\n");
+            String seq = headersEnd < 0 ? null : header(payload.substring(0, headersEnd), SEQ);
+            if (seq == null || seq.isEmpty()) {
+                return -1;
+            }
+            int comma = seq.indexOf(',');
+            try {
+                return Long.parseLong(comma < 0 ? seq : seq.substring(0, comma));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * O frame com o header gap logo após o comando; o corpo e o content-length não mudam
+         */
+        WebSocketMessage<?> withGap(long since) {
+            String payload = ((TextMessage) message).getPayload();
+            int commandEnd = payload.indexOf('\n') + 1;
+            return new TextMessage(payload.substring(0, commandEnd) + GAP_HEADER + ':'
+                    + (since >= 0 ? String.valueOf(since) : "") + '\n' + payload.substring(commandEnd));
+        }
+
+        /**
+         * Une os arrays dos dois frames mantendo os headers do mais novo; o
+         * seq passa a listar os dois lotes
+         */
+        Frame merge(Frame newer) {
+            String mergedBody = body.substring(0, body.length() - 1) + ',' + newer.body.substring(1);
+            String olderSeq = header(headers, SEQ);
+            StringBuilder mergedHeaders = new StringBuilder(newer.headers.length() + 16);
+            for (String line : newer.headers.split("\n")) {
+                if (line.startsWith(SEQ) && olderSeq != null) {
+                    mergedHeaders.append(SEQ).append(olderSeq).append(',').append(line.substring(SEQ.length()))
+                            .append('\n');
+                } else if (!line.startsWith(CONTENT_LENGTH)) {
+                    mergedHeaders.append(line).append('\n');
+                }
+            }
+            mergedHeaders.append(CONTENT_LENGTH).append(mergedBody.getBytes(StandardCharsets.UTF_8).length);
+            String headersText = mergedHeaders.toString();
+            TextMessage merged = new TextMessage(headersText + "\n\n" + mergedBody + '\0');
+            return new Frame(merged, subscription, true, headersText, mergedBody);
+        }
+
+        private static String header(String headers, String name) {
+            for (String line : headers.split("\n")) {
+                if (line.startsWith(name)) {
+                    return line.substring(name.length());
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.bina.cloud.config;
 
+import com.bina.cloud.model.EventoCursor.InvalidCursorException;
+import com.bina.cloud.service.IdempotencyCache.InvalidIdempotencyKeyException;
+import com.bina.cloud.service.IngestQueueFullException;
+import com.bina.cloud.service.UnsupportedStoreQueryException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -19,6 +24,8 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationException(MethodArgumentNotValidException ex) {
         log.error("[GlobalExceptionHandler] Validation error message={}", ex.getMessage(), ex);
@@ -30,6 +37,53 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(body);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursorException(InvalidCursorException ex) {
+        log.warn("[GlobalExceptionHandler] Invalid cursor message={}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidIdempotencyKeyException(InvalidIdempotencyKeyException ex) {
+        log.warn("[GlobalExceptionHandler] Invalid idempotency key message={}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleIngestQueueFullException(IngestQueueFullException ex) {
+        log.warn("[GlobalExceptionHandler] Ingest queue full message={}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(body);
+    }
+
+    @ExceptionHandler(UnsupportedStoreQueryException.class)
+    public ResponseEntity<Map<String, Object>> handleUnsupportedStoreQueryException(
+            UnsupportedStoreQueryException ex) {
+        log.warn("[GlobalExceptionHandler] Unsupported store query message={}", ex.getMessage());
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.NOT_IMPLEMENTED.value());
+        body.put("error", "Not Implemented");
+        body.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         log.error("[GlobalExceptionHandler] Unhandled exception message={}", ex.getMessage(), ex);
@@ -0,0 +1,35 @@
+package com.bina.cloud.config;
+
+import com.bina.cloud.service.EventoMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Mede as páginas web do início do handler até o fim da renderização do
+ * template, que acontece depois do retorno do controller
+ */
+@RequiredArgsConstructor
+public class PageRenderMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = PageRenderMetricsInterceptor.class.getName() + ".start";
+
+    private final EventoMetrics eventoMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(START_ATTRIBUTE) instanceof Long startTime
+                && handler instanceof HandlerMethod handlerMethod) {
+            eventoMetrics.recordPageRender(handlerMethod.getMethod().getName(), System.nanoTime() - startTime);
+        }
+    }
+}
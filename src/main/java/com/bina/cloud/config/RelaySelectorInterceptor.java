@@ -0,0 +1,152 @@
+package com.bina.cloud.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filtro selector na assinatura com o relay externo. O broker em memória
+ * avalia o header selector (headers.eventType == 'CALL_MISSED'); RabbitMQ o
+ * ignora e o ActiveMQ o lê como seletor JMS. Aqui o header é retirado do
+ * SUBSCRIBE repassado ao broker e a expressão é avaliada nos frames MESSAGE
+ * de volta, antes de irem para a sessão.
+ */
+@Slf4j
+public class RelaySelectorInterceptor {
+
+    static final String SELECTOR_HEADER = "selector";
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final EvaluationContext evaluationContext = SimpleEvaluationContext
+            .forPropertyAccessors(new MapAccessor())
+            .build();
+
+    // sessionId -> subscriptionId -> selector
+    private final Map<String, Map<String, Expression>> selectors = new ConcurrentHashMap<>();
+
+    /**
+     * Canal de entrada: guarda e retira o selector do SUBSCRIBE
+     */
+    public ChannelInterceptor inbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                return onInbound(message);
+            }
+        };
+    }
+
+    /**
+     * Canal de saída: descarta os frames MESSAGE que não passam no selector da assinatura
+     */
+    public ChannelInterceptor outbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                return accepts(message) ? message : null;
+            }
+        };
+    }
+
+    Message<?> onInbound(Message<?> message) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        StompCommand command = accessor.getCommand();
+        String sessionId = accessor.getSessionId();
+        if (command == null || sessionId == null) {
+            return message;
+        }
+        switch (command) {
+            case SUBSCRIBE -> {
+                String selector = accessor.getFirstNativeHeader(SELECTOR_HEADER);
+                if (selector == null) {
+                    return message;
+                }
+                register(sessionId, accessor.getSubscriptionId(), selector);
+                accessor.removeNativeHeader(SELECTOR_HEADER);
+                return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+            }
+            case UNSUBSCRIBE -> {
+                Map<String, Expression> bySubscription = selectors.get(sessionId);
+                if (bySubscription != null) {
+                    bySubscription.remove(accessor.getSubscriptionId());
+                }
+            }
+            case DISCONNECT -> selectors.remove(sessionId);
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    boolean accepts(Message<?> message) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (accessor.getCommand() != StompCommand.MESSAGE || accessor.getSessionId() == null) {
+            return true;
+        }
+        Map<String, Expression> bySubscription = selectors.get(accessor.getSessionId());
+        Expression selector = bySubscription != null && accessor.getSubscriptionId() != null
+                ? bySubscription.get(accessor.getSubscriptionId())
+                : null;
+        if (selector == null) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(selector.getValue(evaluationContext, root(accessor), Boolean.class));
+        } catch (Exception e) {
+            // Como no broker em memória: selector que não avalia não entrega
+            log.debug("[RelaySelectorInterceptor] accepts - selector inválido subscription={} message={}",
+                    accessor.getSubscriptionId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void register(String sessionId, String subscriptionId, String selector) {
+        if (subscriptionId == null) {
+            return;
+        }
+        try {
+            selectors.computeIfAbsent(sessionId, key -> new ConcurrentHashMap<>())
+                    .put(subscriptionId, parser.parseExpression(selector));
+        } catch (Exception e) {
+            // Mesmo comportamento do broker em memória: selector que não compila é ignorado
+            log.warn("[RelaySelectorInterceptor] register - selector ignorado sessionId={} selector={} message={}",
+                    sessionId, selector, e.getMessage());
+        }
+    }
+
+    /**
+     * headers.x lê o primeiro valor do header nativo x (ou o destino), como no broker em memória
+     */
+    private static Map<String, Object> root(StompHeaderAccessor accessor) {
+        Map<String, Object> headers = new HashMap<>();
+        Map<String, List<String>> nativeHeaders = accessor.toNativeHeaderMap();
+        nativeHeaders.forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name, values.get(0));
+            }
+        });
+        if (accessor.getDestination() != null) {
+            headers.put("destination", accessor.getDestination());
+        }
+        return Map.of("headers", headers);
+    }
+
+    int subscriptionsWithSelector() {
+        return selectors.values().stream().mapToInt(Map::size).sum();
+    }
+}
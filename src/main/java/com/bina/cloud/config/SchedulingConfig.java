@@ -0,0 +1,12 @@
+package com.bina.cloud.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas @Scheduled (compactação da retenção de eventos)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,28 @@
+package com.bina.cloud.config;
+
+import java.util.Locale;
+
+/**
+ * O que fazer com uma sessão WebSocket cujo envio pendente passou de
+ * bina.websocket.slow-consumer.max-pending-bytes. Escrita parada além do
+ * limite de tempo encerra a sessão em qualquer política. Nas políticas que
+ * descartam, o próximo frame da assinatura leva o header gap.
+ */
+public enum SlowConsumerPolicy {
+
+    /** Encerra a sessão; o cliente reconecta e recupera o intervalo pelo replay */
+    DISCONNECT,
+
+    /** Descarta os frames MESSAGE pendentes mais antigos até voltar ao limite */
+    DROP_OLDEST,
+
+    /** Mantém só o frame MESSAGE pendente mais recente de cada assinatura */
+    CONFLATE;
+
+    /**
+     * Aceita o valor da propriedade (disconnect, drop-oldest, conflate)
+     */
+    public static SlowConsumerPolicy of(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -1,16 +1,78 @@
 package com.bina.cloud.config;
 
+import com.bina.cloud.service.NotificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final int SEND_BUFFER_SIZE_LIMIT = 512 * 1024;
+    private static final int SEND_TIME_LIMIT_MS = 20000;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    // Escrita por sessão fora do canal de saída, unindo frames do tópico em lote para clientes lentos
+    @Value("${bina.websocket.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    // Cliente lento na escrita por sessão: disconnect, drop-oldest ou conflate ao passar de max-pending-bytes
+    @Value("${bina.websocket.slow-consumer.policy:disconnect}")
+    private String slowConsumerPolicy;
+
+    @Value("${bina.websocket.slow-consumer.max-pending-bytes:" + SEND_BUFFER_SIZE_LIMIT + "}")
+    private int slowConsumerMaxPendingBytes;
+
+    // Threads de escrita mantidas para as sessões (sem virtual threads); escritas paradas não as esgotam
+    @Value("${bina.websocket.writer.threads:4}")
+    private int writerThreads;
+
+    // Broker STOMP externo (RabbitMQ, ActiveMQ) compartilhado entre os nós
+    @Value("${bina.websocket.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    @Value("${bina.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${bina.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${bina.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${bina.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${bina.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Com o relay o selector é avaliado aqui, não no broker externo
+    private final RelaySelectorInterceptor relaySelectorInterceptor = new RelaySelectorInterceptor();
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -22,14 +84,85 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic");
+        if (relayEnabled) {
+            // Cliente TCP explícito: o padrão do Spring exige reactor-netty-http, aqui só há o reactor-netty-core
+            var relay = registry.enableStompBrokerRelay("/topic")
+                    .setTcpClient(new ReactorNettyTcpClient<>(relayHost, relayPort, new StompReactorNettyCodec()))
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+            if (!relayVirtualHost.isEmpty()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            // selector: ver RelaySelectorInterceptor nos canais do cliente
+        } else {
+            // Permite filtrar na assinatura: selector: headers.eventType == 'CALL_MISSED'
+            registry.enableSimpleBroker("/topic")
+                    .setSelectorHeaderName("selector");
+        }
         registry.setApplicationDestinationPrefixes("/app");
     }
 
+    /**
+     * Com spring.threads.virtual.enabled (Java 21) as mensagens STOMP recebidas
+     * dos clientes são tratadas em virtual threads em vez do pool fixo padrão
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            registration.executor(new VirtualThreadTaskExecutor("stomp-inbound-"));
+        }
+        if (relayEnabled) {
+            registration.interceptors(relaySelectorInterceptor.inbound());
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            registration.executor(new VirtualThreadTaskExecutor("stomp-outbound-"));
+        }
+        if (relayEnabled) {
+            registration.interceptors(relaySelectorInterceptor.outbound());
+        }
+    }
+
     @Override
     public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
         registration.setMessageSizeLimit(64 * 1024) // 64KB message limit
-                .setSendBufferSizeLimit(512 * 1024) // 512KB send buffer
-                .setSendTimeLimit(20000); // 20s send timeout
+                .setSendBufferSizeLimit(SEND_BUFFER_SIZE_LIMIT) // 512KB send buffer
+                .setSendTimeLimit(SEND_TIME_LIMIT_MS); // 20s send timeout
+        if (coalescingEnabled) {
+            Executor writer = writerExecutor();
+            SlowConsumerPolicy policy = SlowConsumerPolicy.of(slowConsumerPolicy);
+            // Mesmo limite de tempo do transporte, aplicado ao que fica pendente por sessão
+            registration.addDecoratorFactory(handler -> new CoalescingWebSocketHandlerDecorator(handler,
+                    NotificationService.EVENTS_BATCH_TOPIC, slowConsumerMaxPendingBytes, SEND_TIME_LIMIT_MS, policy,
+                    writer, writerWatchdog(), meterRegistry));
+        }
+    }
+
+    /**
+     * writerThreads threads mantidas, e uma thread a mais sob demanda quando
+     * todas estão ocupadas: cliente preso em escrita segura no máximo uma
+     * thread, liberada pela verificação de escrita parada, sem atrasar as
+     * outras sessões. Cada sessão tem no máximo uma tarefa de escrita por vez
+     * e escreve poucos frames antes de passar a vez.
+     */
+    private Executor writerExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("ws-writer-");
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ws-writer-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(writerThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory);
+    }
+
+    private ScheduledExecutorService writerWatchdog() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ws-writer-watchdog-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
     }
-}
\ No newline at end of file
+}
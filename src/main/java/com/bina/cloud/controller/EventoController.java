@@ -1,18 +1,40 @@
 package com.bina.cloud.controller;
 
 import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.EventoBatchResult;
+import com.bina.cloud.model.EventoFilter;
+import com.bina.cloud.model.EventoItem;
+import com.bina.cloud.model.EventoPage;
+import com.bina.cloud.service.EventoIngestPipeline;
+import com.bina.cloud.service.EventoIngestPipeline.IngestStatus;
+import com.bina.cloud.service.EventoMetrics;
 import com.bina.cloud.service.EventoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/eventos")
@@ -21,44 +43,114 @@ import java.util.List;
 @Tag(name = "Eventos", description = "API para gerenciamento de eventos")
 public class EventoController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final char NDJSON_SEPARATOR = '\n';
+
     private final EventoService eventoService;
+    private final EventoIngestPipeline ingestPipeline;
+    private final ObjectMapper objectMapper;
+    private final EventoMetrics eventoMetrics;
 
     @PostMapping
-    @Operation(summary = "Criar novo evento", description = "Cria um novo evento com os dados fornecidos")
+    @Operation(summary = "Criar novo evento", description = "Cria um novo evento com os dados fornecidos. "
+            + "Com bina.ingest.async.enabled=true o evento é enfileirado e a resposta é 202 com o ingestId. "
+            + "Retentativas com o mesmo clientEventId (ou header Idempotency-Key) retornam o evento original")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Evento criado com sucesso"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos")
+        @ApiResponse(responseCode = "202", description = "Evento aceito para processamento assíncrono"),
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "429", description = "Fila de ingestão cheia")
     })
-    public ResponseEntity<Evento> createEvento(
+    public ResponseEntity<?> createEvento(
             @Parameter(description = "Dados do evento a ser criado", required = true)
-            @RequestBody Evento evento) {
-        long startTime = System.currentTimeMillis();
-        log.info("[EventoController] createEvento - IN deviceId={} eventType={} description={} ",
+            @RequestBody Evento evento,
+            @Parameter(description = "Id único da tentativa no dispositivo; substitui o clientEventId do corpo")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        long startTime = System.nanoTime();
+        log.debug("[EventoController] createEvento - IN deviceId={} eventType={} description={} ",
                 evento.getDeviceId(), evento.getEventType(), evento.getDescription());
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            evento.setClientEventId(idempotencyKey);
+        }
+        // Capturados antes do processamento, que pode alterar o evento
+        String eventType = evento.getEventType();
+        String deviceId = evento.getDeviceId();
         try {
+            if (ingestPipeline.isEnabled()) {
+                // Retentativa de evento já gravado: responde com o original em vez de enfileirar de novo
+                Optional<Evento> duplicate = eventoService.buscarDuplicado(evento);
+                if (duplicate.isPresent()) {
+                    long durationNanos = System.nanoTime() - startTime;
+                    eventoMetrics.recordIngest(eventType, deviceId, EventoMetrics.RESULT_OK, durationNanos);
+                    log.debug("[EventoController] createEvento - OUT duplicate id={} durationMs={}ms",
+                            duplicate.get().getId(), TimeUnit.NANOSECONDS.toMillis(durationNanos));
+                    return ResponseEntity.ok(duplicate.get());
+                }
+                IngestStatus status = ingestPipeline.submit(evento);
+                long durationNanos = System.nanoTime() - startTime;
+                eventoMetrics.recordIngest(eventType, deviceId, EventoMetrics.RESULT_QUEUED, durationNanos);
+                log.debug("[EventoController] createEvento - OUT accepted ingestId={} durationMs={}ms",
+                        status.ingestId(), TimeUnit.NANOSECONDS.toMillis(durationNanos));
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/eventos/ingest/" + status.ingestId()))
+                        .body(status);
+            }
+
             Evento created = eventoService.criarEvento(evento);
-            long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[EventoController] createEvento - OUT success id={} durationMs={}ms", created.getId(), durationMs);
+            long durationNanos = System.nanoTime() - startTime;
+            eventoMetrics.recordIngest(eventType, deviceId, EventoMetrics.RESULT_OK, durationNanos);
+            log.debug("[EventoController] createEvento - OUT success id={} durationMs={}ms", created.getId(),
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos));
             return ResponseEntity.ok(created);
         } catch (Exception e) {
-            long durationMs = System.currentTimeMillis() - startTime;
-            log.error("[EventoController] createEvento - ERROR durationMs={}ms message={}", durationMs, e.getMessage(), e);
+            long durationNanos = System.nanoTime() - startTime;
+            eventoMetrics.recordIngest(eventType, deviceId, EventoMetrics.RESULT_ERROR, durationNanos);
+            log.error("[EventoController] createEvento - ERROR durationMs={}ms message={}",
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos), e.getMessage(), e);
             throw e; // Propagar exceção para tratamento global
         }
     }
 
+    @PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, NDJSON_MEDIA_TYPE })
+    @Operation(summary = "Importar eventos em lote", description = "Recebe um array JSON ou NDJSON (um evento por "
+            + "linha), lido em streaming. O timestamp de cada evento (UTC) é mantido; sem ele vale o horário atual. "
+            + "Retorna o resultado de cada item e publica um único resumo em /topic/events/summary")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importação processada; verifique o status de cada item")
+    })
+    public ResponseEntity<EventoBatchResult> createEventosBatch(InputStream body) throws IOException {
+        long startTime = System.nanoTime();
+        log.debug("[EventoController] createEventosBatch - IN");
+        // Array na raiz é percorrido item a item; NDJSON é lido como sequência de valores
+        try (MappingIterator<Evento> eventos = objectMapper.readerFor(Evento.class).readValues(body)) {
+            EventoBatchResult result = eventoService.criarEventos(eventos);
+            log.debug("[EventoController] createEventosBatch - OUT received={} failed={} durationMs={}ms",
+                    result.received(), result.failed(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("[EventoController] createEventosBatch - ERROR durationMs={}ms message={}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), e.getMessage(), e);
+            throw e;
+        }
+    }
+
     @GetMapping
-    @Operation(summary = "Listar todos os eventos", description = "Retorna uma lista de todos os eventos cadastrados")
+    @Operation(summary = "Listar os eventos mais recentes", deprecated = true, description = "Retorna os limit "
+            + "eventos mais recentes, do mais recente para o mais antigo. Obsoleto: use /page para percorrer todos")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de eventos retornada com sucesso")
     })
-    public ResponseEntity<List<Evento>> getAllEventos() {
+    public ResponseEntity<List<EventoItem>> getAllEventos(
+            @Parameter(description = "Quantidade de eventos (máximo 500)")
+            @RequestParam(defaultValue = "" + EventoService.DEFAULT_PAGE_SIZE) int limit) {
         long startTime = System.currentTimeMillis();
-        log.debug("[EventoController] getAllEventos - IN");
+        log.debug("[EventoController] getAllEventos - IN limit={}", limit);
         try {
-            var eventos = eventoService.listarEventos();
+            var eventos = eventoService.listarEventos(limit);
             long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[EventoController] getAllEventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
+            log.debug("[EventoController] getAllEventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
             return ResponseEntity.ok(eventos);
         } catch (Exception e) {
             long durationMs = System.currentTimeMillis() - startTime;
@@ -67,13 +159,110 @@ public class EventoController {
         }
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Listar eventos paginados", description = "Retorna eventos do mais recente para o mais antigo "
+            + "com paginação por cursor (keyset). Use o campo next como cursor da próxima página. "
+            + "Horários de from/to em UTC")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de eventos retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "501", description = "Indisponível com bina.store.engine=segment-log")
+    })
+    public ResponseEntity<EventoPage> getEventosPage(
+            @Parameter(description = "Cursor retornado em next na página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de eventos por página (máximo 500)")
+            @RequestParam(defaultValue = "" + EventoService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String deviceId,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String phoneNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        long startTime = System.currentTimeMillis();
+        log.debug("[EventoController] getEventosPage - IN cursor={} limit={}", cursor, limit);
+        try {
+            EventoPage page = eventoService.listarEventosPaginado(
+                    new EventoFilter(deviceId, eventType, phoneNumber, from, to), cursor, limit);
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.debug("[EventoController] getEventosPage - OUT size={} durationMs={}ms", page.items().size(), durationMs);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[EventoController] getEventosPage - ERROR durationMs={}ms message={}", durationMs, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @GetMapping("/phone/{phoneNumber}")
+    @Operation(summary = "Histórico de um telefone", description = "Retorna os eventos do telefone normalizado, do "
+            + "mais recente para o mais antigo, incluindo os já movidos para o arquivo mensal")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Histórico retornado com sucesso")
+    })
+    public ResponseEntity<List<EventoItem>> getHistoricoTelefone(
+            @Parameter(description = "Telefone normalizado (ex.: 61981122752)", required = true)
+            @PathVariable String phoneNumber,
+            @Parameter(description = "Quantidade máxima de eventos (máximo 500)")
+            @RequestParam(defaultValue = "" + EventoService.DEFAULT_PAGE_SIZE) int limit) {
+        long startTime = System.currentTimeMillis();
+        log.debug("[EventoController] getHistoricoTelefone - IN phoneNumber={} limit={}", phoneNumber, limit);
+        try {
+            List<EventoItem> eventos = eventoService.historicoPorTelefone(phoneNumber, limit);
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.debug("[EventoController] getHistoricoTelefone - OUT size={} durationMs={}ms", eventos.size(),
+                    durationMs);
+            return ResponseEntity.ok(eventos);
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[EventoController] getHistoricoTelefone - ERROR durationMs={}ms message={}", durationMs,
+                    e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON_MEDIA_TYPE)
+    @Operation(summary = "Exportar eventos em NDJSON", description = "Transmite os eventos filtrados, um JSON por linha, "
+            + "lidos em cursor direto do banco sem carregar a tabela em memória. Horários de from/to em UTC")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportação iniciada"),
+        @ApiResponse(responseCode = "501", description = "Indisponível com bina.store.engine=segment-log")
+    })
+    public ResponseEntity<StreamingResponseBody> exportEventos(
+            @RequestParam(required = false) String deviceId,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String phoneNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("[EventoController] exportEventos - IN deviceId={} eventType={}", deviceId, eventType);
+        // Depois do início do streaming o status já não pode mudar
+        eventoService.exigirTabelaEventos("exportação");
+        EventoFilter filter = new EventoFilter(deviceId, eventType, phoneNumber, from, to);
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                eventoService.exportarEventos(filter, evento -> {
+                    try {
+                        rowWriter.writeValue(generator, evento);
+                        generator.writeRaw(NDJSON_SEPARATOR);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar evento por ID", description = "Retorna um evento específico pelo seu ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Evento encontrado"),
         @ApiResponse(responseCode = "404", description = "Evento não encontrado")
     })
-    public ResponseEntity<Evento> getEventoById(
+    public ResponseEntity<EventoItem> getEventoById(
             @Parameter(description = "ID do evento a ser buscado", required = true)
             @PathVariable Long id) {
         long startTime = System.currentTimeMillis();
@@ -82,12 +271,12 @@ public class EventoController {
             var response = eventoService.buscarPorId(id)
                     .map(evento -> {
                         long durationMs = System.currentTimeMillis() - startTime;
-                        log.info("[EventoController] getEventoById - OUT FOUND id={} durationMs={}ms", id, durationMs);
+                        log.debug("[EventoController] getEventoById - OUT FOUND id={} durationMs={}ms", id, durationMs);
                         return ResponseEntity.ok(evento);
                     })
                     .orElseGet(() -> {
                         long durationMs = System.currentTimeMillis() - startTime;
-                        log.warn("[EventoController] getEventoById - OUT NOT_FOUND id={} durationMs={}ms", id, durationMs);
+                        log.debug("[EventoController] getEventoById - OUT NOT_FOUND id={} durationMs={}ms", id, durationMs);
                         return ResponseEntity.notFound().build();
                     });
             return response;
@@ -97,4 +286,19 @@ public class EventoController {
             throw e;
         }
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/ingest/{ingestId}")
+    @Operation(summary = "Consultar ingestão assíncrona", description = "Retorna o status de um evento aceito pelo pipeline assíncrono")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status encontrado"),
+        @ApiResponse(responseCode = "404", description = "ingestId desconhecido ou expirado")
+    })
+    public ResponseEntity<IngestStatus> getIngestStatus(
+            @Parameter(description = "ingestId retornado na criação do evento", required = true)
+            @PathVariable String ingestId) {
+        log.debug("[EventoController] getIngestStatus - IN ingestId={}", ingestId);
+        return ingestPipeline.getStatus(ingestId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.bina.cloud.controller;
+
+import com.bina.cloud.repository.EventoListView;
+import com.bina.cloud.util.TimezoneUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * HTML de cada linha da página /eventos, guardado por id do evento. Eventos
+ * não mudam depois de gravados, então a cada atualização da página só as
+ * linhas novas passam pelo Thymeleaf.
+ */
+@Component
+public class EventoRowRenderer implements MeterBinder {
+
+    private static final String ROW_TEMPLATE = "fragments/evento-row";
+    private static final Set<String> ROW_SELECTOR = Set.of("row");
+
+    private final ITemplateEngine templateEngine;
+    private final Cache<Long, String> rows;
+
+    public EventoRowRenderer(ITemplateEngine templateEngine,
+            @Value("${bina.web.row-cache.size:1000}") int cacheSize) {
+        this.templateEngine = templateEngine;
+        this.rows = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Linhas renderizadas na ordem dos eventos
+     */
+    public List<String> render(List<EventoListView> eventos) {
+        List<String> rendered = new ArrayList<>(eventos.size());
+        for (EventoListView evento : eventos) {
+            Long id = evento.id();
+            rendered.add(id != null ? rows.get(id, key -> renderRow(evento)) : renderRow(evento));
+        }
+        return rendered;
+    }
+
+    private String renderRow(EventoListView evento) {
+        Context context = new Context(LocaleContextHolder.getLocale());
+        context.setVariable("evento", evento);
+        context.setVariable("horario", TimezoneUtil.convertUtcToBrasilia(evento.timestamp()));
+        return templateEngine.process(ROW_TEMPLATE, ROW_SELECTOR, context);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, rows, "eventoRows");
+    }
+}
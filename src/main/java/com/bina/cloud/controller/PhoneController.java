@@ -0,0 +1,68 @@
+package com.bina.cloud.controller;
+
+import com.bina.cloud.model.PhoneCallStats;
+import com.bina.cloud.service.PhoneStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/phones")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Telefones", description = "Estatísticas de ligações por telefone")
+public class PhoneController {
+
+    private final PhoneStatsService phoneStatsService;
+
+    @GetMapping("/{phoneNumber}/stats")
+    @Operation(summary = "Estatísticas de um telefone", description = "Quantidade de ligações (total, hoje e na "
+            + "semana, no horário de Brasília), primeira e última ligação e intervalos entre ligações. Mantidas a "
+            + "cada evento gravado, sem consultar o histórico")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso"),
+        @ApiResponse(responseCode = "404", description = "Nenhuma ligação registrada para o telefone")
+    })
+    public ResponseEntity<PhoneCallStats> getStats(
+            @Parameter(description = "Telefone normalizado (ex.: 61981122752)", required = true)
+            @PathVariable String phoneNumber) {
+        long startTime = System.currentTimeMillis();
+        log.debug("[PhoneController] getStats - IN phoneNumber={}", phoneNumber);
+        try {
+            Optional<PhoneCallStats> stats = phoneStatsService.find(phoneNumber);
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.debug("[PhoneController] getStats - OUT found={} durationMs={}ms", stats.isPresent(), durationMs);
+            return stats.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[PhoneController] getStats - ERROR durationMs={}ms message={}", durationMs, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    @PostMapping("/stats/rebuild")
+    @Operation(summary = "Reconstruir estatísticas", description = "Recalcula em segundo plano as estatísticas de "
+            + "todos os telefones a partir da tabela eventos e do arquivo mensal")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Reconstrução iniciada"),
+        @ApiResponse(responseCode = "409", description = "Já existe uma reconstrução em andamento")
+    })
+    public ResponseEntity<Void> rebuildStats() {
+        boolean started = phoneStatsService.startRebuild();
+        log.info("[PhoneController] rebuildStats - OUT started={}", started);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
@@ -1,48 +1,81 @@
 package com.bina.cloud.controller;
 
-import com.bina.cloud.model.Evento;
-import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.BrasiliaTimestampView;
+import com.bina.cloud.repository.EventoListView;
+import com.bina.cloud.repository.EventoMonitorView;
 import com.bina.cloud.service.EventoService;
+import com.bina.cloud.service.NotificationReplayLog;
+import com.bina.cloud.service.NotificationReplayLog.Replay;
+import com.bina.cloud.service.NotificationService.EventNotification;
+import com.bina.cloud.service.RecentEventsBuffer;
 import com.bina.cloud.util.TimezoneUtil;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 @Controller
 @RequiredArgsConstructor
 @Slf4j
 public class WebController {
 
-    private final EventoRepository eventoRepository;
+    private static final int EVENTOS_PAGE_SIZE = 10;
+
     private final EventoService eventoService;
+    private final NotificationReplayLog replayLog;
+    private final EventoRowRenderer eventoRowRenderer;
 
     @GetMapping("/eventos")
-    public String eventos(Model model) {
+    public String eventos(Model model, WebRequest webRequest, HttpServletResponse response) {
         long startTime = System.currentTimeMillis();
         log.debug("[WebController] eventos - IN");
         try {
-            List<Evento> eventos = eventoRepository.findAll(
-                    PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "timestamp"))).getContent();
-
-            // Converter timestamps UTC para Brasília
-            List<Evento> eventosComTimezone = eventos.stream()
-                    .map(this::convertEventoTimezone)
-                    .collect(Collectors.toList());
-
-            model.addAttribute("eventos", eventosComTimezone);
+            // Lida antes da listagem: um evento gravado no meio só deixa a versão enviada mais antiga
+            Optional<RecentEventsBuffer.Version> version = eventoService.getUltimosEventosVersion(EVENTOS_PAGE_SIZE);
+            // O navegador revalida a cada atualização; sem mudança, 304 sem listagem nem template
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            if (version.isPresent()
+                    && webRequest.checkNotModified(version.get().etag(), version.get().lastModifiedMillis())) {
+                long durationMs = System.currentTimeMillis() - startTime;
+                log.debug("[WebController] eventos - OUT notModified etag={} durationMs={}ms", version.get().etag(),
+                        durationMs);
+                return null;
+            }
+
+            // Projeção com as colunas da página; só as linhas de eventos novos passam pelo template
+            List<EventoListView> eventos = eventoService.getUltimosEventos(EVENTOS_PAGE_SIZE, EventoListView.class,
+                    EventoListView::of);
+
+            // Sem versão do buffer (vários nós): ETag dos ids listados, lidos do banco que todos os nós gravam
+            if (version.isEmpty() && webRequest.checkNotModified(listingEtag(eventos))) {
+                long durationMs = System.currentTimeMillis() - startTime;
+                log.debug("[WebController] eventos - OUT notModified size={} durationMs={}ms", eventos.size(),
+                        durationMs);
+                return null;
+            }
+
+            model.addAttribute("rows", eventoRowRenderer.render(eventos));
 
             long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[WebController] eventos - OUT size={} durationMs={}ms", eventosComTimezone.size(), durationMs);
+            log.debug("[WebController] eventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
             return "eventos";
         } catch (Exception e) {
             long durationMs = System.currentTimeMillis() - startTime;
@@ -56,17 +89,20 @@ public class WebController {
         long startTime = System.currentTimeMillis();
         log.debug("[WebController] monitor - IN");
         try {
-            List<Evento> eventos = eventoService.getUltimosEventos(50);
+            // Lido antes da consulta: o que for entregue depois vem no replay da primeira conexão
+            long replaySeq = replayLog.latestSeq();
 
-            // Converter timestamps UTC para Brasília
-            List<Evento> eventosComTimezone = eventos.stream()
-                    .map(this::convertEventoTimezone)
-                    .collect(Collectors.toList());
+            // Projeção com as colunas da página; horários de Brasília já formatados, na ordem dos eventos
+            List<EventoMonitorView> eventos = eventoService.getUltimosEventos(50, EventoMonitorView.class,
+                    EventoMonitorView::of);
 
-            model.addAttribute("eventos", eventosComTimezone);
+            model.addAttribute("eventos", eventos);
+            model.addAttribute("horarios", horariosBrasilia(eventos));
+            model.addAttribute("replayEpoch", replayLog.epoch());
+            model.addAttribute("replaySeq", replaySeq);
 
             long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[WebController] monitor - OUT size={} durationMs={}ms", eventosComTimezone.size(), durationMs);
+            log.debug("[WebController] monitor - OUT size={} durationMs={}ms", eventos.size(), durationMs);
             return "monitor";
         } catch (Exception e) {
             long durationMs = System.currentTimeMillis() - startTime;
@@ -75,6 +111,56 @@ public class WebController {
         }
     }
 
+    /**
+     * Eventos não mudam depois de gravados: a lista de ids identifica o conteúdo da página
+     */
+    private static String listingEtag(List<EventoListView> eventos) {
+        StringBuilder ids = new StringBuilder(eventos.size() * 8);
+        eventos.forEach(evento -> ids.append(evento.id()).append(','));
+        return "ids-" + DigestUtils.md5DigestAsHex(ids.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> horariosBrasilia(List<? extends BrasiliaTimestampView> eventos) {
+        List<LocalDateTime> timestamps = eventos.stream().map(BrasiliaTimestampView::timestamp).toList();
+        return TimezoneUtil.convertAllUtcToBrasilia(timestamps);
+    }
+
+    /**
+     * Replay para quem reconecta: SUBSCRIBE /app/events/replay com os headers
+     * since e epoch do último seq recebido (e os mesmos filtros da assinatura:
+     * deviceId, phone, eventType). A resposta vai só para esta sessão.
+     */
+    @SubscribeMapping("/events/replay")
+    public Replay replay(@Header(name = "since", required = false) Long since,
+            @Header(name = "epoch", required = false) String epoch,
+            @Header(name = "deviceId", required = false) String deviceId,
+            @Header(name = "phone", required = false) String phone,
+            @Header(name = "eventType", required = false) String eventType) {
+        long startTime = System.currentTimeMillis();
+        log.debug("[WebController] replay - IN since={} epoch={} deviceId={} phone={} eventType={}", since, epoch,
+                deviceId, phone, eventType);
+        Replay replay = replayLog.since(epoch, since != null ? since : -1,
+                replayFilter(deviceId, phone, eventType));
+        long durationMs = System.currentTimeMillis() - startTime;
+        log.debug("[WebController] replay - OUT status={} size={} durationMs={}ms", replay.status(),
+                replay.notifications().size(), durationMs);
+        return replay;
+    }
+
+    private static Predicate<EventNotification> replayFilter(String deviceId, String phone, String eventType) {
+        Predicate<EventNotification> filter = notification -> true;
+        if (deviceId != null && !deviceId.isBlank()) {
+            filter = filter.and(notification -> deviceId.equals(notification.deviceId()));
+        }
+        if (phone != null && !phone.isBlank()) {
+            filter = filter.and(notification -> phone.equals(notification.phoneNumber()));
+        }
+        if (eventType != null && !eventType.isBlank()) {
+            filter = filter.and(notification -> Objects.equals(eventType, notification.eventType()));
+        }
+        return filter;
+    }
+
     @MessageMapping("/heartbeat")
     @SendTo("/topic/heartbeat")
     public Map<String, Object> heartbeat(Map<String, Object> message) {
@@ -87,7 +173,7 @@ public class WebController {
                     "status", "ok");
 
             long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[WebController] heartbeat - OUT durationMs={}ms", durationMs);
+            log.debug("[WebController] heartbeat - OUT durationMs={}ms", durationMs);
             return response;
         } catch (Exception e) {
             long durationMs = System.currentTimeMillis() - startTime;
@@ -95,26 +181,4 @@ public class WebController {
             throw e;
         }
     }
-
-    /**
-     * Converte o timestamp do evento de UTC para Brasília
-     */
-    private Evento convertEventoTimezone(Evento evento) {
-        if (evento.getTimestamp() != null) {
-            // Criar uma cópia do evento com timestamp convertido
-            Evento eventoConvertido = new Evento();
-            eventoConvertido.setId(evento.getId());
-            eventoConvertido.setDescription(evento.getDescription());
-            eventoConvertido.setDeviceId(evento.getDeviceId());
-            eventoConvertido.setEventType(evento.getEventType());
-            eventoConvertido.setAdditionalData(evento.getAdditionalData());
-            eventoConvertido.setPhoneNumber(evento.getPhoneNumber());
-
-            // Converter timestamp UTC para Brasília
-            eventoConvertido.setTimestamp(TimezoneUtil.convertUtcToBrasiliaDateTime(evento.getTimestamp()));
-
-            return eventoConvertido;
-        }
-        return evento;
-    }
 }
\ No newline at end of file
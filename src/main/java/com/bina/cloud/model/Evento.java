@@ -4,19 +4,28 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
 import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "eventos")
+@Table(name = "eventos", indexes = {
+        @Index(name = "idx_eventos_phone_timestamp", columnList = "phone_number, timestamp DESC"),
+        @Index(name = "idx_eventos_timestamp_id", columnList = "timestamp DESC, id DESC"),
+        @Index(name = "idx_eventos_device_timestamp", columnList = "device_id, timestamp")
+}, uniqueConstraints = {
+        // Garantia final da idempotência por dispositivo; clientEventId nulo não conflita
+        @UniqueConstraint(name = "uk_eventos_device_client_event", columnNames = { "device_id", "client_event_id" })
+})
 @Data
 public class Evento {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_seq")
-    @SequenceGenerator(name = "evento_seq", sequenceName = "evento_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "evento_seq", sequenceName = "evento_sequence", allocationSize = 50)
     @Column(name = "id", nullable = false, updatable = false)
     private Long id;
     
@@ -36,4 +45,10 @@ public class Evento {
     
     @Column(length = 20)
     private String phoneNumber;
+
+    /**
+     * Id gerado pelo dispositivo (ou header Idempotency-Key) para deduplicar retentativas
+     */
+    @Column(length = 64)
+    private String clientEventId;
 } 
\ No newline at end of file
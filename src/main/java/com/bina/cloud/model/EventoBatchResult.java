@@ -0,0 +1,30 @@
+package com.bina.cloud.model;
+
+import java.util.List;
+
+/**
+ * Resultado de POST /api/eventos/batch: totais e o resultado de cada item, na
+ * ordem em que foram enviados ({@code index} começa em 0). Itens com
+ * clientEventId já gravado voltam como DUPLICATE, com o id original.
+ */
+public record EventoBatchResult(int received, int persisted, int duplicates, int failed, List<Item> items) {
+
+    public static final String STATUS_PERSISTED = "PERSISTED";
+    public static final String STATUS_DUPLICATE = "DUPLICATE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    public record Item(int index, String status, Long id, String error) {
+
+        public static Item persisted(int index, Long id) {
+            return new Item(index, STATUS_PERSISTED, id, null);
+        }
+
+        public static Item duplicate(int index, Long id) {
+            return new Item(index, STATUS_DUPLICATE, id, null);
+        }
+
+        public static Item failed(int index, String error) {
+            return new Item(index, STATUS_FAILED, null, error);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bina.cloud.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição da paginação por keyset: último (timestamp, id) entregue, codificado
+ * como token opaco em Base64 URL-safe.
+ */
+public record EventoCursor(LocalDateTime timestamp, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static EventoCursor of(Evento evento) {
+        return new EventoCursor(evento.getTimestamp(), evento.getId());
+    }
+
+    public static EventoCursor of(EventoItem evento) {
+        return new EventoCursor(evento.timestamp(), evento.id());
+    }
+
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new EventoCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public static class InvalidCursorException extends IllegalArgumentException {
+        public InvalidCursorException(String token) {
+            super("Cursor inválido: " + token);
+        }
+    }
+}
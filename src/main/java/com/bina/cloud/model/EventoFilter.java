@@ -0,0 +1,15 @@
+package com.bina.cloud.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionais para consulta e exportação de eventos. Os horários estão em
+ * UTC, como gravados no banco; {@code from} é inclusivo e {@code to} exclusivo.
+ */
+public record EventoFilter(
+        String deviceId,
+        String eventType,
+        String phoneNumber,
+        LocalDateTime from,
+        LocalDateTime to) {
+}
@@ -0,0 +1,18 @@
+package com.bina.cloud.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento como devolvido pelas listagens da API: mesmos campos (e mesmo JSON)
+ * da entidade, mas imutável e montado direto das colunas, sem passar pelo
+ * contexto de persistência. Timestamp em UTC.
+ */
+public record EventoItem(Long id, String description, LocalDateTime timestamp, String deviceId, String eventType,
+        String additionalData, String phoneNumber, String clientEventId) {
+
+    public static EventoItem of(Evento evento) {
+        return new EventoItem(evento.getId(), evento.getDescription(), evento.getTimestamp(), evento.getDeviceId(),
+                evento.getEventType(), evento.getAdditionalData(), evento.getPhoneNumber(),
+                evento.getClientEventId());
+    }
+}
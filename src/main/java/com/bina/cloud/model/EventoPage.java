@@ -0,0 +1,10 @@
+package com.bina.cloud.model;
+
+import java.util.List;
+
+/**
+ * Página de eventos ordenada do mais recente para o mais antigo. {@code next} é
+ * o cursor da próxima página, ou nulo quando não há mais eventos.
+ */
+public record EventoPage(List<EventoItem> items, String next) {
+}
@@ -0,0 +1,39 @@
+package com.bina.cloud.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resposta de GET /api/phones/{phone}/stats e bloco callStats da notificação.
+ * firstCall/lastCall em UTC; callsToday e callsThisWeek consideram o dia e a
+ * semana (segunda a domingo) de Brasília no momento da consulta. Intervalos
+ * em segundos, nulos até existirem ligações suficientes.
+ */
+public record PhoneCallStats(
+        String phoneNumber,
+        long callCount,
+        int callsToday,
+        int callsThisWeek,
+        LocalDateTime firstCall,
+        LocalDateTime lastCall,
+        Double averageIntervalSeconds,
+        Double recentIntervalSeconds,
+        Double stdDevIntervalSeconds,
+        Long minIntervalSeconds,
+        Long maxIntervalSeconds) {
+
+    public static PhoneCallStats of(PhoneStats stats, LocalDate brasiliaToday) {
+        return new PhoneCallStats(
+                stats.getPhoneNumber(),
+                stats.getCallCount(),
+                stats.callsOn(brasiliaToday),
+                stats.callsInWeekOf(brasiliaToday),
+                stats.getFirstCall(),
+                stats.getLastCall(),
+                stats.averageIntervalSeconds(),
+                stats.getRecentIntervalSeconds(),
+                stats.stdDevIntervalSeconds(),
+                stats.getMinIntervalSeconds(),
+                stats.getMaxIntervalSeconds());
+    }
+}
@@ -0,0 +1,176 @@
+package com.bina.cloud.model;
+
+import com.bina.cloud.util.TimezoneUtil;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Estatísticas de ligações de um telefone, atualizadas a cada evento gravado
+ * (sem reler o histórico). Horários em UTC; dia e semana contados no horário
+ * de Brasília. Intervalos em segundos, com média/variância incrementais
+ * (Welford) e média móvel exponencial para o comportamento recente.
+ */
+@Entity
+@Table(name = "phone_stats")
+@Data
+@NoArgsConstructor
+public class PhoneStats {
+
+    /** Peso da ligação mais recente na média móvel dos intervalos */
+    public static final double RECENT_INTERVAL_WEIGHT = 0.2;
+
+    @Id
+    @Column(length = 20)
+    private String phoneNumber;
+
+    private long callCount;
+
+    private LocalDateTime firstCall;
+
+    private LocalDateTime lastCall;
+
+    private LocalDateTime previousCall;
+
+    private long intervalCount;
+
+    private double intervalMeanSeconds;
+
+    /** Soma dos quadrados das diferenças para a média (Welford) */
+    @Column(name = "interval_m2")
+    private double intervalM2;
+
+    private Long minIntervalSeconds;
+
+    private Long maxIntervalSeconds;
+
+    private Double recentIntervalSeconds;
+
+    private LocalDate currentDay;
+
+    private int callsToday;
+
+    private LocalDate currentWeek;
+
+    private int callsThisWeek;
+
+    /**
+     * Incrementada a cada gravação; permite atualizar a partir da cópia em
+     * memória sem travar a linha antes (UPDATE ... WHERE revision = ?)
+     */
+    private long revision;
+
+    public PhoneStats(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    /**
+     * Inclui uma ligação. Ligações antigas (importação em lote) entram na
+     * contagem, mas só alteram os intervalos quando ficam antes da primeira;
+     * o rebuild recalcula os intervalos exatos.
+     */
+    public void recordCall(LocalDateTime timestamp) {
+        callCount++;
+        if (lastCall == null) {
+            firstCall = timestamp;
+            lastCall = timestamp;
+        } else if (!timestamp.isBefore(lastCall)) {
+            addInterval(Duration.between(lastCall, timestamp).toSeconds());
+            previousCall = lastCall;
+            lastCall = timestamp;
+        } else if (timestamp.isBefore(firstCall)) {
+            addInterval(Duration.between(timestamp, firstCall).toSeconds());
+            firstCall = timestamp;
+            if (previousCall == null) {
+                previousCall = timestamp;
+            }
+        } else if (previousCall == null || timestamp.isAfter(previousCall)) {
+            previousCall = timestamp;
+        }
+        countPeriod(timestamp);
+    }
+
+    public int callsOn(LocalDate brasiliaDay) {
+        return brasiliaDay.equals(currentDay) ? callsToday : 0;
+    }
+
+    public int callsInWeekOf(LocalDate brasiliaDay) {
+        return weekOf(brasiliaDay).equals(currentWeek) ? callsThisWeek : 0;
+    }
+
+    public Double averageIntervalSeconds() {
+        return intervalCount > 0 ? intervalMeanSeconds : null;
+    }
+
+    public Double stdDevIntervalSeconds() {
+        return intervalCount > 1 ? Math.sqrt(intervalM2 / (intervalCount - 1)) : null;
+    }
+
+    /**
+     * Cópia desanexada, para leitura fora da transação
+     */
+    public PhoneStats copy() {
+        PhoneStats copy = new PhoneStats();
+        copy.phoneNumber = phoneNumber;
+        copy.callCount = callCount;
+        copy.firstCall = firstCall;
+        copy.lastCall = lastCall;
+        copy.previousCall = previousCall;
+        copy.intervalCount = intervalCount;
+        copy.intervalMeanSeconds = intervalMeanSeconds;
+        copy.intervalM2 = intervalM2;
+        copy.minIntervalSeconds = minIntervalSeconds;
+        copy.maxIntervalSeconds = maxIntervalSeconds;
+        copy.recentIntervalSeconds = recentIntervalSeconds;
+        copy.currentDay = currentDay;
+        copy.callsToday = callsToday;
+        copy.currentWeek = currentWeek;
+        copy.callsThisWeek = callsThisWeek;
+        copy.revision = revision;
+        return copy;
+    }
+
+    public static LocalDate brasiliaDay(LocalDateTime utcTimestamp) {
+        return TimezoneUtil.convertUtcToBrasiliaDateTime(utcTimestamp).toLocalDate();
+    }
+
+    private void addInterval(long seconds) {
+        intervalCount++;
+        double delta = seconds - intervalMeanSeconds;
+        intervalMeanSeconds += delta / intervalCount;
+        intervalM2 += delta * (seconds - intervalMeanSeconds);
+        minIntervalSeconds = minIntervalSeconds == null ? seconds : Math.min(minIntervalSeconds, seconds);
+        maxIntervalSeconds = maxIntervalSeconds == null ? seconds : Math.max(maxIntervalSeconds, seconds);
+        recentIntervalSeconds = recentIntervalSeconds == null ? seconds
+                : RECENT_INTERVAL_WEIGHT * seconds + (1 - RECENT_INTERVAL_WEIGHT) * recentIntervalSeconds;
+    }
+
+    private void countPeriod(LocalDateTime timestamp) {
+        LocalDate day = brasiliaDay(timestamp);
+        if (currentDay == null || day.isAfter(currentDay)) {
+            currentDay = day;
+            callsToday = 1;
+        } else if (day.equals(currentDay)) {
+            callsToday++;
+        }
+        LocalDate week = weekOf(day);
+        if (currentWeek == null || week.isAfter(currentWeek)) {
+            currentWeek = week;
+            callsThisWeek = 1;
+        } else if (week.equals(currentWeek)) {
+            callsThisWeek++;
+        }
+    }
+
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(DayOfWeek.MONDAY);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.util.TimezoneUtil;
+
+import java.time.LocalDateTime;
+
+/**
+ * Base das projeções exibidas nas telas: o timestamp vem do banco em UTC e é
+ * apresentado no horário de Brasília
+ */
+public interface BrasiliaTimestampView {
+    LocalDateTime timestamp();
+
+    default LocalDateTime brasiliaTimestamp() {
+        return TimezoneUtil.convertUtcToBrasiliaDateTime(timestamp());
+    }
+}
@@ -0,0 +1,208 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Tabelas mensais de arquivo (eventos_archive_yyyyMM) com os eventos que
+ * saíram da janela quente da tabela eventos. Não são entidades JPA, então o
+ * ddl-auto não as percorre; cada uma tem índice por telefone para que o
+ * histórico de um número continue barato depois de arquivado.
+ */
+@Repository
+public class EventoArchiveRepository {
+
+    public static final String TABLE_PREFIX = "eventos_archive_";
+
+    private static final DateTimeFormatter TABLE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String COLUMNS = "id, description, timestamp, device_id, event_type, additional_data, "
+            + "phone_number, client_event_id";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentSkipListSet<YearMonth> months = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+
+    private volatile boolean monthsLoaded;
+
+    public EventoArchiveRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static String tableName(YearMonth month) {
+        return TABLE_PREFIX + month.format(TABLE_SUFFIX);
+    }
+
+    /**
+     * Meses já arquivados, do mais recente para o mais antigo
+     */
+    public List<YearMonth> archivedMonths() {
+        if (!monthsLoaded) {
+            loadMonths();
+        }
+        return List.copyOf(months);
+    }
+
+    /**
+     * Timestamp mais antigo da tabela quente anterior ao corte
+     */
+    public Optional<LocalDateTime> findOldestBefore(LocalDateTime cutoff) {
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        List<LocalDateTime> oldest = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT timestamp FROM eventos WHERE timestamp < ? ORDER BY timestamp LIMIT 1");
+            statement.setTimestamp(1, Timestamp.valueOf(cutoff), utcCalendar);
+            return statement;
+        }, (rs, rowNum) -> rs.getTimestamp(1, utcCalendar).toLocalDateTime());
+        return oldest.stream().findFirst();
+    }
+
+    /**
+     * Move até batchSize eventos do mês com timestamp anterior a end para a
+     * tabela de arquivo do mês, em uma transação curta. Retorna quantos foram
+     * movidos; zero quando o mês já foi todo arquivado.
+     */
+    public int archiveBatch(YearMonth month, LocalDateTime end, int batchSize) {
+        ensureTable(month);
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT id FROM eventos "
+                        + "WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp LIMIT ?");
+                statement.setTimestamp(1, Timestamp.valueOf(start), utcCalendar);
+                statement.setTimestamp(2, Timestamp.valueOf(end), utcCalendar);
+                statement.setInt(3, batchSize);
+                return statement;
+            }, (rs, rowNum) -> rs.getLong(1));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+            jdbcTemplate.update("INSERT INTO " + tableName(month) + " (" + COLUMNS + ") SELECT " + COLUMNS
+                    + " FROM eventos WHERE id IN (" + idList + ")");
+            jdbcTemplate.update("DELETE FROM eventos WHERE id IN (" + idList + ")");
+            return ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+
+    /**
+     * Horários das ligações arquivadas do número, do mais recente para o mais
+     * antigo, percorrendo os meses só até completar o limite
+     */
+    public List<LocalDateTime> findTimestampsByPhoneNumber(String phoneNumber, int limit) {
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        List<LocalDateTime> timestamps = new ArrayList<>();
+        for (YearMonth month : archivedMonths()) {
+            if (timestamps.size() >= limit) {
+                break;
+            }
+            int remaining = limit - timestamps.size();
+            timestamps.addAll(jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT timestamp FROM "
+                        + tableName(month) + " WHERE phone_number = ? ORDER BY timestamp DESC LIMIT ?");
+                statement.setString(1, phoneNumber);
+                statement.setInt(2, remaining);
+                return statement;
+            }, (rs, rowNum) -> rs.getTimestamp(1, utcCalendar).toLocalDateTime()));
+        }
+        return timestamps;
+    }
+
+    /**
+     * Todos os horários arquivados do número, do mais antigo para o mais
+     * recente (usado na reconstrução das estatísticas por telefone)
+     */
+    public List<LocalDateTime> findAllTimestampsByPhoneNumber(String phoneNumber) {
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        List<LocalDateTime> timestamps = new ArrayList<>();
+        List<YearMonth> oldestFirst = new ArrayList<>(archivedMonths());
+        Collections.reverse(oldestFirst);
+        for (YearMonth month : oldestFirst) {
+            timestamps.addAll(jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT timestamp FROM "
+                        + tableName(month) + " WHERE phone_number = ? ORDER BY timestamp");
+                statement.setString(1, phoneNumber);
+                return statement;
+            }, (rs, rowNum) -> rs.getTimestamp(1, utcCalendar).toLocalDateTime()));
+        }
+        return timestamps;
+    }
+
+    /**
+     * Eventos arquivados do número, do mais recente para o mais antigo
+     */
+    public List<Evento> findByPhoneNumber(String phoneNumber, int limit) {
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        List<Evento> eventos = new ArrayList<>();
+        for (YearMonth month : archivedMonths()) {
+            if (eventos.size() >= limit) {
+                break;
+            }
+            int remaining = limit - eventos.size();
+            eventos.addAll(jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT " + COLUMNS + " FROM "
+                        + tableName(month) + " WHERE phone_number = ? ORDER BY timestamp DESC, id DESC LIMIT ?");
+                statement.setString(1, phoneNumber);
+                statement.setInt(2, remaining);
+                return statement;
+            }, (rs, rowNum) -> {
+                Evento evento = EventoExportRepository.mapRow(rs, utcCalendar);
+                evento.setClientEventId(rs.getString("client_event_id"));
+                return evento;
+            }));
+        }
+        return eventos;
+    }
+
+    private void ensureTable(YearMonth month) {
+        if (archivedMonths().contains(month)) {
+            return;
+        }
+        String table = tableName(month);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Mesmos tipos de coluna da tabela quente, sem constraints nem DTYPE
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " AS SELECT " + COLUMNS
+                    + " FROM eventos WHERE 1 = 0");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_phone_timestamp ON " + table
+                    + " (phone_number, timestamp DESC)");
+        });
+        months.add(month);
+    }
+
+    private synchronized void loadMonths() {
+        if (monthsLoaded) {
+            return;
+        }
+        List<String> tables = jdbcTemplate.queryForList("SELECT LOWER(table_name) FROM information_schema.tables "
+                + "WHERE LOWER(table_name) LIKE '" + TABLE_PREFIX + "%'", String.class);
+        for (String table : tables) {
+            String suffix = table.substring(TABLE_PREFIX.length());
+            if (suffix.matches("\\d{6}")) {
+                months.add(YearMonth.parse(suffix, TABLE_SUFFIX));
+            }
+        }
+        monthsLoaded = true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.EventoFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+
+/**
+ * Leitura de eventos em cursor JDBC forward-only, linha a linha, sem carregar a
+ * tabela inteira na memória nem passar pelo contexto de persistência do JPA.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EventoExportRepository {
+
+    private static final int FETCH_SIZE = 500;
+    private static final String SELECT_EVENTOS = "SELECT id, description, timestamp, device_id, event_type, "
+            + "additional_data, phone_number FROM eventos";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Entrega cada evento que atende ao filtro ao consumidor, do mais recente
+     * para o mais antigo
+     */
+    @Transactional(readOnly = true)
+    public void stream(EventoFilter filter, Consumer<Evento> consumer) {
+        // Mesmo calendário UTC usado pelo Hibernate (hibernate.jdbc.time_zone=UTC)
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_EVENTOS).append(" WHERE 1 = 1");
+        appendEquals(sql, params, "device_id", filter.deviceId());
+        appendEquals(sql, params, "event_type", filter.eventType());
+        appendEquals(sql, params, "phone_number", filter.phoneNumber());
+        if (filter.from() != null) {
+            sql.append(" AND timestamp >= ?");
+            params.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND timestamp < ?");
+            params.add(Timestamp.valueOf(filter.to()));
+        }
+        sql.append(" ORDER BY timestamp DESC, id DESC");
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                if (params.get(i) instanceof Timestamp timestamp) {
+                    statement.setTimestamp(i + 1, timestamp, utcCalendar);
+                } else {
+                    statement.setObject(i + 1, params.get(i));
+                }
+            }
+            return statement;
+        }, (ResultSet rs) -> {
+            consumer.accept(mapRow(rs, utcCalendar));
+        });
+    }
+
+    private static void appendEquals(StringBuilder sql, List<Object> params, String column, String value) {
+        if (value != null && !value.isBlank()) {
+            sql.append(" AND ").append(column).append(" = ?");
+            params.add(value);
+        }
+    }
+
+    static Evento mapRow(ResultSet rs, Calendar utcCalendar) throws SQLException {
+        Evento evento = new Evento();
+        evento.setId(rs.getLong("id"));
+        evento.setDescription(rs.getString("description"));
+        Timestamp timestamp = rs.getTimestamp("timestamp", utcCalendar);
+        evento.setTimestamp(timestamp != null ? timestamp.toLocalDateTime() : null);
+        evento.setDeviceId(rs.getString("device_id"));
+        evento.setEventType(rs.getString("event_type"));
+        evento.setAdditionalData(rs.getString("additional_data"));
+        evento.setPhoneNumber(rs.getString("phone_number"));
+        return evento;
+    }
+}
@@ -0,0 +1,19 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+
+import java.time.LocalDateTime;
+
+/**
+ * Colunas exibidas na página /eventos. Os nomes dos componentes são os das
+ * propriedades de Evento: a consulta monta o record direto das colunas
+ * (select new), sem entidade nem proxy.
+ */
+public record EventoListView(Long id, String description, String eventType, String deviceId,
+        String additionalData, LocalDateTime timestamp) implements BrasiliaTimestampView {
+
+    public static EventoListView of(Evento evento) {
+        return new EventoListView(evento.getId(), evento.getDescription(), evento.getEventType(),
+                evento.getDeviceId(), evento.getAdditionalData(), evento.getTimestamp());
+    }
+}
@@ -0,0 +1,17 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+
+import java.time.LocalDateTime;
+
+/**
+ * Colunas exibidas no histórico da página /monitor
+ */
+public record EventoMonitorView(String eventType, String deviceId, String phoneNumber, String additionalData,
+        LocalDateTime timestamp) implements BrasiliaTimestampView {
+
+    public static EventoMonitorView of(Evento evento) {
+        return new EventoMonitorView(evento.getEventType(), evento.getDeviceId(), evento.getPhoneNumber(),
+                evento.getAdditionalData(), evento.getTimestamp());
+    }
+}
@@ -3,14 +3,52 @@ package com.bina.cloud.repository;
 import com.bina.cloud.model.Evento;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface EventoRepository extends JpaRepository<Evento, Long> {
+public interface EventoRepository extends JpaRepository<Evento, Long>, JpaSpecificationExecutor<Evento> {
     List<Evento> findByPhoneNumberOrderByTimestampDesc(String phoneNumber);
 
+    <T> List<T> findByPhoneNumberOrderByTimestampDescIdDesc(String phoneNumber, Pageable pageable, Class<T> view);
+
+    /**
+     * Todos os eventos projetados na view informada (record montado das colunas)
+     */
+    <T> List<T> findAllProjectedBy(Class<T> view);
+
     @Query("SELECT e FROM Evento e ORDER BY e.timestamp DESC")
     List<Evento> findTopNByOrderByTimestampDesc(Pageable pageable);
-}
\ No newline at end of file
+
+    List<Evento> findByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    List<Evento> findByTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDescIdDesc(LocalDateTime from,
+            LocalDateTime to, Pageable pageable);
+
+    /**
+     * Eventos mais recentes projetados apenas nas colunas da view informada
+     * (record montado com select new), sem carregar entidades nem executar COUNT
+     */
+    <T> List<T> findByOrderByTimestampDesc(Pageable pageable, Class<T> view);
+
+    @Query("SELECT e.timestamp FROM Evento e WHERE e.phoneNumber = :phoneNumber ORDER BY e.timestamp DESC")
+    List<LocalDateTime> findTimestampsByPhoneNumber(@Param("phoneNumber") String phoneNumber, Pageable pageable);
+
+    @Query("SELECT e.timestamp FROM Evento e WHERE e.phoneNumber = :phoneNumber ORDER BY e.timestamp")
+    List<LocalDateTime> findAllTimestampsByPhoneNumber(@Param("phoneNumber") String phoneNumber);
+
+    @Query("SELECT DISTINCT e.phoneNumber FROM Evento e WHERE e.phoneNumber IS NOT NULL AND e.phoneNumber <> ''")
+    List<String> findDistinctPhoneNumbers();
+
+    @Query("SELECT e.phoneNumber AS phoneNumber, MAX(e.timestamp) AS lastCall FROM Evento e "
+            + "WHERE e.phoneNumber IS NOT NULL AND e.phoneNumber <> '' "
+            + "GROUP BY e.phoneNumber ORDER BY MAX(e.timestamp) DESC")
+    List<PhoneLastCall> findLastCallPerPhoneNumber(Pageable pageable);
+
+    Optional<Evento> findByDeviceIdAndClientEventId(String deviceId, String clientEventId);
+}
@@ -0,0 +1,64 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.EventoCursor;
+import com.bina.cloud.model.EventoFilter;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications para consultas filtradas de eventos. Só os filtros informados
+ * entram no WHERE, para que o banco possa usar os índices correspondentes.
+ */
+public final class EventoSpecifications {
+
+    private EventoSpecifications() {
+    }
+
+    public static Specification<Evento> matching(EventoFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (hasText(filter.deviceId())) {
+                predicates.add(cb.equal(root.get("deviceId"), filter.deviceId()));
+            }
+            if (hasText(filter.eventType())) {
+                predicates.add(cb.equal(root.get("eventType"), filter.eventType()));
+            }
+            if (hasText(filter.phoneNumber())) {
+                predicates.add(cb.equal(root.get("phoneNumber"), filter.phoneNumber()));
+            }
+            if (filter.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), filter.from()));
+            }
+            if (filter.to() != null) {
+                predicates.add(cb.lessThan(root.get("timestamp"), filter.to()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Apenas eventos com timestamp, necessários para a paginação por keyset
+     */
+    public static Specification<Evento> withTimestamp() {
+        return (root, query, cb) -> cb.isNotNull(root.get("timestamp"));
+    }
+
+    /**
+     * Eventos posteriores ao cursor na ordem (timestamp DESC, id DESC)
+     */
+    public static Specification<Evento> after(EventoCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("timestamp"), cursor.timestamp()),
+                cb.and(
+                        cb.equal(root.get("timestamp"), cursor.timestamp()),
+                        cb.lessThan(root.get("id"), cursor.id())));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
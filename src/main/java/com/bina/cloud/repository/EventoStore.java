@@ -0,0 +1,70 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Armazenamento dos eventos no caminho de ingestão e nas leituras quentes
+ * (buffer de recentes, busca por id, histórico do telefone, deduplicação,
+ * última ligação e reconstrução das estatísticas por telefone). Listagem com
+ * filtro, exportação e retenção são SQL sobre a tabela eventos e só existem
+ * quando isTableBacked().
+ *
+ * Ordenação das listas: timestamp decrescente (nulos por último), depois id
+ * decrescente. Implementação escolhida por bina.store.engine (jpa | segment-log).
+ */
+public interface EventoStore {
+
+    /**
+     * Grava os eventos na ordem recebida e devolve as mesmas instâncias com
+     * id. Um (deviceId, clientEventId) já gravado, ou repetido no próprio
+     * lote, falha com DataIntegrityViolationException e o lote não fica
+     * gravado (no JPA, pelo rollback da transação de quem chama). Dentro de
+     * uma transação o segment-log só escreve, e só atribui os ids, no commit;
+     * um rollback não deixa registro no log.
+     */
+    List<Evento> saveAll(List<Evento> eventos);
+
+    Optional<Evento> findById(Long id);
+
+    List<Evento> findLatest(int limit);
+
+    List<Evento> findByPhoneNumber(String phoneNumber, int limit);
+
+    /**
+     * Eventos com timestamp em [from, to)
+     */
+    List<Evento> findByTimestampBetween(LocalDateTime from, LocalDateTime to, int limit);
+
+    Optional<Evento> findByDeviceIdAndClientEventId(String deviceId, String clientEventId);
+
+    /**
+     * Horários das ligações do telefone, do mais recente para o mais antigo
+     */
+    List<LocalDateTime> findTimestampsByPhoneNumber(String phoneNumber, int limit);
+
+    /**
+     * Todos os horários das ligações do telefone, do mais antigo para o mais recente
+     */
+    List<LocalDateTime> findAllTimestampsByPhoneNumber(String phoneNumber);
+
+    List<String> findDistinctPhoneNumbers();
+
+    /**
+     * Última ligação de cada telefone, das mais recentes para as mais antigas
+     */
+    List<PhoneLastCall> findLastCallPerPhoneNumber(int limit);
+
+    long count();
+
+    /**
+     * true quando os eventos gravados ficam na tabela eventos, lida pelas
+     * consultas SQL (listagem com filtro, exportação, retenção)
+     */
+    default boolean isTableBacked() {
+        return true;
+    }
+}
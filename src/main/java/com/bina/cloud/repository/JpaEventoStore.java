@@ -0,0 +1,82 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tabela eventos pelo JPA (padrão)
+ */
+@Repository
+@ConditionalOnProperty(name = "bina.store.engine", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaEventoStore implements EventoStore {
+
+    private final EventoRepository eventoRepository;
+
+    @Override
+    public List<Evento> saveAll(List<Evento> eventos) {
+        List<Evento> saved = eventoRepository.saveAll(eventos);
+        // Violação da chave de idempotência aparece aqui, não no commit
+        eventoRepository.flush();
+        return saved;
+    }
+
+    @Override
+    public Optional<Evento> findById(Long id) {
+        return eventoRepository.findById(id);
+    }
+
+    @Override
+    public List<Evento> findLatest(int limit) {
+        return eventoRepository.findByOrderByTimestampDescIdDesc(PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Evento> findByPhoneNumber(String phoneNumber, int limit) {
+        return eventoRepository.findByPhoneNumberOrderByTimestampDescIdDesc(phoneNumber, PageRequest.of(0, limit),
+                Evento.class);
+    }
+
+    @Override
+    public List<Evento> findByTimestampBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return eventoRepository.findByTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampDescIdDesc(from,
+                to, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Optional<Evento> findByDeviceIdAndClientEventId(String deviceId, String clientEventId) {
+        return eventoRepository.findByDeviceIdAndClientEventId(deviceId, clientEventId);
+    }
+
+    @Override
+    public List<LocalDateTime> findTimestampsByPhoneNumber(String phoneNumber, int limit) {
+        return eventoRepository.findTimestampsByPhoneNumber(phoneNumber, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<LocalDateTime> findAllTimestampsByPhoneNumber(String phoneNumber) {
+        return eventoRepository.findAllTimestampsByPhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public List<String> findDistinctPhoneNumbers() {
+        return eventoRepository.findDistinctPhoneNumbers();
+    }
+
+    @Override
+    public List<PhoneLastCall> findLastCallPerPhoneNumber(int limit) {
+        return eventoRepository.findLastCallPerPhoneNumber(PageRequest.of(0, limit));
+    }
+
+    @Override
+    public long count() {
+        return eventoRepository.count();
+    }
+}
@@ -0,0 +1,12 @@
+package com.bina.cloud.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção com o horário da última ligação de cada número de telefone
+ */
+public interface PhoneLastCall {
+    String getPhoneNumber();
+
+    LocalDateTime getLastCall();
+}
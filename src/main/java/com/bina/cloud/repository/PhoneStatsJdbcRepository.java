@@ -0,0 +1,211 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.PhoneStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Gravação da tabela phone_stats em JDBC, dentro da transação que grava os
+ * eventos. Cada lote de eventos lê e regrava as estatísticas de centenas de
+ * telefones; em statements JDBC em lote isso custa uma fração do
+ * carregamento e do dirty checking das entidades pelo Hibernate.
+ *
+ * No caminho normal cada lote é um único batch de MERGE em ordem de
+ * telefone: insere os telefones novos e atualiza os demais se a revisão
+ * ainda for a lida. As linhas são travadas pela própria gravação, sempre na
+ * mesma ordem, sem um SELECT ... FOR UPDATE antes (no H2 ele regrava cada
+ * linha para travá-la).
+ */
+@Repository
+@RequiredArgsConstructor
+public class PhoneStatsJdbcRepository {
+
+    private static final String COLUMNS = "call_count, first_call, last_call, previous_call, interval_count, "
+            + "interval_mean_seconds, interval_m2, min_interval_seconds, max_interval_seconds, "
+            + "recent_interval_seconds, current_day, calls_today, current_week, calls_this_week, revision";
+    private static final int COLUMN_COUNT = 15;
+    private static final String INSERT = "INSERT INTO phone_stats (" + COLUMNS + ", phone_number) VALUES ("
+            + String.join(", ", Collections.nCopies(COLUMN_COUNT + 1, "?")) + ")";
+    private static final String UPDATE = "UPDATE phone_stats SET " + COLUMNS.replace(",", " = ?,") + " = ? "
+            + "WHERE phone_number = ? AND revision = ?";
+    // Revisão esperada de um telefone novo: nenhuma linha casa, só o INSERT
+    private static final long NEW_ROW = -1;
+    private static final String MERGE = "MERGE INTO phone_stats t "
+            + "USING (SELECT CAST(? AS VARCHAR(20)) AS phone_number, CAST(? AS BIGINT) AS expected) s "
+            + "ON t.phone_number = s.phone_number "
+            + "WHEN MATCHED AND t.revision = s.expected THEN UPDATE SET " + COLUMNS.replace(",", " = ?,") + " = ? "
+            + "WHEN NOT MATCHED AND s.expected = " + NEW_ROW + " THEN INSERT (" + COLUMNS + ", phone_number) VALUES ("
+            + String.join(", ", Collections.nCopies(COLUMN_COUNT, "?")) + ", s.phone_number)";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Estatísticas dos telefones, travadas até o fim da transação; a ordem
+     * fixa por telefone evita deadlock entre gravações concorrentes
+     */
+    public List<PhoneStats> findAllForUpdate(Collection<String> phoneNumbers) {
+        return findAll(phoneNumbers, " ORDER BY phone_number FOR UPDATE");
+    }
+
+    /**
+     * Estatísticas dos telefones sem travar as linhas
+     */
+    public List<PhoneStats> findAll(Collection<String> phoneNumbers) {
+        return findAll(phoneNumbers, "");
+    }
+
+    /**
+     * Grava num único batch, na ordem recebida (que deve ser a de telefone):
+     * os telefones em created são inseridos e os demais atualizados se ainda
+     * estiverem na revisão lida. Retorna os que não foram gravados porque
+     * outra transação criou ou alterou a linha nesse meio tempo.
+     */
+    public List<PhoneStats> mergeAll(List<PhoneStats> stats, Set<String> created) {
+        if (stats.isEmpty()) {
+            return List.of();
+        }
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        int[][] counts = jdbcTemplate.batchUpdate(MERGE, stats, stats.size(), (statement, item) -> {
+            boolean isNew = created.contains(item.getPhoneNumber());
+            statement.setString(1, item.getPhoneNumber());
+            statement.setLong(2, isNew ? NEW_ROW : item.getRevision());
+            bind(statement, 2, item, item.getRevision() + 1, utcCalendar);
+            bind(statement, 2 + COLUMN_COUNT, item, item.getRevision(), utcCalendar);
+        });
+        List<PhoneStats> stale = new ArrayList<>();
+        for (int i = 0; i < stats.size(); i++) {
+            PhoneStats item = stats.get(i);
+            if (counts[0][i] == 0) {
+                stale.add(item);
+            } else if (!created.contains(item.getPhoneNumber())) {
+                item.setRevision(item.getRevision() + 1);
+            }
+        }
+        return stale;
+    }
+
+    public void insertAll(List<PhoneStats> stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        jdbcTemplate.batchUpdate(INSERT, stats, stats.size(), (statement, item) -> {
+            bind(statement, 0, item, item.getRevision(), utcCalendar);
+            statement.setString(COLUMN_COUNT + 1, item.getPhoneNumber());
+        });
+    }
+
+    /**
+     * Grava as estatísticas que ainda estão na revisão lida, incrementando a
+     * revisão. Retorna as que não foram gravadas: com a linha travada por
+     * findAllForUpdate, só as que foram apagadas nesse meio tempo.
+     */
+    public List<PhoneStats> updateAll(List<PhoneStats> stats) {
+        if (stats.isEmpty()) {
+            return List.of();
+        }
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE, stats, stats.size(), (statement, item) -> {
+            bind(statement, 0, item, item.getRevision() + 1, utcCalendar);
+            statement.setString(COLUMN_COUNT + 1, item.getPhoneNumber());
+            statement.setLong(COLUMN_COUNT + 2, item.getRevision());
+        });
+        List<PhoneStats> stale = new ArrayList<>();
+        for (int i = 0; i < stats.size(); i++) {
+            PhoneStats item = stats.get(i);
+            if (counts[0][i] == 0) {
+                stale.add(item);
+            } else {
+                item.setRevision(item.getRevision() + 1);
+            }
+        }
+        return stale;
+    }
+
+    private List<PhoneStats> findAll(Collection<String> phoneNumbers, String suffix) {
+        if (phoneNumbers.isEmpty()) {
+            return List.of();
+        }
+        Calendar utcCalendar = Calendar.getInstance(UTC);
+        List<String> params = new ArrayList<>(phoneNumbers);
+        String sql = "SELECT phone_number, " + COLUMNS + " FROM phone_stats WHERE phone_number IN ("
+                + String.join(", ", Collections.nCopies(params.size(), "?")) + ")" + suffix;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapRow(rs, utcCalendar), params.toArray());
+    }
+
+    /**
+     * As COLUMN_COUNT colunas a partir do parâmetro offset + 1
+     */
+    private static void bind(PreparedStatement statement, int offset, PhoneStats stats, long revision,
+            Calendar utcCalendar) throws SQLException {
+        statement.setLong(offset + 1, stats.getCallCount());
+        setTimestamp(statement, offset + 2, stats.getFirstCall(), utcCalendar);
+        setTimestamp(statement, offset + 3, stats.getLastCall(), utcCalendar);
+        setTimestamp(statement, offset + 4, stats.getPreviousCall(), utcCalendar);
+        statement.setLong(offset + 5, stats.getIntervalCount());
+        statement.setDouble(offset + 6, stats.getIntervalMeanSeconds());
+        statement.setDouble(offset + 7, stats.getIntervalM2());
+        statement.setObject(offset + 8, stats.getMinIntervalSeconds(), Types.BIGINT);
+        statement.setObject(offset + 9, stats.getMaxIntervalSeconds(), Types.BIGINT);
+        statement.setObject(offset + 10, stats.getRecentIntervalSeconds(), Types.DOUBLE);
+        statement.setDate(offset + 11, stats.getCurrentDay() != null ? Date.valueOf(stats.getCurrentDay()) : null);
+        statement.setInt(offset + 12, stats.getCallsToday());
+        statement.setDate(offset + 13, stats.getCurrentWeek() != null ? Date.valueOf(stats.getCurrentWeek()) : null);
+        statement.setInt(offset + 14, stats.getCallsThisWeek());
+        statement.setLong(offset + 15, revision);
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, LocalDateTime value,
+            Calendar utcCalendar) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, Timestamp.valueOf(value), utcCalendar);
+        }
+    }
+
+    private static PhoneStats mapRow(ResultSet rs, Calendar utcCalendar) throws SQLException {
+        PhoneStats stats = new PhoneStats(rs.getString("phone_number"));
+        stats.setCallCount(rs.getLong("call_count"));
+        stats.setFirstCall(getTimestamp(rs, "first_call", utcCalendar));
+        stats.setLastCall(getTimestamp(rs, "last_call", utcCalendar));
+        stats.setPreviousCall(getTimestamp(rs, "previous_call", utcCalendar));
+        stats.setIntervalCount(rs.getLong("interval_count"));
+        stats.setIntervalMeanSeconds(rs.getDouble("interval_mean_seconds"));
+        stats.setIntervalM2(rs.getDouble("interval_m2"));
+        stats.setMinIntervalSeconds(rs.getObject("min_interval_seconds", Long.class));
+        stats.setMaxIntervalSeconds(rs.getObject("max_interval_seconds", Long.class));
+        stats.setRecentIntervalSeconds(rs.getObject("recent_interval_seconds", Double.class));
+        stats.setCurrentDay(rs.getObject("current_day", LocalDate.class));
+        stats.setCallsToday(rs.getInt("calls_today"));
+        stats.setCurrentWeek(rs.getObject("current_week", LocalDate.class));
+        stats.setCallsThisWeek(rs.getInt("calls_this_week"));
+        stats.setRevision(rs.getLong("revision"));
+        return stats;
+    }
+
+    private static LocalDateTime getTimestamp(ResultSet rs, String column, Calendar utcCalendar)
+            throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column, utcCalendar);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.PhoneStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Leitura das estatísticas por telefone; a gravação, feita junto com os
+ * eventos, fica em {@link PhoneStatsJdbcRepository}
+ */
+@Repository
+public interface PhoneStatsRepository extends JpaRepository<PhoneStats, String> {
+}
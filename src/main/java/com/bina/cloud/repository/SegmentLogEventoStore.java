@@ -0,0 +1,1019 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log local só de acréscimo: cada lote vira registros no fim do segmento
+ * atual, um arquivo mapeado em memória de tamanho fixo; cheio, abre o
+ * próximo. Uma gravação é uma cópia para a página mapeada e, com fsync, um
+ * force() do trecho escrito, sem ORM nem B-tree.
+ *
+ * Registro: tamanho (int), CRC32 (int) e payload com id, timestamp UTC e os
+ * campos texto. O tamanho é escrito por último; ao abrir, a leitura para no
+ * primeiro registro zerado, truncado ou com CRC inválido.
+ *
+ * Índices em memória, refeitos na abertura: posição por id (ids sequenciais
+ * deste log), ids por telefone, chave de idempotência e um índice de tempo
+ * esparso com o menor e o maior timestamp de cada bloco de index-interval
+ * registros, mais a ordem dos blocos pelo maior timestamp, mantida a cada
+ * acréscimo. Com timestamps em ordem de chegada (o caso normal: horário do
+ * servidor) as consultas leem só o fim do log.
+ *
+ * Os índices por chave são limitados. Ids por telefone guardam os
+ * indexed-phones telefones gravados mais recentemente; de um telefone que
+ * saiu, a parte antiga é relida do log quando a consulta precisa dela. As
+ * chaves de idempotência são uma janela das client-event-keys mais
+ * recentes: a retentativa de um evento mais antigo que isso é gravada de novo.
+ *
+ * Dentro de uma transação (EventoWriter) o lote só é escrito no commit: no
+ * beforeCommit os registros são acrescentados com o log travado para
+ * escrita, e a trava só é liberada depois do commit do banco. Commit
+ * confirmado, os registros entram nos índices; rollback ou falha no commit,
+ * o trecho escrito é zerado e os ids voltam a ficar livres. Assim uma falha
+ * nas estatísticas do telefone não deixa no log eventos que a retentativa
+ * gravaria de novo.
+ *
+ * Ids: um log vazio começa no próximo valor de evento_sequence, acima de
+ * todo id já usado na tabela eventos e no arquivo, que continuam sendo lidos
+ * no histórico do telefone. Nada é gravado na tabela: listagem com filtro e
+ * exportação ficam indisponíveis, e o log não tem retenção (a aplicação não
+ * sobe com bina.retention.enabled).
+ */
+@Repository
+@ConditionalOnProperty(name = "bina.store.engine", havingValue = "segment-log")
+@Slf4j
+public class SegmentLogEventoStore implements EventoStore, MeterBinder {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+    private static final String NEXT_SEQUENCE_VALUE = "SELECT NEXT VALUE FOR evento_sequence";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int indexInterval;
+    private final boolean fsync;
+    private final LongSupplier initialId;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Segment> segments = new ArrayList<>();
+    // Posição (segmento << 32 | offset) do registro de id firstId + i
+    private final LongList positions = new LongList();
+    private final LongList blockMinTime = new LongList();
+    private final LongList blockMaxTime = new LongList();
+    // Blocos em ordem crescente de (maior timestamp, bloco): findByTime percorre do fim
+    private final LongList blocksByMaxTime = new LongList();
+    // Posição em blocksByMaxTime do último bloco, o único que ainda recebe registros
+    private int lastBlockSlot;
+    // Ordem de inserção: um acréscimo move o telefone para o fim, e sai o gravado há mais tempo
+    private final Map<String, PhoneIds> idsByPhone;
+    private final Map<String, Long> idsByClientEvent;
+    // Maior id de telefone já removido de idsByPhone: antes dele um telefone pode ter ids fora do índice
+    private long evictedThrough;
+
+    private long firstId = 1;
+    // Próximo id a escrever: à frente dos índices enquanto um lote espera o commit
+    private long nextId = 1;
+    private long maxTime = NULL_TIME;
+    // Algum registro chegou com timestamp menor que um anterior
+    private boolean outOfOrder;
+
+    @Autowired
+    public SegmentLogEventoStore(@Value("${bina.store.segment-log.dir:./data/eventlog}") Path directory,
+            @Value("${bina.store.segment-log.segment-size:67108864}") int segmentSize,
+            @Value("${bina.store.segment-log.index-interval:64}") int indexInterval,
+            @Value("${bina.store.segment-log.fsync:true}") boolean fsync,
+            @Value("${bina.store.segment-log.indexed-phones:100000}") int indexedPhones,
+            @Value("${bina.store.segment-log.client-event-keys:100000}") int clientEventKeys,
+            @Value("${bina.retention.enabled:false}") boolean retentionEnabled,
+            JdbcTemplate jdbcTemplate) {
+        this(directory, segmentSize, indexInterval, fsync, indexedPhones, clientEventKeys, retentionEnabled,
+                () -> jdbcTemplate.queryForObject(NEXT_SEQUENCE_VALUE, Long.class));
+    }
+
+    /**
+     * initialId: primeiro id de um log vazio
+     */
+    SegmentLogEventoStore(Path directory, int segmentSize, int indexInterval, boolean fsync, int indexedPhones,
+            int clientEventKeys, boolean retentionEnabled, LongSupplier initialId) {
+        if (retentionEnabled) {
+            // A retenção move linhas da tabela eventos, que fica vazia com o log
+            throw new IllegalStateException(
+                    "bina.store.engine=segment-log não tem retenção: desligue bina.retention.enabled");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.indexInterval = indexInterval;
+        this.fsync = fsync;
+        this.initialId = initialId;
+        this.idsByPhone = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PhoneIds> eldest) {
+                if (size() <= indexedPhones) {
+                    return false;
+                }
+                evictedThrough = Math.max(evictedThrough, eldest.getValue().lastId());
+                return true;
+            }
+        };
+        this.idsByClientEvent = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > clientEventKeys;
+            }
+        };
+        open();
+    }
+
+    /**
+     * Fora de transação grava na hora. Dentro de uma, confere as chaves de
+     * idempotência já gravadas e deixa a escrita para o commit: os ids só são
+     * atribuídos lá.
+     */
+    @Override
+    public List<Evento> saveAll(List<Evento> eventos) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.readLock().lock();
+            try {
+                checkClientEventIds(eventos);
+            } finally {
+                lock.readLock().unlock();
+            }
+            TransactionSynchronizationManager.registerSynchronization(new AppendOnCommit(eventos));
+            return eventos;
+        }
+        lock.writeLock().lock();
+        try {
+            appendAll(eventos).index();
+            return eventos;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Evento> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            if (id == null || id < firstId || id >= firstId + positions.size()) {
+                return Optional.empty();
+            }
+            return Optional.of(read(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Evento> findLatest(int limit) {
+        return findByTime(NULL_TIME, Long.MAX_VALUE, true, limit);
+    }
+
+    @Override
+    public List<Evento> findByPhoneNumber(String phoneNumber, int limit) {
+        lock.readLock().lock();
+        try {
+            if (limit <= 0) {
+                return List.of();
+            }
+            LongList ids = phoneIds(phoneNumber, outOfOrder ? Integer.MAX_VALUE : limit);
+            if (!outOfOrder) {
+                List<Evento> eventos = new ArrayList<>(Math.min(limit, ids.size()));
+                for (int i = ids.size() - 1; i >= 0 && eventos.size() < limit; i--) {
+                    eventos.add(read(ids.get(i)));
+                }
+                return eventos;
+            }
+            TopN top = new TopN(limit);
+            for (int i = 0; i < ids.size(); i++) {
+                top.offer(ids.get(i), readTime(ids.get(i)));
+            }
+            return readAll(top.mostRecentFirst());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Evento> findByTimestampBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return findByTime(timeKey(from), timeKey(to), false, limit);
+    }
+
+    @Override
+    public Optional<Evento> findByDeviceIdAndClientEventId(String deviceId, String clientEventId) {
+        lock.readLock().lock();
+        try {
+            String key = clientEventKey(deviceId, clientEventId);
+            Long id = key != null ? idsByClientEvent.get(key) : null;
+            return id != null ? Optional.of(read(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<LocalDateTime> findTimestampsByPhoneNumber(String phoneNumber, int limit) {
+        lock.readLock().lock();
+        try {
+            if (limit <= 0) {
+                return List.of();
+            }
+            LongList ids = phoneIds(phoneNumber, outOfOrder ? Integer.MAX_VALUE : limit);
+            List<LocalDateTime> timestamps = new ArrayList<>(Math.min(limit, ids.size()));
+            if (!outOfOrder) {
+                for (int i = ids.size() - 1; i >= 0 && timestamps.size() < limit; i--) {
+                    timestamps.add(timestamp(readTime(ids.get(i))));
+                }
+                return timestamps;
+            }
+            long[] times = phoneTimes(ids);
+            for (int i = times.length - 1; i >= 0 && timestamps.size() < limit; i--) {
+                timestamps.add(timestamp(times[i]));
+            }
+            return timestamps;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<LocalDateTime> findAllTimestampsByPhoneNumber(String phoneNumber) {
+        lock.readLock().lock();
+        try {
+            long[] times = phoneTimes(phoneIds(phoneNumber, Integer.MAX_VALUE));
+            List<LocalDateTime> timestamps = new ArrayList<>(times.length);
+            for (long time : times) {
+                timestamps.add(timestamp(time));
+            }
+            return timestamps;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> findDistinctPhoneNumbers() {
+        lock.readLock().lock();
+        try {
+            Set<String> phoneNumbers = new LinkedHashSet<>(idsByPhone.keySet());
+            // Telefones que saíram do índice só aparecem nos registros até evictedThrough
+            for (long id = firstId; id <= evictedThrough; id++) {
+                String phoneNumber = readPhoneNumber(id);
+                if (phoneNumber != null && !phoneNumber.isEmpty()) {
+                    phoneNumbers.add(phoneNumber);
+                }
+            }
+            return new ArrayList<>(phoneNumbers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Só os telefones do índice, os gravados mais recentemente, sem reler do
+     * log a parte que já saiu dele
+     */
+    @Override
+    public List<PhoneLastCall> findLastCallPerPhoneNumber(int limit) {
+        lock.readLock().lock();
+        try {
+            List<LastCall> lastCalls = new ArrayList<>(idsByPhone.size());
+            idsByPhone.forEach((phoneNumber, phone) -> {
+                LongList ids = phone.ids;
+                long time;
+                if (!outOfOrder) {
+                    time = readTime(ids.get(ids.size() - 1));
+                } else {
+                    long[] times = phoneTimes(ids);
+                    time = times[times.length - 1];
+                }
+                lastCalls.add(new LastCall(phoneNumber, time));
+            });
+            return lastCalls.stream()
+                    .sorted(Comparator.comparingLong(LastCall::time).reversed())
+                    .limit(Math.max(limit, 0))
+                    .<PhoneLastCall>map(lastCall -> lastCall)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return positions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Os eventos ficam só no log: nada para as consultas SQL da tabela eventos
+     */
+    @Override
+    public boolean isTableBacked() {
+        return false;
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments) {
+                segment.force();
+                segment.close();
+            }
+            log.info("[SegmentLogEventoStore] close - OUT segments={} eventos={}", segments.size(), positions.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bina.store.segment-log.events", this, SegmentLogEventoStore::count)
+                .description("Eventos no log de segmentos")
+                .register(registry);
+        Gauge.builder("bina.store.segment-log.segments", this, SegmentLogEventoStore::segmentCount)
+                .description("Arquivos de segmento abertos")
+                .register(registry);
+    }
+
+    private int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * [from, to) pelo índice esparso: blocos em ordem do maior timestamp,
+     * parando quando nenhum bloco restante pode entrar nos limit mais recentes
+     */
+    private List<Evento> findByTime(long from, long to, boolean includeNull, int limit) {
+        lock.readLock().lock();
+        try {
+            if (limit <= 0) {
+                return List.of();
+            }
+            TopN top = new TopN(limit);
+            for (int slot = blocksByMaxTime.size() - 1; slot >= 0; slot--) {
+                int block = (int) blocksByMaxTime.get(slot);
+                long blockMax = blockMaxTime.get(block);
+                if (top.isFull() && blockMax < top.minTime()) {
+                    break;
+                }
+                if (!includeNull && (blockMax < from || blockMinTime.get(block) >= to)) {
+                    continue;
+                }
+                long firstInBlock = firstId + (long) block * indexInterval;
+                long end = Math.min(firstInBlock + indexInterval, firstId + positions.size());
+                for (long id = end - 1; id >= firstInBlock; id--) {
+                    long time = readTime(id);
+                    if (includeNull || (time != NULL_TIME && time >= from && time < to)) {
+                        top.offer(id, time);
+                    }
+                }
+            }
+            return readAll(top.mostRecentFirst());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids do telefone em ordem crescente. O trecho do log anterior ao que o
+     * índice cobre só é relido quando o índice tem menos que needed ids.
+     */
+    private LongList phoneIds(String phoneNumber, int needed) {
+        PhoneIds phone = idsByPhone.get(phoneNumber);
+        long since = phone != null ? phone.since : evictedThrough + 1;
+        if (since <= firstId || (phone != null && phone.ids.size() >= needed)) {
+            return phone != null ? phone.ids : new LongList();
+        }
+        LongList ids = new LongList();
+        long end = Math.min(since, firstId + positions.size());
+        for (long id = firstId; id < end; id++) {
+            if (phoneNumber.equals(readPhoneNumber(id))) {
+                ids.add(id);
+            }
+        }
+        if (phone != null) {
+            for (int i = 0; i < phone.ids.size(); i++) {
+                ids.add(phone.ids.get(i));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Horários das ligações do telefone em ordem crescente (nulos primeiro)
+     */
+    private long[] phoneTimes(LongList ids) {
+        long[] times = new long[ids.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = readTime(ids.get(i));
+        }
+        if (outOfOrder) {
+            Arrays.sort(times);
+        }
+        return times;
+    }
+
+    private void checkClientEventIds(List<Evento> eventos) {
+        Set<String> batch = new HashSet<>();
+        for (Evento evento : eventos) {
+            String key = clientEventKey(evento.getDeviceId(), evento.getClientEventId());
+            if (key != null && (idsByClientEvent.containsKey(key) || !batch.add(key))) {
+                throw new DataIntegrityViolationException("Evento duplicado: deviceId=" + evento.getDeviceId()
+                        + " clientEventId=" + evento.getClientEventId());
+            }
+        }
+    }
+
+    /**
+     * Escreve o lote no fim do log, ainda fora dos índices; se a escrita
+     * falhar no meio, o que já foi escrito é desfeito. Com a trava de escrita.
+     */
+    private Appended appendAll(List<Evento> eventos) {
+        // De novo com a trava: outra transação pode ter gravado a mesma chave depois do saveAll
+        checkClientEventIds(eventos);
+        Appended appended = new Appended(eventos);
+        try {
+            List<byte[]> payloads = new ArrayList<>(eventos.size());
+            for (Evento evento : eventos) {
+                evento.setId(nextId++);
+                byte[] payload = encode(evento);
+                if (HEADER_BYTES + payload.length > segmentSize) {
+                    throw new IllegalArgumentException("Evento maior que o segmento: " + payload.length + " bytes");
+                }
+                payloads.add(payload);
+            }
+
+            Set<Segment> touched = new HashSet<>();
+            for (int i = 0; i < eventos.size(); i++) {
+                long position = append(payloads.get(i), eventos.get(i).getId());
+                appended.positions[i] = position;
+                touched.add(segments.get(segmentOf(position)));
+            }
+            if (fsync) {
+                touched.forEach(Segment::force);
+            }
+            return appended;
+        } catch (RuntimeException e) {
+            appended.undo();
+            throw e;
+        }
+    }
+
+    private long append(byte[] payload, long id) {
+        int recordSize = HEADER_BYTES + payload.length;
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.writePosition + recordSize > segmentSize) {
+            if (segment != null) {
+                segment.force();
+            }
+            segment = openSegment(id);
+            segments.add(segment);
+        }
+        int offset = segment.writePosition;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        segment.buffer.put(offset + HEADER_BYTES, payload);
+        segment.buffer.putInt(offset + 4, (int) crc.getValue());
+        // Tamanho por último: até aqui o registro é ignorado na leitura
+        segment.buffer.putInt(offset, payload.length);
+        segment.writePosition = offset + recordSize;
+        return position(segments.size() - 1, offset);
+    }
+
+    private void index(long id, long position, long time, String phoneNumber, String clientEventKey) {
+        int slot = positions.size();
+        positions.add(position);
+        if (slot % indexInterval == 0) {
+            blockMinTime.add(time);
+            blockMaxTime.add(time);
+            // Em ordem de chegada o bloco novo fica no fim, sem deslocar nada
+            lastBlockSlot = blocksByMaxTime.size();
+            while (lastBlockSlot > 0 && blockMaxTime.get((int) blocksByMaxTime.get(lastBlockSlot - 1)) > time) {
+                lastBlockSlot--;
+            }
+            blocksByMaxTime.insert(lastBlockSlot, blockMaxTime.size() - 1);
+        } else {
+            int block = blockMaxTime.size() - 1;
+            blockMinTime.set(block, Math.min(blockMinTime.get(block), time));
+            if (time > blockMaxTime.get(block)) {
+                blockMaxTime.set(block, time);
+                // O último bloco é o de maior número: passa os de maior timestamp igual ou menor
+                while (lastBlockSlot + 1 < blocksByMaxTime.size()
+                        && blockMaxTime.get((int) blocksByMaxTime.get(lastBlockSlot + 1)) <= time) {
+                    blocksByMaxTime.set(lastBlockSlot, blocksByMaxTime.get(lastBlockSlot + 1));
+                    blocksByMaxTime.set(++lastBlockSlot, block);
+                }
+            }
+        }
+        if (time < maxTime) {
+            outOfOrder = true;
+        }
+        maxTime = Math.max(maxTime, time);
+        if (phoneNumber != null && !phoneNumber.isEmpty()) {
+            PhoneIds phone = idsByPhone.remove(phoneNumber);
+            if (phone == null) {
+                // Ids anteriores deste telefone, se houver, estão até evictedThrough
+                phone = new PhoneIds(evictedThrough + 1);
+            }
+            phone.ids.add(id);
+            idsByPhone.put(phoneNumber, phone);
+        }
+        if (clientEventKey != null) {
+            idsByClientEvent.put(clientEventKey, id);
+        }
+    }
+
+    private List<Evento> readAll(long[] ids) {
+        List<Evento> eventos = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            eventos.add(read(id));
+        }
+        return eventos;
+    }
+
+    private Evento read(long id) {
+        long position = positions.get((int) (id - firstId));
+        return decode(segments.get(segmentOf(position)).buffer, offsetOf(position) + HEADER_BYTES);
+    }
+
+    private long readTime(long id) {
+        long position = positions.get((int) (id - firstId));
+        ByteBuffer buffer = segments.get(segmentOf(position)).buffer;
+        int payload = offsetOf(position) + HEADER_BYTES;
+        long seconds = buffer.getLong(payload + 8);
+        return seconds == NULL_TIME ? NULL_TIME : timeKey(seconds, buffer.getInt(payload + 16));
+    }
+
+    /**
+     * Só o telefone do registro, pulando os campos texto anteriores
+     */
+    private String readPhoneNumber(long id) {
+        long position = positions.get((int) (id - firstId));
+        ByteBuffer buffer = segments.get(segmentOf(position)).buffer;
+        int[] cursor = { offsetOf(position) + HEADER_BYTES + 20 };
+        for (int i = 0; i < 4; i++) {
+            int length = buffer.getInt(cursor[0]);
+            cursor[0] += 4 + (length == NULL_STRING ? 0 : length);
+        }
+        return string(buffer, cursor);
+    }
+
+    private void open() {
+        long startTime = System.currentTimeMillis();
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (int i = 0; i < files.size(); i++) {
+                long baseId = Long.parseLong(files.get(i).getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+                if (i == 0) {
+                    firstId = baseId;
+                }
+                // Depois de um registro corrompido os ids deixam de ser contíguos: o resto é descartado
+                if (baseId != firstId + positions.size()) {
+                    discard(files.subList(i, files.size()));
+                    break;
+                }
+                if (!recover(openSegment(baseId))) {
+                    discard(files.subList(i + 1, files.size()));
+                    break;
+                }
+            }
+            if (segments.isEmpty()) {
+                firstId = initialId.getAsLong();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextId = firstId + positions.size();
+        long durationMs = System.currentTimeMillis() - startTime;
+        log.info("[SegmentLogEventoStore] open - OUT dir={} segments={} eventos={} durationMs={}ms", directory,
+                segments.size(), positions.size(), durationMs);
+    }
+
+    private static void discard(List<Path> files) throws IOException {
+        for (Path file : files) {
+            log.warn("[SegmentLogEventoStore] open - discarding segment={}", file);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Lê os registros do segmento refazendo os índices; false quando parou
+     * num registro inválido (o resto do segmento é zerado)
+     */
+    private boolean recover(Segment segment) {
+        segments.add(segment);
+        int segmentIndex = segments.size() - 1;
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            long expectedId = firstId + positions.size();
+            if (length < 0 || offset + HEADER_BYTES + length > segmentSize
+                    || !validCrc(buffer, offset, length) || buffer.getLong(offset + HEADER_BYTES) != expectedId) {
+                log.warn("[SegmentLogEventoStore] recover - truncating segment={} offset={} id={}",
+                        segment.path, offset, expectedId);
+                buffer.put(offset, new byte[segmentSize - offset]);
+                segment.writePosition = offset;
+                segment.force();
+                return false;
+            }
+            Evento evento = decode(buffer, offset + HEADER_BYTES);
+            index(expectedId, position(segmentIndex, offset), timeKey(evento.getTimestamp()),
+                    evento.getPhoneNumber(), clientEventKey(evento.getDeviceId(), evento.getClientEventId()));
+            offset += HEADER_BYTES + length;
+        }
+        segment.writePosition = offset;
+        return true;
+    }
+
+    private static boolean validCrc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(offset + 4);
+    }
+
+    private Segment openSegment(long baseId) {
+        Path path = directory.resolve(String.format("%020d%s", baseId, SEGMENT_SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encode(Evento evento) {
+        byte[][] strings = {
+                bytes(evento.getDescription()), bytes(evento.getDeviceId()), bytes(evento.getEventType()),
+                bytes(evento.getAdditionalData()), bytes(evento.getPhoneNumber()), bytes(evento.getClientEventId())
+        };
+        int size = 8 + 8 + 4;
+        for (byte[] string : strings) {
+            size += 4 + (string != null ? string.length : 0);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.putLong(evento.getId());
+        LocalDateTime timestamp = evento.getTimestamp();
+        payload.putLong(timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : NULL_TIME);
+        payload.putInt(timestamp != null ? timestamp.getNano() : 0);
+        for (byte[] string : strings) {
+            payload.putInt(string != null ? string.length : NULL_STRING);
+            if (string != null) {
+                payload.put(string);
+            }
+        }
+        return payload.array();
+    }
+
+    private static Evento decode(ByteBuffer buffer, int offset) {
+        Evento evento = new Evento();
+        evento.setId(buffer.getLong(offset));
+        long seconds = buffer.getLong(offset + 8);
+        if (seconds != NULL_TIME) {
+            evento.setTimestamp(LocalDateTime.ofEpochSecond(seconds, buffer.getInt(offset + 16), ZoneOffset.UTC));
+        }
+        int[] cursor = { offset + 20 };
+        evento.setDescription(string(buffer, cursor));
+        evento.setDeviceId(string(buffer, cursor));
+        evento.setEventType(string(buffer, cursor));
+        evento.setAdditionalData(string(buffer, cursor));
+        evento.setPhoneNumber(string(buffer, cursor));
+        evento.setClientEventId(string(buffer, cursor));
+        return evento;
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String string(ByteBuffer buffer, int[] cursor) {
+        int length = buffer.getInt(cursor[0]);
+        cursor[0] += 4;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(cursor[0], value);
+        cursor[0] += length;
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Microssegundos desde a época, a precisão do timestamp no banco
+     */
+    private static long timeKey(LocalDateTime timestamp) {
+        return timestamp != null ? timeKey(timestamp.toEpochSecond(ZoneOffset.UTC), timestamp.getNano()) : NULL_TIME;
+    }
+
+    private static long timeKey(long epochSecond, int nano) {
+        return epochSecond * 1_000_000 + nano / 1_000;
+    }
+
+    private static LocalDateTime timestamp(long timeKey) {
+        if (timeKey == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(timeKey, 1_000_000),
+                (int) Math.floorMod(timeKey, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static String clientEventKey(String deviceId, String clientEventId) {
+        return deviceId != null && clientEventId != null ? deviceId + '\u0000' + clientEventId : null;
+    }
+
+    private static long position(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Lote escrito no log e ainda fora dos índices, com o fim do log de antes
+     * da escrita para desfazê-la
+     */
+    private final class Appended {
+        private final List<Evento> eventos;
+        private final long firstId;
+        private final long[] positions;
+        private final int segmentCount;
+        private final int writePosition;
+
+        private Appended(List<Evento> eventos) {
+            this.eventos = eventos;
+            this.firstId = nextId;
+            this.positions = new long[eventos.size()];
+            this.segmentCount = segments.size();
+            this.writePosition = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).writePosition;
+        }
+
+        private void index() {
+            for (int i = 0; i < eventos.size(); i++) {
+                Evento evento = eventos.get(i);
+                SegmentLogEventoStore.this.index(evento.getId(), positions[i], timeKey(evento.getTimestamp()),
+                        evento.getPhoneNumber(), clientEventKey(evento.getDeviceId(), evento.getClientEventId()));
+            }
+        }
+
+        /**
+         * Zera o trecho escrito e apaga os segmentos abertos por ele; os ids voltam a ficar livres
+         */
+        private void undo() {
+            while (segments.size() > segmentCount) {
+                Segment segment = segments.remove(segments.size() - 1);
+                segment.close();
+                try {
+                    Files.deleteIfExists(segment.path);
+                } catch (IOException e) {
+                    // Na próxima abertura o segmento fora de sequência é descartado
+                    log.warn("[SegmentLogEventoStore] undo - segment={} message={}", segment.path, e.getMessage());
+                }
+            }
+            if (segmentCount > 0) {
+                Segment segment = segments.get(segmentCount - 1);
+                int written = segment.writePosition - writePosition;
+                if (written > 0) {
+                    segment.buffer.put(writePosition, new byte[written]);
+                    segment.buffer.force(writePosition, written);
+                    segment.writePosition = writePosition;
+                }
+            }
+            eventos.forEach(evento -> evento.setId(null));
+            nextId = Math.min(nextId, firstId);
+        }
+    }
+
+    /**
+     * Escrita do lote no commit da transação de quem chamou saveAll
+     */
+    private final class AppendOnCommit implements TransactionSynchronization {
+        private final List<Evento> eventos;
+        private Appended appended;
+
+        private AppendOnCommit(List<Evento> eventos) {
+            this.eventos = eventos;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Liberada em afterCompletion, chamado pelo Spring também quando o commit falha
+            lock.writeLock().lock();
+            appended = appendAll(eventos);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (!lock.isWriteLockedByCurrentThread()) {
+                return;
+            }
+            try {
+                if (appended == null) {
+                    return;
+                }
+                if (status == STATUS_COMMITTED) {
+                    appended.index();
+                } else {
+                    log.warn("[SegmentLogEventoStore] afterCompletion - transação desfeita, descartando eventos={}",
+                            eventos.size());
+                    appended.undo();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private record LastCall(String phoneNumber, long time) implements PhoneLastCall {
+
+        @Override
+        public String getPhoneNumber() {
+            return phoneNumber;
+        }
+
+        @Override
+        public LocalDateTime getLastCall() {
+            return timestamp(time);
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private void force() {
+            buffer.force(0, writePosition);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("[SegmentLogEventoStore] close - segment={} message={}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Os limit mais recentes vistos (timestamp, depois id), com o menos
+     * recente no topo para ser trocado
+     */
+    private static final class TopN {
+        private final int limit;
+        private final PriorityQueue<long[]> heap;
+
+        private TopN(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Comparator.<long[]>comparingLong(entry -> entry[1])
+                    .thenComparingLong(entry -> entry[0]));
+        }
+
+        private void offer(long id, long time) {
+            if (heap.size() < limit) {
+                heap.add(new long[] { id, time });
+            } else if (time > heap.peek()[1] || (time == heap.peek()[1] && id > heap.peek()[0])) {
+                heap.poll();
+                heap.add(new long[] { id, time });
+            }
+        }
+
+        private boolean isFull() {
+            return heap.size() == limit;
+        }
+
+        private long minTime() {
+            return heap.peek()[1];
+        }
+
+        private long[] mostRecentFirst() {
+            long[] ids = new long[heap.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = heap.poll()[0];
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Ids do telefone no índice; cobre todos os ids a partir de since
+     */
+    private static final class PhoneIds {
+        private final long since;
+        private final LongList ids = new LongList();
+
+        private PhoneIds(long since) {
+            this.since = since;
+        }
+
+        private long lastId() {
+            return ids.get(ids.size() - 1);
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void insert(int index, long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        private long get(int index) {
+            return values[index];
+        }
+
+        private void set(int index, long value) {
+            values[index] = value;
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+}
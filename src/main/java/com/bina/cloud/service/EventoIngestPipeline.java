@@ -0,0 +1,212 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline assíncrono de ingestão: aceita o evento em uma fila limitada e
+ * persiste/notifica em threads dedicadas. Eventos do mesmo deviceId caem
+ * sempre na mesma fila e são processados em ordem.
+ */
+@Component
+@Slf4j
+public class EventoIngestPipeline {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_PERSISTED = "PERSISTED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final long POLL_TIMEOUT_MS = 200;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+    private static final int STATUS_CACHE_SIZE = 10000;
+    private static final Duration STATUS_TTL = Duration.ofMinutes(10);
+
+    private final EventoService eventoService;
+    private final boolean enabled;
+    private final List<Lane> lanes;
+    private final Cache<String, IngestStatus> statuses;
+    private final Timer queueWaitTimer;
+    private final Timer processTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+
+    public EventoIngestPipeline(EventoService eventoService, MeterRegistry meterRegistry,
+            @Value("${bina.ingest.async.enabled:false}") boolean enabled,
+            @Value("${bina.ingest.queue-capacity:1000}") int queueCapacity,
+            @Value("${bina.ingest.workers:4}") int workers) {
+        this.eventoService = eventoService;
+        this.enabled = enabled;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(STATUS_CACHE_SIZE)
+                .expireAfterWrite(STATUS_TTL)
+                .build();
+
+        int laneCapacity = Math.max(1, (queueCapacity + workers - 1) / workers);
+        this.lanes = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            lanes.add(new Lane(i, new ArrayBlockingQueue<>(laneCapacity)));
+        }
+
+        Gauge.builder("bina.ingest.queue.depth", this, EventoIngestPipeline::queueDepth)
+                .description("Eventos aguardando persistência no pipeline assíncrono")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("bina.ingest.stage")
+                .tag("stage", "queue")
+                .description("Tempo entre o aceite e o início do processamento")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.processTimer = Timer.builder("bina.ingest.stage")
+                .tag("stage", "process")
+                .description("Tempo de persistência e notificação do evento")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("bina.ingest.rejected")
+                .description("Eventos recusados por fila cheia")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("bina.ingest.failed")
+                .description("Eventos que falharam ao persistir")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+        log.info("[EventoIngestPipeline] start - OUT workers={}", lanes.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("[EventoIngestPipeline] stop - OUT pending={}", queueDepth());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enfileira o evento para processamento assíncrono
+     *
+     * @throws IngestQueueFullException quando a fila do dispositivo está cheia
+     */
+    public IngestStatus submit(Evento evento) {
+        String ingestId = UUID.randomUUID().toString();
+        IngestStatus status = new IngestStatus(ingestId, STATUS_QUEUED, null, null);
+        statuses.put(ingestId, status);
+
+        Lane lane = laneFor(evento.getDeviceId());
+        if (!lane.queue.offer(new IngestTask(ingestId, evento, System.nanoTime()))) {
+            statuses.invalidate(ingestId);
+            rejectedCounter.increment();
+            log.warn("[EventoIngestPipeline] submit - REJECTED deviceId={} lane={} depth={}",
+                    evento.getDeviceId(), lane.index, lane.queue.size());
+            throw new IngestQueueFullException("Fila de ingestão cheia, tente novamente mais tarde");
+        }
+        return status;
+    }
+
+    public Optional<IngestStatus> getStatus(String ingestId) {
+        return Optional.ofNullable(statuses.getIfPresent(ingestId));
+    }
+
+    public int queueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    private Lane laneFor(String deviceId) {
+        int hash = deviceId == null ? 0 : deviceId.hashCode();
+        return lanes.get(Math.floorMod(hash, lanes.size()));
+    }
+
+    private void process(IngestTask task) {
+        long startTime = System.nanoTime();
+        queueWaitTimer.record(startTime - task.acceptedAtNanos(), TimeUnit.NANOSECONDS);
+        try {
+            Evento eventoSalvo = eventoService.criarEvento(task.evento());
+            statuses.put(task.ingestId(),
+                    new IngestStatus(task.ingestId(), STATUS_PERSISTED, eventoSalvo.getId(), null));
+        } catch (Exception e) {
+            failedCounter.increment();
+            statuses.put(task.ingestId(), new IngestStatus(task.ingestId(), STATUS_FAILED, null, e.getMessage()));
+            log.error("[EventoIngestPipeline] process - ERROR ingestId={} message={}", task.ingestId(),
+                    e.getMessage(), e);
+        } finally {
+            processTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private final class Lane {
+        private final int index;
+        private final BlockingQueue<IngestTask> queue;
+        private final Thread thread;
+
+        private Lane(int index, BlockingQueue<IngestTask> queue) {
+            this.index = index;
+            this.queue = queue;
+            this.thread = new Thread(this::run, "ingest-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    IngestTask task = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        process(task);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private record IngestTask(String ingestId, Evento evento, long acceptedAtNanos) {
+    }
+
+    public record IngestStatus(String ingestId, String status, Long eventoId, String error) {
+    }
+}
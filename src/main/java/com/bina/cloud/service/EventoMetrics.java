@@ -0,0 +1,131 @@
+package com.bina.cloud.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers e distribuições das etapas de um evento (ingestão, persistência,
+ * busca de telefone, envio ao broker e renderização de páginas), todos com
+ * histograma de percentis. As tags deviceId e eventType aceitam um número
+ * limitado de valores distintos; os excedentes são agrupados em "other".
+ */
+@Component
+public class EventoMetrics {
+
+    public static final String OTHER_TAG_VALUE = "other";
+    public static final String NONE_TAG_VALUE = "none";
+
+    public static final String RESULT_OK = "ok";
+    public static final String RESULT_QUEUED = "queued";
+    public static final String RESULT_ERROR = "error";
+
+    private final MeterProvider<Timer> ingestTimer;
+    private final MeterProvider<Timer> persistTimer;
+    private final MeterProvider<Timer> phoneLookupTimer;
+    private final MeterProvider<Timer> brokerSendTimer;
+    private final MeterProvider<Timer> pageRenderTimer;
+    private final MeterProvider<DistributionSummary> additionalDataSummary;
+    private final TagLimiter deviceIds;
+    private final TagLimiter eventTypes;
+
+    public EventoMetrics(MeterRegistry meterRegistry,
+            @Value("${bina.metrics.tags.max-device-ids:100}") int maxDeviceIds,
+            @Value("${bina.metrics.tags.max-event-types:50}") int maxEventTypes) {
+        this.deviceIds = new TagLimiter(maxDeviceIds);
+        this.eventTypes = new TagLimiter(maxEventTypes);
+        this.ingestTimer = Timer.builder("bina.eventos.ingest")
+                .description("Tempo de POST /api/eventos até a resposta")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.persistTimer = Timer.builder("bina.eventos.persist")
+                .description("Tempo de gravação do evento, incluindo a espera do group commit")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.phoneLookupTimer = Timer.builder("bina.eventos.phone.lookup")
+                .description("Extração do telefone e consulta da última ligação")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.brokerSendTimer = Timer.builder("bina.notification.broker.send")
+                .description("Envio da notificação aos tópicos STOMP deste nó")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.pageRenderTimer = Timer.builder("bina.web.page.render")
+                .description("Montagem e renderização das páginas web")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.additionalDataSummary = DistributionSummary.builder("bina.eventos.additional-data.size")
+                .description("Tamanho do additionalData recebido")
+                .baseUnit("chars")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    public void recordIngest(String eventType, String deviceId, String result, long durationNanos) {
+        ingestTimer.withTags(Tags.of("eventType", eventTypes.tag(eventType), "deviceId", deviceIds.tag(deviceId),
+                "result", result)).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPersist(String eventType, String deviceId, long durationNanos) {
+        persistTimer.withTags(Tags.of("eventType", eventTypes.tag(eventType), "deviceId", deviceIds.tag(deviceId)))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param step extract (additionalData) ou last-call (índice de últimas ligações)
+     */
+    public void recordPhoneLookup(String step, boolean found, long durationNanos) {
+        phoneLookupTimer.withTags(Tags.of("step", step, "found", Boolean.toString(found)))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBrokerSend(String eventType, long durationNanos) {
+        brokerSendTimer.withTags(Tags.of("eventType", eventTypes.tag(eventType)))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPageRender(String page, long durationNanos) {
+        pageRenderTimer.withTags(Tags.of("page", page)).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAdditionalDataSize(String eventType, String additionalData) {
+        additionalDataSummary.withTags(Tags.of("eventType", eventTypes.tag(eventType)))
+                .record(additionalData == null ? 0 : additionalData.length());
+    }
+
+    /**
+     * Aceita os primeiros max valores distintos e devolve "other" para os demais
+     */
+    static final class TagLimiter {
+
+        private final int max;
+        private final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+        TagLimiter(int max) {
+            this.max = max;
+        }
+
+        String tag(String value) {
+            if (value == null || value.isBlank()) {
+                return NONE_TAG_VALUE;
+            }
+            if (seen.contains(value)) {
+                return value;
+            }
+            // Corrida pode aceitar alguns valores além do limite, o que é tolerável
+            if (seen.size() >= max) {
+                return OTHER_TAG_VALUE;
+            }
+            seen.add(value);
+            return value;
+        }
+    }
+}
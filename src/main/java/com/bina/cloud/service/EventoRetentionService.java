@@ -0,0 +1,129 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.util.TimezoneUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Retenção da tabela eventos: mantém na tabela quente apenas os últimos
+ * bina.retention.hot-days dias e move o restante para as tabelas mensais de
+ * arquivo. A compactação roda em lotes pequenos, cada um em sua própria
+ * transação e com pausa entre eles, para não disputar com a ingestão.
+ */
+@Component
+@Slf4j
+public class EventoRetentionService {
+
+    private final EventoArchiveRepository archiveRepository;
+    private final boolean enabled;
+    private final int hotDays;
+    private final int batchSize;
+    private final long batchPauseNanos;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final Counter archivedCounter;
+    private final Timer batchTimer;
+
+    private volatile boolean stopping;
+
+    public EventoRetentionService(EventoArchiveRepository archiveRepository, MeterRegistry meterRegistry,
+            @Value("${bina.retention.enabled:false}") boolean enabled,
+            @Value("${bina.retention.hot-days:90}") int hotDays,
+            @Value("${bina.retention.batch-size:1000}") int batchSize,
+            @Value("${bina.retention.batch-pause-ms:100}") long batchPauseMs) {
+        this.archiveRepository = archiveRepository;
+        this.enabled = enabled;
+        this.hotDays = hotDays;
+        this.batchSize = batchSize;
+        this.batchPauseNanos = TimeUnit.MILLISECONDS.toNanos(batchPauseMs);
+        this.archivedCounter = Counter.builder("bina.retention.archived")
+                .description("Eventos movidos da tabela quente para o arquivo mensal")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("bina.retention.batch")
+                .description("Duração de cada lote de arquivamento")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${bina.retention.cron:0 30 3 * * *}")
+    public void scheduledCompaction() {
+        if (enabled) {
+            compact();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    /**
+     * Arquiva os eventos anteriores à janela quente, do mês mais antigo para o
+     * mais recente. Retorna quantos eventos foram movidos; execuções
+     * concorrentes são ignoradas.
+     */
+    public long compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            log.info("[EventoRetentionService] compact - SKIPPED already running");
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        LocalDateTime cutoff = TimezoneUtil.getCurrentUtcTime().minusDays(hotDays);
+        log.info("[EventoRetentionService] compact - IN cutoff={} batchSize={}", cutoff, batchSize);
+        long archived = 0;
+        try {
+            Optional<LocalDateTime> oldest = archiveRepository.findOldestBefore(cutoff);
+            while (oldest.isPresent() && !stopping) {
+                YearMonth month = YearMonth.from(oldest.get());
+                LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+                LocalDateTime end = monthEnd.isBefore(cutoff) ? monthEnd : cutoff;
+                archived += archiveMonth(month, end);
+                oldest = stopping ? Optional.empty() : archiveRepository.findOldestBefore(cutoff);
+            }
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.info("[EventoRetentionService] compact - OUT archived={} durationMs={}ms", archived, durationMs);
+            return archived;
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[EventoRetentionService] compact - ERROR archived={} durationMs={}ms message={}", archived,
+                    durationMs, e.getMessage(), e);
+            throw e;
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private long archiveMonth(YearMonth month, LocalDateTime end) {
+        long archived = 0;
+        while (!stopping) {
+            long batchStart = System.nanoTime();
+            int moved = archiveRepository.archiveBatch(month, end, batchSize);
+            batchTimer.record(System.nanoTime() - batchStart, TimeUnit.NANOSECONDS);
+            if (moved == 0) {
+                break;
+            }
+            archived += moved;
+            archivedCounter.increment(moved);
+            if (moved < batchSize) {
+                break;
+            }
+            // Libera o banco para a ingestão entre um lote e outro
+            LockSupport.parkNanos(batchPauseNanos);
+        }
+        log.debug("[EventoRetentionService] archiveMonth - OUT month={} archived={}", month, archived);
+        return archived;
+    }
+}
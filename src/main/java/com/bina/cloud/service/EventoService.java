@@ -1,78 +1,258 @@
 package com.bina.cloud.service;
 
+import com.bina.cloud.config.CacheConfig;
 import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.EventoBatchResult;
+import com.bina.cloud.model.EventoCursor;
+import com.bina.cloud.model.EventoFilter;
+import com.bina.cloud.model.EventoItem;
+import com.bina.cloud.model.EventoPage;
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoExportRepository;
 import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.EventoStore;
+import com.bina.cloud.repository.EventoSpecifications;
 import com.bina.cloud.util.PhoneNumberUtil;
 import com.bina.cloud.util.TimezoneUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EventoService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final EventoFilter NO_FILTER = new EventoFilter(null, null, null, null, null);
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "timestamp", "id");
+    private static final int MAX_FIELD_LENGTH = 255;
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
     private final EventoRepository eventoRepository;
+    private final EventoStore eventoStore;
+    private final EventoExportRepository eventoExportRepository;
+    private final EventoArchiveRepository eventoArchiveRepository;
     private final NotificationService notificationService;
+    private final LastCallIndex lastCallIndex;
+    private final EventoWriter eventoWriter;
+    private final RecentEventsBuffer recentEventsBuffer;
+    private final EventoMetrics eventoMetrics;
+    private final IdempotencyCache idempotencyCache;
 
-    // Static compiled regex patterns to avoid repeated compilation
-    private static final Pattern PHONE_JSON_PATTERN = Pattern.compile(".*\"numero\":\\s*\"([^\"]+)\".*");
-    private static final Pattern DIGITS_ONLY_PATTERN = Pattern.compile("[^0-9]");
+    @Value("${bina.ingest.batch.chunk-size:500}")
+    private int batchChunkSize = 500;
 
-    @Transactional
+    /**
+     * Grava e notifica o evento. Com clientEventId, retentativas dentro da
+     * janela de deduplicação recebem o evento da primeira tentativa sem nova
+     * gravação nem notificação.
+     */
     public Evento criarEvento(Evento evento) {
-        long startTime = System.currentTimeMillis();
-        log.info("[EventoService] criarEvento - IN deviceId={} eventType={} description={}",
+        if (isTooLong(evento.getClientEventId(), IdempotencyCache.MAX_KEY_LENGTH)) {
+            throw new IdempotencyCache.InvalidIdempotencyKeyException();
+        }
+        String dedupKey = IdempotencyCache.key(evento);
+        if (dedupKey == null) {
+            return gravarEvento(evento);
+        }
+
+        CompletableFuture<Evento> attempt = new CompletableFuture<>();
+        Optional<CompletableFuture<Evento>> previous = idempotencyCache.claim(dedupKey, attempt);
+        if (previous.isPresent()) {
+            log.debug("[EventoService] criarEvento - DUPLICATE deviceId={} clientEventId={}", evento.getDeviceId(),
+                    evento.getClientEventId());
+            return awaitOriginal(previous.get());
+        }
+        try {
+            Evento eventoSalvo = gravarEvento(evento);
+            attempt.complete(eventoSalvo);
+            return eventoSalvo;
+        } catch (RuntimeException e) {
+            // Libera a chave antes de propagar a falha para quem aguarda a mesma tentativa
+            idempotencyCache.release(dedupKey, attempt);
+            attempt.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Evento já gravado na janela de deduplicação com a mesma chave do evento informado
+     */
+    public Optional<Evento> buscarDuplicado(Evento evento) {
+        String dedupKey = IdempotencyCache.key(evento);
+        return dedupKey == null ? Optional.empty() : idempotencyCache.completed(dedupKey);
+    }
+
+    private Evento gravarEvento(Evento evento) {
+        long startTime = System.nanoTime();
+        log.debug("[EventoService] criarEvento - IN deviceId={} eventType={} description={}",
                 evento.getDeviceId(), evento.getEventType(), evento.getDescription());
 
         try {
             // Salvar em UTC no banco de dados
             evento.setTimestamp(TimezoneUtil.getCurrentUtcTime());
+            eventoMetrics.recordAdditionalDataSize(evento.getEventType(), evento.getAdditionalData());
 
             // Extrair número de telefone do additionalData e salvar no campo phoneNumber
+            long lookupStart = System.nanoTime();
             String phoneNumber = PhoneNumberUtil.extractPhoneNumber(evento.getAdditionalData());
+            eventoMetrics.recordPhoneLookup("extract", !phoneNumber.isEmpty(), System.nanoTime() - lookupStart);
             evento.setPhoneNumber(phoneNumber);
 
-            Evento eventoSalvo = eventoRepository.save(evento);
+            // Gravação agrupada com outras chamadas concorrentes (group commit)
+            long persistStart = System.nanoTime();
+            Evento eventoSalvo;
+            try {
+                eventoSalvo = eventoWriter.write(evento);
+            } catch (DataIntegrityViolationException e) {
+                Optional<Evento> original = findOriginal(evento);
+                if (original.isEmpty()) {
+                    throw e;
+                }
+                // Retentativa fora da janela: a constraint única barrou a segunda gravação
+                idempotencyCache.recordConstraintHit();
+                log.info("[EventoService] criarEvento - OUT duplicate id={} clientEventId={}",
+                        original.get().getId(), evento.getClientEventId());
+                return original.get();
+            }
+            eventoMetrics.recordPersist(evento.getEventType(), evento.getDeviceId(), System.nanoTime() - persistStart);
+            recentEventsBuffer.add(eventoSalvo);
+            lastCallIndex.recordCall(eventoSalvo.getPhoneNumber(), eventoSalvo.getTimestamp());
 
             // Converter para Brasília para exibição na notificação
             String brasiliaTime = TimezoneUtil.convertUtcToBrasilia(eventoSalvo.getTimestamp());
 
-            // Notificar via WebSocket
+            // Notificar via WebSocket reaproveitando o telefone já extraído
             notificationService.notifyNewEvent(
                     eventoSalvo.getId().toString(),
                     eventoSalvo.getDescription(),
                     eventoSalvo.getEventType(),
                     eventoSalvo.getDeviceId(),
                     brasiliaTime,
-                    eventoSalvo.getAdditionalData());
+                    eventoSalvo.getAdditionalData(),
+                    eventoSalvo.getPhoneNumber());
 
-            long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[EventoService] criarEvento - OUT success id={} durationMs={}ms", eventoSalvo.getId(),
-                    durationMs);
+            log.debug("[EventoService] criarEvento - OUT success id={} durationMs={}ms", eventoSalvo.getId(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
             return eventoSalvo;
         } catch (Exception e) {
-            long durationMs = System.currentTimeMillis() - startTime;
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
             log.error("[EventoService] criarEvento - ERROR durationMs={}ms message={}", durationMs, e.getMessage(), e);
             throw e;
         }
     }
 
-    public List<Evento> listarEventos() {
+    /**
+     * Importa eventos em lote (dispositivo enviando o histórico offline). Cada
+     * item é validado e os válidos são gravados em transações de até
+     * bina.ingest.batch.chunk-size eventos; um chunk que falha é regravado item
+     * a item. O timestamp enviado (UTC) é mantido; sem ele, vale o horário
+     * atual. Ao final publica uma única notificação de resumo.
+     *
+     * Itens que o iterador não consegue ler (JSON inválido) viram falha do
+     * item; se a leitura não puder continuar, a importação para ali.
+     */
+    public EventoBatchResult criarEventos(Iterator<Evento> eventos) {
+        long startTime = System.nanoTime();
+        log.debug("[EventoService] criarEventos - IN");
+
+        List<EventoBatchResult.Item> items = new ArrayList<>();
+        List<Evento> chunk = new ArrayList<>(batchChunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(batchChunkSize);
+        BatchSummary summary = new BatchSummary();
+        LocalDateTime now = TimezoneUtil.getCurrentUtcTime();
+        int index = 0;
+        while (true) {
+            Evento evento;
+            try {
+                if (!eventos.hasNext()) {
+                    break;
+                }
+                evento = eventos.next();
+            } catch (RuntimeException e) {
+                items.add(EventoBatchResult.Item.failed(index++, "Item ilegível: " + e.getMessage()));
+                if (isReadable(eventos)) {
+                    continue;
+                }
+                break;
+            }
+
+            String error = prepareForBatch(evento, now);
+            if (error != null) {
+                items.add(EventoBatchResult.Item.failed(index++, error));
+                continue;
+            }
+            String dedupKey = IdempotencyCache.key(evento);
+            Optional<Evento> original = dedupKey == null ? Optional.empty() : idempotencyCache.completed(dedupKey);
+            if (original.isPresent()) {
+                items.add(EventoBatchResult.Item.duplicate(index++, original.get().getId()));
+                continue;
+            }
+            chunk.add(evento);
+            chunkIndexes.add(index++);
+            if (chunk.size() >= batchChunkSize) {
+                persistBatchChunk(chunk, chunkIndexes, items, summary);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistBatchChunk(chunk, chunkIndexes, items, summary);
+        }
+
+        items.sort(Comparator.comparingInt(EventoBatchResult.Item::index));
+        if (summary.count > 0) {
+            notificationService.notifyBatch(summary.build());
+        }
+        int duplicates = (int) items.stream()
+                .filter(item -> EventoBatchResult.STATUS_DUPLICATE.equals(item.status()))
+                .count();
+        EventoBatchResult result = new EventoBatchResult(items.size(), summary.count, duplicates,
+                items.size() - summary.count - duplicates, items);
+        log.info("[EventoService] criarEventos - OUT received={} persisted={} duplicates={} failed={} "
+                + "durationMs={}ms", result.received(), result.persisted(), result.duplicates(), result.failed(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return result;
+    }
+
+    /**
+     * Os limit eventos mais recentes (máximo MAX_PAGE_SIZE), sem carregar a
+     * tabela: a primeira página de listarEventosPaginado sem filtros; com
+     * segment-log, o fim do log
+     */
+    public List<EventoItem> listarEventos(int limit) {
         long startTime = System.currentTimeMillis();
-        log.debug("[EventoService] listarEventos - IN");
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        log.debug("[EventoService] listarEventos - IN limit={}", pageSize);
         try {
-            List<Evento> eventos = eventoRepository.findAll();
+            List<EventoItem> eventos = eventoStore.isTableBacked()
+                    ? listarEventosPaginado(NO_FILTER, null, pageSize).items()
+                    : eventoStore.findLatest(pageSize).stream().map(EventoItem::of).toList();
             long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[EventoService] listarEventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
+            log.debug("[EventoService] listarEventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
             return eventos;
         } catch (Exception e) {
             long durationMs = System.currentTimeMillis() - startTime;
@@ -86,10 +266,14 @@ public class EventoService {
         long startTime = System.currentTimeMillis();
         log.debug("[EventoService] getUltimosEventos - IN limit={}", limit);
         try {
-            PageRequest pageRequest = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "timestamp"));
-            List<Evento> eventos = eventoRepository.findTopNByOrderByTimestampDesc(pageRequest);
+            Optional<List<Evento>> recentes = recentEventsBuffer.latest(limit);
+            if (recentes.isPresent()) {
+                log.debug("[EventoService] getUltimosEventos - OUT buffer size={}", recentes.get().size());
+                return recentes.get();
+            }
+            List<Evento> eventos = eventoStore.findLatest(limit);
             long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[EventoService] getUltimosEventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
+            log.debug("[EventoService] getUltimosEventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
             return eventos;
         } catch (Exception e) {
             long durationMs = System.currentTimeMillis() - startTime;
@@ -99,16 +283,58 @@ public class EventoService {
         }
     }
 
-    public Optional<Evento> buscarPorId(Long id) {
+    /**
+     * Últimos eventos projetados apenas nas colunas da view informada. Vindos
+     * do buffer ou do segment-log, cada evento vira a view por fromEvento
+     */
+    public <T> List<T> getUltimosEventos(int limit, Class<T> view, Function<Evento, T> fromEvento) {
+        long startTime = System.currentTimeMillis();
+        log.debug("[EventoService] getUltimosEventos - IN limit={} view={}", limit, view.getSimpleName());
+        try {
+            Optional<List<Evento>> recentes = recentEventsBuffer.latest(limit);
+            if (recentes.isPresent()) {
+                log.debug("[EventoService] getUltimosEventos - OUT buffer size={}", recentes.get().size());
+                return recentes.get().stream().map(fromEvento).toList();
+            }
+            List<T> eventos = eventoStore.isTableBacked()
+                    ? eventoRepository.findByOrderByTimestampDesc(PageRequest.of(0, limit), view)
+                    : eventoStore.findLatest(limit).stream().map(fromEvento).toList();
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.debug("[EventoService] getUltimosEventos - OUT size={} durationMs={}ms", eventos.size(), durationMs);
+            return eventos;
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[EventoService] getUltimosEventos - ERROR durationMs={}ms message={}", durationMs,
+                    e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Versão dos últimos limit eventos (ETag/Last-Modified das páginas), sem
+     * consultar o banco; vazio quando a listagem precisaria dele
+     */
+    public Optional<RecentEventsBuffer.Version> getUltimosEventosVersion(int limit) {
+        return recentEventsBuffer.version(limit);
+    }
+
+    /**
+     * Eventos não são alterados depois de gravados, então o cache por id só
+     * expira por tamanho/TTL. Ids inexistentes não são guardados. O cache
+     * guarda o EventoItem imutável, não a entidade: a mesma instância é
+     * devolvida a todos os chamadores.
+     */
+    @Cacheable(cacheNames = CacheConfig.EVENTOS_CACHE, key = "#id", unless = "#result == null")
+    public Optional<EventoItem> buscarPorId(Long id) {
         long startTime = System.currentTimeMillis();
         log.debug("[EventoService] buscarPorId - IN id={}", id);
         try {
-            Optional<Evento> resultado = eventoRepository.findById(id);
+            Optional<EventoItem> resultado = eventoStore.findById(id).map(EventoItem::of);
             long durationMs = System.currentTimeMillis() - startTime;
             if (resultado.isPresent()) {
-                log.info("[EventoService] buscarPorId - OUT FOUND id={} durationMs={}ms", id, durationMs);
+                log.debug("[EventoService] buscarPorId - OUT FOUND id={} durationMs={}ms", id, durationMs);
             } else {
-                log.warn("[EventoService] buscarPorId - OUT NOT_FOUND id={} durationMs={}ms", id, durationMs);
+                log.debug("[EventoService] buscarPorId - OUT NOT_FOUND id={} durationMs={}ms", id, durationMs);
             }
             return resultado;
         } catch (Exception e) {
@@ -119,4 +345,261 @@ public class EventoService {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Lista eventos por keyset (timestamp DESC, id DESC) a partir do cursor
+     * informado, lendo apenas {@code limit + 1} linhas
+     */
+    public EventoPage listarEventosPaginado(EventoFilter filter, String cursor, int limit) {
+        long startTime = System.currentTimeMillis();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        log.debug("[EventoService] listarEventosPaginado - IN filter={} cursor={} limit={}", filter, cursor, pageSize);
+        try {
+            exigirTabelaEventos("listagem paginada");
+            Specification<Evento> spec = EventoSpecifications.matching(filter)
+                    .and(EventoSpecifications.withTimestamp());
+            if (cursor != null && !cursor.isBlank()) {
+                spec = spec.and(EventoSpecifications.after(EventoCursor.decode(cursor)));
+            }
+
+            // Specification não aceita projeção em record (as(Class) só com interface): mapeia após a consulta
+            List<EventoItem> eventos = eventoRepository.findBy(spec,
+                    query -> query.sortBy(KEYSET_SORT).limit(pageSize + 1).all())
+                    .stream()
+                    .map(EventoItem::of)
+                    .toList();
+            String next = null;
+            if (eventos.size() > pageSize) {
+                eventos = eventos.subList(0, pageSize);
+                next = EventoCursor.of(eventos.get(pageSize - 1)).encode();
+            }
+
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.debug("[EventoService] listarEventosPaginado - OUT size={} hasNext={} durationMs={}ms", eventos.size(),
+                    next != null, durationMs);
+            return new EventoPage(eventos, next);
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[EventoService] listarEventosPaginado - ERROR durationMs={}ms message={}", durationMs,
+                    e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Histórico do telefone, do mais recente para o mais antigo. Completa com
+     * as tabelas de arquivo quando a tabela quente não tem eventos suficientes.
+     */
+    public List<EventoItem> historicoPorTelefone(String phoneNumber, int limit) {
+        long startTime = System.currentTimeMillis();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        log.debug("[EventoService] historicoPorTelefone - IN phoneNumber={} limit={}", phoneNumber, pageSize);
+        try {
+            List<EventoItem> eventos = new ArrayList<>(eventoStore.isTableBacked()
+                    ? eventoRepository.findByPhoneNumberOrderByTimestampDescIdDesc(
+                            phoneNumber, PageRequest.of(0, pageSize), EventoItem.class)
+                    : eventoStore.findByPhoneNumber(phoneNumber, pageSize).stream().map(EventoItem::of).toList());
+            int hot = eventos.size();
+            if (hot < pageSize) {
+                eventoArchiveRepository.findByPhoneNumber(phoneNumber, pageSize - hot).stream()
+                        .map(EventoItem::of)
+                        .forEach(eventos::add);
+            }
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.debug("[EventoService] historicoPorTelefone - OUT size={} archived={} durationMs={}ms",
+                    eventos.size(), eventos.size() - hot, durationMs);
+            return eventos;
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[EventoService] historicoPorTelefone - ERROR durationMs={}ms message={}", durationMs,
+                    e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Falha com UnsupportedStoreQueryException quando a consulta SQL não tem
+     * os eventos: com bina.store.engine=segment-log nada é gravado na tabela.
+     * Chamada pelo controller antes de abrir uma resposta em streaming.
+     */
+    public void exigirTabelaEventos(String consulta) {
+        if (!eventoStore.isTableBacked()) {
+            throw new UnsupportedStoreQueryException(
+                    consulta + " indisponível com bina.store.engine=segment-log: os eventos não ficam na tabela");
+        }
+    }
+
+    /**
+     * Percorre os eventos que atendem ao filtro em cursor JDBC, com memória constante
+     */
+    public void exportarEventos(EventoFilter filter, Consumer<Evento> consumer) {
+        long startTime = System.currentTimeMillis();
+        log.debug("[EventoService] exportarEventos - IN filter={}", filter);
+        try {
+            exigirTabelaEventos("exportação");
+            eventoExportRepository.stream(filter, consumer);
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.debug("[EventoService] exportarEventos - OUT durationMs={}ms", durationMs);
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[EventoService] exportarEventos - ERROR durationMs={}ms message={}", durationMs,
+                    e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Normaliza o item para gravação; retorna a mensagem de erro quando inválido
+     */
+    private static String prepareForBatch(Evento evento, LocalDateTime now) {
+        if (evento == null) {
+            return "Item vazio";
+        }
+        if (evento.getTimestamp() != null && evento.getTimestamp().isAfter(now.plus(MAX_CLOCK_SKEW))) {
+            return "timestamp no futuro: " + evento.getTimestamp();
+        }
+        String tooLong = firstTooLong(evento);
+        if (tooLong != null) {
+            return tooLong + " excede " + MAX_FIELD_LENGTH + " caracteres";
+        }
+        if (isTooLong(evento.getClientEventId(), IdempotencyCache.MAX_KEY_LENGTH)) {
+            return "clientEventId excede " + IdempotencyCache.MAX_KEY_LENGTH + " caracteres";
+        }
+
+        // Id sempre gerado pelo servidor
+        evento.setId(null);
+        if (evento.getTimestamp() == null) {
+            evento.setTimestamp(now);
+        }
+        evento.setPhoneNumber(PhoneNumberUtil.extractPhoneNumber(evento.getAdditionalData()));
+        return null;
+    }
+
+    private static String firstTooLong(Evento evento) {
+        if (isTooLong(evento.getDescription())) {
+            return "description";
+        }
+        if (isTooLong(evento.getDeviceId())) {
+            return "deviceId";
+        }
+        if (isTooLong(evento.getEventType())) {
+            return "eventType";
+        }
+        if (isTooLong(evento.getAdditionalData())) {
+            return "additionalData";
+        }
+        return null;
+    }
+
+    private static boolean isTooLong(String value) {
+        return isTooLong(value, MAX_FIELD_LENGTH);
+    }
+
+    private static boolean isTooLong(String value, int maxLength) {
+        return value != null && value.length() > maxLength;
+    }
+
+    private static boolean isReadable(Iterator<Evento> eventos) {
+        try {
+            return eventos.hasNext();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private Optional<Evento> findOriginal(Evento evento) {
+        if (evento.getClientEventId() == null || evento.getDeviceId() == null) {
+            return Optional.empty();
+        }
+        return eventoStore.findByDeviceIdAndClientEventId(evento.getDeviceId(), evento.getClientEventId());
+    }
+
+    private static Evento awaitOriginal(CompletableFuture<Evento> original) {
+        try {
+            return original.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void persistBatchChunk(List<Evento> chunk, List<Integer> indexes, List<EventoBatchResult.Item> items,
+            BatchSummary summary) {
+        List<Evento> saved = new ArrayList<>(chunk.size());
+        try {
+            saved.addAll(eventoWriter.persistChunk(chunk));
+            for (int i = 0; i < saved.size(); i++) {
+                items.add(EventoBatchResult.Item.persisted(indexes.get(i), saved.get(i).getId()));
+            }
+        } catch (Exception e) {
+            log.warn("[EventoService] criarEventos - chunk failed size={} message={}, retrying individually",
+                    chunk.size(), e.getMessage());
+            saved.clear();
+            // Regrava um a um para que apenas os itens inválidos falhem
+            for (int i = 0; i < chunk.size(); i++) {
+                Evento evento = chunk.get(i);
+                evento.setId(null);
+                try {
+                    Evento single = eventoWriter.persistChunk(List.of(evento)).get(0);
+                    saved.add(single);
+                    items.add(EventoBatchResult.Item.persisted(indexes.get(i), single.getId()));
+                } catch (DataIntegrityViolationException single) {
+                    Optional<Evento> original = findOriginal(evento);
+                    if (original.isPresent()) {
+                        idempotencyCache.recordConstraintHit();
+                        items.add(EventoBatchResult.Item.duplicate(indexes.get(i), original.get().getId()));
+                    } else {
+                        items.add(EventoBatchResult.Item.failed(indexes.get(i), single.getMessage()));
+                    }
+                } catch (Exception single) {
+                    items.add(EventoBatchResult.Item.failed(indexes.get(i), single.getMessage()));
+                }
+            }
+        }
+
+        recentEventsBuffer.addAll(saved);
+        for (Evento evento : saved) {
+            String dedupKey = IdempotencyCache.key(evento);
+            if (dedupKey != null) {
+                idempotencyCache.remember(dedupKey, evento);
+            }
+            lastCallIndex.recordCall(evento.getPhoneNumber(), evento.getTimestamp());
+            summary.add(evento);
+        }
+        chunk.clear();
+        indexes.clear();
+    }
+
+    /**
+     * Totais de uma importação para a notificação de resumo
+     */
+    private static final class BatchSummary {
+
+        private final Map<String, Integer> eventTypes = new TreeMap<>();
+        private final Set<String> deviceIds = new TreeSet<>();
+        private int count;
+        private LocalDateTime from;
+        private LocalDateTime to;
+
+        void add(Evento evento) {
+            count++;
+            eventTypes.merge(String.valueOf(evento.getEventType()), 1, Integer::sum);
+            if (evento.getDeviceId() != null) {
+                deviceIds.add(evento.getDeviceId());
+            }
+            if (from == null || evento.getTimestamp().isBefore(from)) {
+                from = evento.getTimestamp();
+            }
+            if (to == null || evento.getTimestamp().isAfter(to)) {
+                to = evento.getTimestamp();
+            }
+        }
+
+        NotificationService.EventBatchSummary build() {
+            return new NotificationService.EventBatchSummary(count, Map.copyOf(eventTypes),
+                    List.copyOf(deviceIds), TimezoneUtil.convertUtcToBrasilia(from),
+                    TimezoneUtil.convertUtcToBrasilia(to));
+        }
+    }
+}
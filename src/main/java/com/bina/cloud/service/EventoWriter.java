@@ -0,0 +1,161 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Grava eventos agrupando chamadas concorrentes em uma única transação
+ * (group commit). Quem chama continua bloqueado até o commit e recebe o
+ * evento com o id gerado.
+ */
+@Component
+@Slf4j
+public class EventoWriter {
+
+    private static final long WRITE_TIMEOUT_MS = 30000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+    private static final int QUEUE_CAPACITY = 10000;
+
+    private final EventoStore eventoStore;
+    private final PhoneStatsService phoneStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean batchEnabled;
+    private final int maxBatchSize;
+    private final long windowMs;
+    private final MicroBatcher<PendingWrite> batcher;
+    private final DistributionSummary batchSizeSummary;
+
+    public EventoWriter(EventoStore eventoStore, PhoneStatsService phoneStatsService,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${bina.persistence.batch.enabled:true}") boolean batchEnabled,
+            @Value("${bina.persistence.batch.max-size:50}") int maxBatchSize,
+            @Value("${bina.persistence.batch.window-ms:5}") long windowMs) {
+        this.eventoStore = eventoStore;
+        this.phoneStatsService = phoneStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchEnabled = batchEnabled;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMs = windowMs;
+        this.batcher = new MicroBatcher<>("evento-writer", QUEUE_CAPACITY, maxBatchSize, windowMs, this::flush);
+        this.batchSizeSummary = DistributionSummary.builder("bina.persist.batch.size")
+                .description("Eventos gravados por transação")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!batchEnabled) {
+            return;
+        }
+        batcher.start();
+        log.info("[EventoWriter] start - OUT maxBatchSize={} windowMs={}", maxBatchSize, windowMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        batcher.stop(SHUTDOWN_TIMEOUT_MS);
+    }
+
+    /**
+     * Persiste o evento e retorna a instância gravada, já com id
+     */
+    public Evento write(Evento evento) {
+        if (!batcher.isRunning()) {
+            return persistChunk(List.of(evento)).get(0);
+        }
+
+        PendingWrite pending = new PendingWrite(evento, new CompletableFuture<>());
+        try {
+            if (!batcher.offer(pending, WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Fila de gravação de eventos cheia");
+            }
+            return pending.future().get(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Gravação do evento interrompida", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Tempo esgotado aguardando gravação do evento", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Grava todos os eventos em uma única transação, junto com as
+     * estatísticas dos telefones envolvidos
+     */
+    List<Evento> persistChunk(List<Evento> eventos) {
+        List<Evento> saved;
+        try {
+            saved = persistChunk(eventos, false);
+        } catch (StalePhoneStatsException e) {
+            log.info("[EventoWriter] persistChunk - stale phone stats size={} message={}, retrying with locks",
+                    eventos.size(), e.getMessage());
+            // A transação desfeita não deixou os eventos no banco nem no log
+            eventos.forEach(evento -> evento.setId(null));
+            saved = persistChunk(eventos, true);
+        }
+        batchSizeSummary.record(eventos.size());
+        return saved;
+    }
+
+    private List<Evento> persistChunk(List<Evento> eventos, boolean lockPhoneStats) {
+        return transactionTemplate.execute(status -> {
+            List<Evento> result = eventoStore.saveAll(eventos);
+            if (lockPhoneStats) {
+                phoneStatsService.applyLocked(result);
+            } else {
+                phoneStatsService.apply(result);
+            }
+            return result;
+        });
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<Evento> eventos = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            eventos.add(pending.evento());
+        }
+
+        try {
+            List<Evento> saved = persistChunk(eventos);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(saved.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("[EventoWriter] flush - batch failed size={} message={}, retrying individually", batch.size(),
+                    e.getMessage());
+            // Regrava um a um para que apenas o evento inválido falhe; o lote desfeito não ficou no banco nem no log
+            for (PendingWrite pending : batch) {
+                pending.evento().setId(null);
+                try {
+                    pending.future().complete(persistChunk(List.of(pending.evento())).get(0));
+                } catch (Exception single) {
+                    pending.future().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private record PendingWrite(Evento evento, CompletableFuture<Evento> future) {
+    }
+}
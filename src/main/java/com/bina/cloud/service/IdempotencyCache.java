@@ -0,0 +1,120 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Janela de deduplicação dos eventos com clientEventId (ou Idempotency-Key).
+ * Cada chave guarda o resultado da primeira tentativa, ainda em andamento ou
+ * já gravado, por bina.ingest.dedup.window-ms. Retentativas dentro da janela
+ * recebem esse resultado sem ir ao banco nem ao broker; fora dela, a
+ * constraint única (device_id, client_event_id) é a garantia final.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ConcurrentMap<String, CompletableFuture<Evento>> attempts;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter constraintCounter;
+
+    public IdempotencyCache(MeterRegistry meterRegistry,
+            @Value("${bina.ingest.dedup.window-ms:600000}") long windowMs,
+            @Value("${bina.ingest.dedup.max-size:100000}") long maxSize) {
+        Cache<String, CompletableFuture<Evento>> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .build();
+        this.attempts = cache.asMap();
+        this.hitCounter = Counter.builder("bina.ingest.dedup")
+                .tag("result", "hit")
+                .description("Retentativas atendidas pela janela de deduplicação")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("bina.ingest.dedup")
+                .tag("result", "miss")
+                .description("Eventos com chave de idempotência vistos pela primeira vez")
+                .register(meterRegistry);
+        this.constraintCounter = Counter.builder("bina.ingest.dedup")
+                .tag("result", "constraint")
+                .description("Duplicados fora da janela barrados pela constraint única")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Chave de deduplicação do evento (por dispositivo), ou null sem
+     * clientEventId ou sem deviceId: como na constraint única, device_id nulo
+     * não conflita com outro evento
+     */
+    public static String key(Evento evento) {
+        String clientEventId = evento.getClientEventId();
+        if (clientEventId == null || clientEventId.isBlank() || evento.getDeviceId() == null) {
+            return null;
+        }
+        return evento.getDeviceId() + KEY_SEPARATOR + clientEventId;
+    }
+
+    /**
+     * Registra attempt como primeira tentativa da chave. Se outra tentativa já
+     * foi registrada na janela, retorna o resultado dela e attempt é ignorado.
+     */
+    public Optional<CompletableFuture<Evento>> claim(String key, CompletableFuture<Evento> attempt) {
+        CompletableFuture<Evento> previous = attempts.putIfAbsent(key, attempt);
+        if (previous == null) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+        hitCounter.increment();
+        return Optional.of(previous);
+    }
+
+    /**
+     * Evento já gravado para a chave, sem registrar nada quando não há
+     */
+    public Optional<Evento> completed(String key) {
+        CompletableFuture<Evento> previous = attempts.get(key);
+        if (previous == null || !previous.isDone() || previous.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        hitCounter.increment();
+        return Optional.of(previous.join());
+    }
+
+    /**
+     * Registra um evento gravado por outro caminho (importação em lote)
+     */
+    public void remember(String key, Evento saved) {
+        missCounter.increment();
+        attempts.putIfAbsent(key, CompletableFuture.completedFuture(saved));
+    }
+
+    /**
+     * Libera a chave de uma tentativa que falhou, para que a próxima retentativa grave
+     */
+    public void release(String key, CompletableFuture<Evento> attempt) {
+        attempts.remove(key, attempt);
+    }
+
+    public void recordConstraintHit() {
+        constraintCounter.increment();
+    }
+
+    public static class InvalidIdempotencyKeyException extends IllegalArgumentException {
+        public InvalidIdempotencyKeyException() {
+            super("Idempotency-Key/clientEventId excede " + MAX_KEY_LENGTH + " caracteres");
+        }
+    }
+}
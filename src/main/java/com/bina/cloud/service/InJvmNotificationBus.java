@@ -0,0 +1,107 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventBatchSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Barramento entre contextos Spring da mesma JVM. Serve de substituto
+ * embarcado de um pub/sub entre nós: cada contexto se registra como um nó e
+ * recebe, em sua própria thread, tudo o que qualquer nó publicar.
+ */
+@Component
+@ConditionalOnProperty(name = "bina.notification.bus", havingValue = "in-jvm")
+@Slf4j
+public class InJvmNotificationBus implements NotificationBus {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+    private static final List<InJvmNotificationBus> NODES = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger NODE_IDS = new AtomicInteger();
+
+    private final NotificationDispatcher dispatcher;
+    private final ExecutorService executor;
+    private final Timer deliveryTimer;
+
+    public InJvmNotificationBus(NotificationDispatcher dispatcher, MeterRegistry meterRegistry) {
+        this.dispatcher = dispatcher;
+        String threadName = "notification-bus-" + NODE_IDS.incrementAndGet();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deliveryTimer = Timer.builder("bina.notification.bus.delivery")
+                .description("Tempo entre a publicação e a entrega ao broker deste nó")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void join() {
+        NODES.add(this);
+        log.info("[InJvmNotificationBus] join - OUT nodes={}", NODES.size());
+    }
+
+    @PreDestroy
+    public void leave() {
+        NODES.remove(this);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void publish(EncodedNotification notification) {
+        long publishedAt = System.nanoTime();
+        String description = "eventId=" + notification.notification().eventId();
+        for (InJvmNotificationBus node : NODES) {
+            node.deliver(dispatcher -> dispatcher.dispatch(notification), description, publishedAt);
+        }
+    }
+
+    @Override
+    public void publish(EventBatchSummary summary) {
+        long publishedAt = System.nanoTime();
+        String description = "summary count=" + summary.count();
+        for (InJvmNotificationBus node : NODES) {
+            node.deliver(dispatcher -> dispatcher.dispatch(summary), description, publishedAt);
+        }
+    }
+
+    private void deliver(Consumer<NotificationDispatcher> delivery, String description, long publishedAt) {
+        try {
+            executor.execute(() -> dispatch(delivery, description, publishedAt));
+        } catch (RejectedExecutionException e) {
+            // Nó saindo do barramento durante o shutdown do contexto
+            log.debug("[InJvmNotificationBus] deliver - SKIPPED node stopped {}", description);
+        }
+    }
+
+    private void dispatch(Consumer<NotificationDispatcher> delivery, String description, long publishedAt) {
+        try {
+            delivery.accept(dispatcher);
+        } catch (Exception e) {
+            log.error("[InJvmNotificationBus] dispatch - ERROR {} message={}", description, e.getMessage(), e);
+        } finally {
+            deliveryTimer.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.bina.cloud.service;
+
+/**
+ * Lançada quando o pipeline assíncrono não tem espaço para aceitar novos eventos
+ */
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
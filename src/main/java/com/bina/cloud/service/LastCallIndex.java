@@ -0,0 +1,136 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoStore;
+import com.bina.cloud.repository.PhoneLastCall;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Índice em memória da última ligação por número de telefone normalizado.
+ * Evita reler todo o histórico do número a cada evento para calcular o tempo
+ * desde a ligação anterior.
+ */
+@Component
+@Slf4j
+public class LastCallIndex implements MeterBinder {
+
+    private static final int LAST_CALLS_LOOKUP_SIZE = 2;
+
+    private final EventoStore eventoStore;
+    private final EventoArchiveRepository archiveRepository;
+    private final int maxSize;
+    private final Cache<String, CallHistory> cache;
+
+    public LastCallIndex(EventoStore eventoStore, EventoArchiveRepository archiveRepository,
+            @Value("${bina.last-call-index.max-size:10000}") int maxSize) {
+        this.eventoStore = eventoStore;
+        this.archiveRepository = archiveRepository;
+        this.maxSize = maxSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Carrega os números mais recentes do armazenamento ao iniciar a aplicação
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long startTime = System.currentTimeMillis();
+        try {
+            List<PhoneLastCall> lastCalls = eventoStore.findLastCallPerPhoneNumber(maxSize);
+            for (PhoneLastCall lastCall : lastCalls) {
+                cache.asMap().putIfAbsent(lastCall.getPhoneNumber(),
+                        new CallHistory(lastCall.getLastCall(), null, false));
+            }
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.info("[LastCallIndex] warmUp - OUT size={} durationMs={}ms", lastCalls.size(), durationMs);
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[LastCallIndex] warmUp - ERROR durationMs={}ms message={}", durationMs, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registra uma nova ligação. Números ausentes do índice são ignorados e
+     * resolvidos pelo fallback na próxima consulta.
+     */
+    public void recordCall(String phoneNumber, LocalDateTime timestamp) {
+        if (phoneNumber == null || phoneNumber.isEmpty() || timestamp == null) {
+            return;
+        }
+        cache.asMap().computeIfPresent(phoneNumber, (key, current) -> {
+            if (!current.lastCall().isAfter(timestamp)) {
+                return new CallHistory(timestamp, current.lastCall(), true);
+            }
+            // Ligação antiga (importação em lote) entre a anterior e a última
+            if (current.previousKnown()
+                    && (current.previousCall() == null || timestamp.isAfter(current.previousCall()))) {
+                return new CallHistory(current.lastCall(), timestamp, true);
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Retorna o horário da ligação anterior à mais recente do número, ou vazio
+     * quando esta é a primeira ligação. Em caso de ausência no índice consulta
+     * apenas as duas últimas ligações no banco, incluindo o arquivo quando a
+     * tabela quente não tem ligações suficientes do número.
+     */
+    public Optional<LocalDateTime> findPreviousCall(String phoneNumber) {
+        CallHistory history = cache.getIfPresent(phoneNumber);
+        if (history != null && history.previousKnown()) {
+            return Optional.ofNullable(history.previousCall());
+        }
+
+        List<LocalDateTime> lastCalls = new ArrayList<>(
+                eventoStore.findTimestampsByPhoneNumber(phoneNumber, LAST_CALLS_LOOKUP_SIZE));
+        if (lastCalls.size() < LAST_CALLS_LOOKUP_SIZE) {
+            lastCalls.addAll(archiveRepository.findTimestampsByPhoneNumber(phoneNumber,
+                    LAST_CALLS_LOOKUP_SIZE - lastCalls.size()));
+        }
+        if (lastCalls.isEmpty()) {
+            return Optional.empty();
+        }
+
+        LocalDateTime previousCall = lastCalls.size() > 1 ? lastCalls.get(1) : null;
+        cache.put(phoneNumber, new CallHistory(lastCalls.get(0), previousCall, true));
+        return Optional.ofNullable(previousCall);
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "lastCallIndex");
+    }
+
+    private record CallHistory(LocalDateTime lastCall, LocalDateTime previousCall, boolean previousKnown) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventBatchSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nó único (ou vários nós atrás de um broker STOMP externo, ver
+ * bina.websocket.relay.enabled): entrega direto ao broker local
+ */
+@Component
+@ConditionalOnProperty(name = "bina.notification.bus", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalNotificationBus implements NotificationBus {
+
+    private final NotificationDispatcher dispatcher;
+
+    @Override
+    public void publish(EncodedNotification notification) {
+        dispatcher.dispatch(notification);
+    }
+
+    @Override
+    public void publish(EventBatchSummary summary) {
+        dispatcher.dispatch(summary);
+    }
+}
@@ -0,0 +1,125 @@
+package com.bina.cloud.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Fila com uma thread que entrega os itens em lotes: o primeiro item abre uma
+ * janela de windowMs, fechada antes se o lote chegar a maxBatchSize. Usada
+ * pelo EventoWriter (group commit) e pelo NotificationBatcher (tópico em
+ * lote), com o mesmo ciclo de vida: no stop a thread esvazia a fila antes de
+ * sair, e uma falha no lote é registrada sem derrubar a thread. A lista
+ * passada a onBatch é reaproveitada no lote seguinte.
+ */
+@Slf4j
+class MicroBatcher<T> {
+
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Consumer<List<T>> onBatch;
+    private final Thread flusher;
+
+    private volatile boolean running;
+
+    MicroBatcher(String name, int capacity, int maxBatchSize, long windowMs, Consumer<List<T>> onBatch) {
+        this.name = name;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.onBatch = onBatch;
+        this.flusher = new Thread(this::run, name);
+        this.flusher.setDaemon(true);
+    }
+
+    void start() {
+        running = true;
+        flusher.start();
+    }
+
+    /**
+     * Para de aceitar itens e espera a thread entregar o que já está na fila
+     */
+    void stop(long timeoutMs) {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Enfileira sem esperar; false com a fila cheia
+     */
+    boolean offer(T item) {
+        return queue.offer(item);
+    }
+
+    /**
+     * Enfileira esperando até timeout por espaço; false se a fila continuar cheia
+     */
+    boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(item, timeout, unit);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                onBatch.accept(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("[MicroBatcher] run - ERROR name={} size={} message={}", name, batch.size(),
+                        e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<T> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+}
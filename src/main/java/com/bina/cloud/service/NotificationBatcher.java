@@ -0,0 +1,113 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static com.bina.cloud.service.NotificationService.EVENTS_BATCH_TOPIC;
+
+/**
+ * Agrupa as notificações de uma janela curta em um único frame (array JSON)
+ * no tópico /topic/events/batch. Em rajadas, como um dispositivo esvaziando
+ * a fila offline, o cliente recebe poucos frames em vez de um por evento.
+ */
+@Component
+@Slf4j
+public class NotificationBatcher {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+    private static final int QUEUE_CAPACITY = 10000;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long windowMs;
+    private final MicroBatcher<EncodedNotification> batcher;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter droppedCounter;
+
+    public NotificationBatcher(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry,
+            @Value("${bina.notification.batch.enabled:false}") boolean enabled,
+            @Value("${bina.notification.batch.max-size:100}") int maxBatchSize,
+            @Value("${bina.notification.batch.window-ms:50}") long windowMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMs = windowMs;
+        this.batcher = new MicroBatcher<>("notification-batcher", QUEUE_CAPACITY, maxBatchSize, windowMs,
+                this::flush);
+        this.batchSizeSummary = DistributionSummary.builder("bina.notification.batch.size")
+                .description("Notificações por frame do tópico em lote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("bina.notification.batch.dropped")
+                .description("Notificações descartadas do lote por fila cheia")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        batcher.start();
+        log.info("[NotificationBatcher] start - OUT maxBatchSize={} windowMs={}", maxBatchSize, windowMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        batcher.stop(SHUTDOWN_TIMEOUT_MS);
+    }
+
+    /**
+     * Inclui a notificação no próximo lote; sem efeito com o lote desabilitado
+     */
+    public void add(EncodedNotification notification) {
+        if (!batcher.isRunning()) {
+            return;
+        }
+        if (!batcher.offer(notification)) {
+            // O tópico por evento continua entregando; só o lote perde a notificação
+            droppedCounter.increment();
+            log.warn("[NotificationBatcher] add - DROPPED eventId={} depth={}", notification.notification().eventId(),
+                    batcher.size());
+        }
+    }
+
+    private void flush(List<EncodedNotification> batch) {
+        try {
+            // Frame montado com os bytes já serializados de cada notificação
+            messagingTemplate.send(EVENTS_BATCH_TOPIC,
+                    NotificationEncoder.toMessage(NotificationEncoder.toJsonArray(batch), null, sequences(batch)));
+            batchSizeSummary.record(batch.size());
+        } catch (Exception e) {
+            log.error("[NotificationBatcher] flush - ERROR size={} message={}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Seqs do replay na ordem do array, ou null sem o replay
+     */
+    private static String sequences(List<EncodedNotification> batch) {
+        if (batch.get(0).seq() == 0) {
+            return null;
+        }
+        StringBuilder sequences = new StringBuilder(batch.size() * 8);
+        for (EncodedNotification notification : batch) {
+            if (sequences.length() > 0) {
+                sequences.append(',');
+            }
+            sequences.append(notification.seq());
+        }
+        return sequences.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventBatchSummary;
+
+/**
+ * Barramento que leva cada notificação a todos os nós da aplicação. Cada nó
+ * entrega o que recebe aos seus assinantes WebSocket pelo
+ * {@link NotificationDispatcher}.
+ *
+ * Implementação escolhida por bina.notification.bus (local | in-jvm).
+ */
+public interface NotificationBus {
+
+    /**
+     * Notificação já serializada pelo nó que publica; os nós entregam os
+     * mesmos bytes
+     */
+    void publish(EncodedNotification notification);
+
+    /**
+     * Resumo de uma importação em lote, publicado uma vez no lugar de uma
+     * notificação por evento
+     */
+    void publish(EventBatchSummary summary);
+}
@@ -0,0 +1,77 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventBatchSummary;
+import com.bina.cloud.service.NotificationService.EventNotification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import static com.bina.cloud.service.NotificationService.DEVICE_TOPIC_PREFIX;
+import static com.bina.cloud.service.NotificationService.EVENTS_SUMMARY_TOPIC;
+import static com.bina.cloud.service.NotificationService.EVENTS_TOPIC;
+import static com.bina.cloud.service.NotificationService.PHONE_TOPIC_PREFIX;
+
+/**
+ * Entrega uma notificação recebida do barramento ao broker STOMP deste nó. O
+ * JSON já vem serializado e é o mesmo em todos os destinos.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final EventoMetrics eventoMetrics;
+    private final NotificationBatcher notificationBatcher;
+    private final NotificationReplayLog replayLog;
+
+    public void dispatch(EncodedNotification encoded) {
+        long startTime = System.nanoTime();
+        // Numerada na entrega: o seq segue a ordem em que este nó entrega aos seus clientes
+        EncodedNotification sequenced = replayLog.append(encoded);
+        EventNotification notification = sequenced.notification();
+        String sequence = sequence(sequenced);
+        messagingTemplate.send(EVENTS_TOPIC,
+                NotificationEncoder.toMessage(sequenced.payload(), notification.eventType(), sequence));
+        sendRouted(notification, sequenced.payload(), sequence);
+        notificationBatcher.add(sequenced);
+        eventoMetrics.recordBrokerSend(notification.eventType(), System.nanoTime() - startTime);
+    }
+
+    public void dispatch(EventBatchSummary summary) {
+        messagingTemplate.convertAndSend(EVENTS_SUMMARY_TOPIC, summary);
+    }
+
+    /**
+     * Entrega nos tópicos por dispositivo e por telefone, para que o broker só
+     * envie a cada cliente os eventos que ele assinou
+     */
+    private void sendRouted(EventNotification notification, byte[] payload, String sequence) {
+        if (isRoutable(notification.deviceId())) {
+            messagingTemplate.send(DEVICE_TOPIC_PREFIX + notification.deviceId(),
+                    NotificationEncoder.toMessage(payload, notification.eventType(), sequence));
+        }
+        if (isRoutable(notification.phoneNumber())) {
+            messagingTemplate.send(PHONE_TOPIC_PREFIX + notification.phoneNumber(),
+                    NotificationEncoder.toMessage(payload, notification.eventType(), sequence));
+        }
+    }
+
+    private static String sequence(EncodedNotification notification) {
+        return notification.seq() > 0 ? Long.toString(notification.seq()) : null;
+    }
+
+    // Segmentos com separador ou curingas de padrão não viram destino
+    private static boolean isRoutable(String segment) {
+        if (segment == null || segment.isBlank()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '/' || c == '*' || c == '?' || c == '{' || c == '}' || Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
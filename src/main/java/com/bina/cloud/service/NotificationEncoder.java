@@ -0,0 +1,114 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationService.EventNotification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static com.bina.cloud.service.NotificationService.EVENT_TYPE_HEADER;
+import static com.bina.cloud.service.NotificationService.SEQUENCE_HEADER;
+
+/**
+ * Serializa cada notificação uma única vez, no nó que publica. Os mesmos
+ * bytes seguem pelo barramento para o tópico geral, os tópicos roteados e o
+ * lote; o broker só monta o frame STOMP em volta deles, sem passar de novo
+ * pelo conversor Jackson a cada destino.
+ */
+@Component
+public class NotificationEncoder {
+
+    private static final byte ARRAY_START = '[';
+    private static final byte ARRAY_SEPARATOR = ',';
+    private static final byte ARRAY_END = ']';
+
+    private final ObjectWriter writer;
+
+    public NotificationEncoder(ObjectMapper objectMapper) {
+        // Writer resolvido uma vez; os buffers da escrita vêm do pool de buffers do Jackson
+        this.writer = objectMapper.writerFor(EventNotification.class);
+    }
+
+    public EncodedNotification encode(EventNotification notification) {
+        try {
+            return new EncodedNotification(notification, writer.writeValueAsBytes(notification));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Array JSON com as notificações já serializadas, copiadas para um único
+     * buffer do tamanho exato
+     */
+    public static byte[] toJsonArray(List<EncodedNotification> notifications) {
+        int length = 2 + Math.max(0, notifications.size() - 1);
+        for (EncodedNotification notification : notifications) {
+            length += notification.payload().length;
+        }
+        byte[] array = new byte[length];
+        array[0] = ARRAY_START;
+        int position = 1;
+        for (int i = 0; i < notifications.size(); i++) {
+            if (i > 0) {
+                array[position++] = ARRAY_SEPARATOR;
+            }
+            byte[] payload = notifications.get(i).payload();
+            System.arraycopy(payload, 0, array, position, payload.length);
+            position += payload.length;
+        }
+        array[position] = ARRAY_END;
+        return array;
+    }
+
+    /**
+     * Mensagem JSON para um destino; o payload é compartilhado entre as
+     * mensagens, só os headers são de cada envio
+     *
+     * @param eventType header nativo usado nos seletores de assinatura, ou null
+     */
+    public static Message<byte[]> toMessage(byte[] payload, String eventType) {
+        return toMessage(payload, eventType, null);
+    }
+
+    /**
+     * @param sequence header nativo com o seq do replay (ver NotificationReplayLog), ou null
+     */
+    public static Message<byte[]> toMessage(byte[] payload, String eventType, String sequence) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (eventType != null) {
+            accessor.setNativeHeader(EVENT_TYPE_HEADER, eventType);
+        }
+        if (sequence != null) {
+            accessor.setNativeHeader(SEQUENCE_HEADER, sequence);
+        }
+        // O SimpMessagingTemplate completa o destino nos próprios headers
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+
+    /**
+     * Notificação com o JSON que vai para os clientes
+     *
+     * @param seq posição no replay deste nó, atribuída na entrega; 0 antes disso
+     */
+    public record EncodedNotification(EventNotification notification, byte[] payload, long seq) {
+
+        public EncodedNotification(EventNotification notification, byte[] payload) {
+            this(notification, payload, 0);
+        }
+
+        public EncodedNotification withSeq(long seq) {
+            return new EncodedNotification(notification, payload, seq);
+        }
+    }
+}
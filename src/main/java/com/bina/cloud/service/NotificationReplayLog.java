@@ -0,0 +1,149 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Últimas N notificações entregues por este nó, numeradas por seq. Um
+ * dashboard que perdeu a sessão (queda do SockJS, rede instável) pede ao
+ * reconectar só o que veio depois do último seq que recebeu, sem recarregar a
+ * página. Se o intervalo já saiu do buffer, ou o nó reiniciou (epoch
+ * diferente), a resposta é RESYNC e o cliente recarrega a lista.
+ *
+ * O seq é deste nó: com o relay externo (bina.websocket.relay.enabled) os
+ * clientes recebem eventos publicados por outros nós, que não passam por este
+ * buffer; nesse caso desabilite o replay (bina.notification.replay.enabled).
+ */
+@Component
+@Slf4j
+public class NotificationReplayLog implements MeterBinder {
+
+    private final boolean enabled;
+    private final EncodedNotification[] ring;
+    // Identifica esta execução do nó: seqs de antes de um restart não valem mais
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private long latestSeq;
+    private Counter okCounter;
+    private Counter resyncCounter;
+
+    public NotificationReplayLog(@Value("${bina.notification.replay.enabled:true}") boolean enabled,
+            @Value("${bina.notification.replay.size:1000}") int capacity) {
+        this.enabled = enabled;
+        this.ring = new EncodedNotification[capacity];
+    }
+
+    /**
+     * Numera a notificação e guarda no buffer; sem o replay volta sem seq
+     */
+    public EncodedNotification append(EncodedNotification notification) {
+        if (!enabled) {
+            return notification;
+        }
+        synchronized (this) {
+            EncodedNotification sequenced = notification.withSeq(++latestSeq);
+            ring[(int) (sequenced.seq() % ring.length)] = sequenced;
+            return sequenced;
+        }
+    }
+
+    /**
+     * Notificações com seq maior que since, em ordem, que passam no filtro; ou
+     * RESYNC quando alguma delas já não está no buffer
+     *
+     * @param clientEpoch epoch recebido pelo cliente junto com since
+     */
+    public Replay since(String clientEpoch, long since, Predicate<EventNotification> filter) {
+        if (!enabled) {
+            return new Replay(Replay.DISABLED, epoch, 0, List.of());
+        }
+        List<ReplayedNotification> notifications = new ArrayList<>();
+        long latest;
+        synchronized (this) {
+            latest = latestSeq;
+            long oldest = Math.max(1, latest - ring.length + 1);
+            if (!epoch.equals(clientEpoch) || since > latest || since + 1 < oldest) {
+                increment(resyncCounter);
+                log.debug("[NotificationReplayLog] since - RESYNC clientEpoch={} since={} epoch={} oldest={} latest={}",
+                        clientEpoch, since, epoch, oldest, latest);
+                return new Replay(Replay.RESYNC, epoch, latest, List.of());
+            }
+            for (long seq = since + 1; seq <= latest; seq++) {
+                EventNotification notification = ring[(int) (seq % ring.length)].notification();
+                if (filter.test(notification)) {
+                    notifications.add(new ReplayedNotification(seq, notification));
+                }
+            }
+        }
+        increment(okCounter);
+        log.debug("[NotificationReplayLog] since - OUT since={} latest={} size={}", since, latest,
+                notifications.size());
+        return new Replay(Replay.OK, epoch, latest, notifications);
+    }
+
+    public synchronized long latestSeq() {
+        return latestSeq;
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(latestSeq, ring.length);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bina.notification.replay.size", this, NotificationReplayLog::size)
+                .description("Notificações mantidas no buffer de replay")
+                .register(registry);
+        okCounter = Counter.builder("bina.notification.replay.requests")
+                .tag("result", "ok")
+                .description("Reconexões atendidas pelo buffer de replay")
+                .register(registry);
+        resyncCounter = Counter.builder("bina.notification.replay.requests")
+                .tag("result", "resync")
+                .description("Reconexões que precisaram recarregar a lista")
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Resposta ao SUBSCRIBE /app/events/replay
+     *
+     * @param status    OK, RESYNC (recarregar a lista) ou DISABLED
+     * @param epoch     execução atual do nó, enviada de volta no próximo replay
+     * @param latestSeq último seq entregue por este nó
+     */
+    public record Replay(String status, String epoch, long latestSeq, List<ReplayedNotification> notifications) {
+
+        public static final String OK = "OK";
+        public static final String RESYNC = "RESYNC";
+        public static final String DISABLED = "DISABLED";
+    }
+
+    public record ReplayedNotification(long seq, EventNotification notification) {
+    }
+}
@@ -1,78 +1,128 @@
 package com.bina.cloud.service;
 
-import com.bina.cloud.model.Evento;
-import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.model.PhoneCallStats;
 import com.bina.cloud.util.PhoneNumberUtil;
 import com.bina.cloud.util.TimezoneUtil;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final EventoRepository eventoRepository;
-
-    // Static compiled regex patterns to avoid repeated compilation
+    public static final String EVENTS_TOPIC = "/topic/events";
+    public static final String DEVICE_TOPIC_PREFIX = EVENTS_TOPIC + "/device/";
+    public static final String PHONE_TOPIC_PREFIX = EVENTS_TOPIC + "/phone/";
+    /** Array JSON com as notificações de cada janela (bina.notification.batch.*) */
+    public static final String EVENTS_BATCH_TOPIC = EVENTS_TOPIC + "/batch";
+    /** Um resumo por importação de POST /api/eventos/batch */
+    public static final String EVENTS_SUMMARY_TOPIC = EVENTS_TOPIC + "/summary";
+
+    /**
+     * Header nativo enviado no tópico geral e nos roteados, usado em seletores
+     * de assinatura (ex.: selector: headers.eventType == 'CALL_MISSED')
+     */
+    public static final String EVENT_TYPE_HEADER = "eventType";
+
+    /**
+     * Header nativo com o seq de cada notificação no replay do nó (no lote,
+     * os seqs do array separados por vírgula)
+     */
+    public static final String SEQUENCE_HEADER = "seq";
+
+    private static final String GAS_DELIVERY_CLIENT_URL =
+            "https://portal.gasdelivery.com.br/secure/client/?primary_phone=";
+
+    private final NotificationBus notificationBus;
+    private final LastCallIndex lastCallIndex;
+    private final EventoMetrics eventoMetrics;
+    private final PhoneStatsService phoneStatsService;
+    private final NotificationEncoder notificationEncoder;
 
     public void notifyNewEvent(String eventId, String eventTitle, String eventType, String deviceId, String timestamp,
             String additionalData) {
-        long startTime = System.currentTimeMillis();
-        log.info("[NotificationService] notifyNewEvent - IN eventId={} eventType={} deviceId={} ", eventId, eventType,
+        notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData,
+                PhoneNumberUtil.extractPhoneNumber(additionalData));
+    }
+
+    /**
+     * Notifica com o telefone já extraído do additionalData pelo chamador
+     */
+    public void notifyNewEvent(String eventId, String eventTitle, String eventType, String deviceId, String timestamp,
+            String additionalData, String phoneNumber) {
+        long startTime = System.nanoTime();
+        log.debug("[NotificationService] notifyNewEvent - IN eventId={} eventType={} deviceId={} ", eventId, eventType,
                 deviceId);
 
         try {
             // Converter timestamp para Brasília
             String brasiliaTimestamp = TimezoneUtil.convertTimestampToBrasilia(timestamp);
 
-            // Extrair o número de telefone do additionalData
-            String phoneNumber = PhoneNumberUtil.extractPhoneNumber(additionalData);
             String url = "";
             String timeSinceLastCall = "";
+            PhoneCallStats callStats = null;
 
-            if (!phoneNumber.isEmpty()) {
-                url = String.format("https://portal.gasdelivery.com.br/secure/client/?primary_phone=%s", phoneNumber);
+            if (phoneNumber != null && !phoneNumber.isEmpty()) {
+                url = GAS_DELIVERY_CLIENT_URL + phoneNumber;
                 log.debug("[NotificationService] URL do Gas Delivery gerada={}", url);
 
                 // Calcular tempo desde a última ligação
                 timeSinceLastCall = calculateTimeSinceLastCall(phoneNumber);
+                callStats = findCallStats(phoneNumber);
             } else {
-                log.warn("[NotificationService] Nenhum número de telefone encontrado: additionalData={}",
+                log.debug("[NotificationService] Nenhum número de telefone encontrado: additionalData={}",
                         additionalData);
             }
 
             EventNotification notification = new EventNotification(
                     eventId, eventTitle, eventType, deviceId, brasiliaTimestamp, additionalData, url, timeSinceLastCall,
-                    phoneNumber);
+                    phoneNumber, callStats);
 
-            messagingTemplate.convertAndSend("/topic/events", notification);
-            long durationMs = System.currentTimeMillis() - startTime;
-            log.info("[NotificationService] notifyNewEvent - OUT success durationMs={}ms", durationMs);
+            // Serializa e publica uma vez; cada nó entrega os mesmos bytes aos seus assinantes
+            notificationBus.publish(notificationEncoder.encode(notification));
+            log.debug("[NotificationService] notifyNewEvent - OUT success durationMs={}ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
         } catch (Exception e) {
-            long durationMs = System.currentTimeMillis() - startTime;
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
             log.error("[NotificationService] notifyNewEvent - ERROR durationMs={}ms message={}", durationMs,
                     e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Notifica uma importação em lote com um único resumo, sem um frame por evento
+     */
+    public void notifyBatch(EventBatchSummary summary) {
+        log.debug("[NotificationService] notifyBatch - IN count={}", summary.count());
+        try {
+            notificationBus.publish(summary);
+        } catch (Exception e) {
+            log.error("[NotificationService] notifyBatch - ERROR count={} message={}", summary.count(),
+                    e.getMessage(), e);
+            throw e;
+        }
+    }
+
     private String calculateTimeSinceLastCall(String phoneNumber) {
         try {
-            // Buscar eventos anteriores com o mesmo número de telefone
-            List<Evento> previousEvents = eventoRepository.findByPhoneNumberOrderByTimestampDesc(phoneNumber);
+            // Buscar a ligação anterior à atual no índice em memória
+            long lookupStart = System.nanoTime();
+            Optional<LocalDateTime> previousCall = lastCallIndex.findPreviousCall(phoneNumber);
+            eventoMetrics.recordPhoneLookup("last-call", previousCall.isPresent(), System.nanoTime() - lookupStart);
 
-            if (previousEvents.size() > 1) { // Mais de 1 porque o atual já está incluído
-                Evento lastCall = previousEvents.get(1); // Pega o segundo (anterior ao atual)
+            if (previousCall.isPresent()) {
                 var now = TimezoneUtil.getCurrentUtcTime();
-                Duration duration = Duration.between(lastCall.getTimestamp(), now);
+                Duration duration = Duration.between(previousCall.get(), now);
 
                 return formatDuration(duration);
             } else {
@@ -85,23 +135,40 @@ public class NotificationService {
         }
     }
 
-    private String formatDuration(Duration duration) {
+    private PhoneCallStats findCallStats(String phoneNumber) {
+        try {
+            long lookupStart = System.nanoTime();
+            Optional<PhoneCallStats> callStats = phoneStatsService.findRecent(phoneNumber);
+            eventoMetrics.recordPhoneLookup("stats", callStats.isPresent(), System.nanoTime() - lookupStart);
+            return callStats.orElse(null);
+        } catch (Exception e) {
+            // A notificação segue sem as estatísticas
+            log.error("Erro ao buscar estatísticas do telefone: {}", phoneNumber, e);
+            return null;
+        }
+    }
+
+    static String formatDuration(Duration duration) {
         long days = duration.toDays();
         long hours = duration.toHours() % 24;
         long minutes = duration.toMinutes() % 60;
 
+        // Concatenação em vez de String.format: sem parse do padrão a cada notificação
         if (days > 0) {
-            return String.format("%d dia%s, %d hora%s", days, days > 1 ? "s" : "", hours, hours > 1 ? "s" : "");
+            return days + " dia" + plural(days) + ", " + hours + " hora" + plural(hours);
         } else if (hours > 0) {
-            return String.format("%d hora%s, %d minuto%s", hours, hours > 1 ? "s" : "", minutes,
-                    minutes > 1 ? "s" : "");
+            return hours + " hora" + plural(hours) + ", " + minutes + " minuto" + plural(minutes);
         } else if (minutes > 0) {
-            return String.format("%d minuto%s", minutes, minutes > 1 ? "s" : "");
+            return minutes + " minuto" + plural(minutes);
         } else {
             return "Menos de 1 minuto";
         }
     }
 
+    private static String plural(long value) {
+        return value > 1 ? "s" : "";
+    }
+
     public record EventNotification(
             String eventId,
             String eventTitle,
@@ -111,6 +178,19 @@ public class NotificationService {
             String additionalData,
             String url,
             String timeSinceLastCall,
-            String phoneNumber) {
+            String phoneNumber,
+            PhoneCallStats callStats) {
+    }
+
+    /**
+     * Resumo de uma importação: quantidade por eventType, dispositivos
+     * envolvidos e intervalo dos eventos (horário de Brasília)
+     */
+    public record EventBatchSummary(
+            int count,
+            Map<String, Integer> eventTypes,
+            List<String> deviceIds,
+            String from,
+            String to) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,347 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.PhoneCallStats;
+import com.bina.cloud.model.PhoneStats;
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoStore;
+import com.bina.cloud.repository.PhoneStatsJdbcRepository;
+import com.bina.cloud.repository.PhoneStatsRepository;
+import com.bina.cloud.util.TimezoneUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Estatísticas de ligações por telefone (tabela phone_stats). São atualizadas
+ * na mesma transação que grava os eventos, então a leitura é uma busca pela
+ * chave primária, sem percorrer o histórico. A reconstrução recalcula tudo a
+ * partir dos eventos gravados (EventoStore) e do arquivo mensal, em paralelo
+ * por telefone.
+ */
+@Service
+@Slf4j
+public class PhoneStatsService {
+
+    private final PhoneStatsRepository phoneStatsRepository;
+    private final PhoneStatsJdbcRepository phoneStatsJdbcRepository;
+    private final EventoStore eventoStore;
+    private final EventoArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildThreads;
+    private final boolean rebuildOnStartup;
+    private final Cache<String, PhoneStats> recent;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Timer rebuildTimer;
+
+    public PhoneStatsService(PhoneStatsRepository phoneStatsRepository,
+            PhoneStatsJdbcRepository phoneStatsJdbcRepository, EventoStore eventoStore,
+            EventoArchiveRepository archiveRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${bina.phone-stats.cache-size:10000}") int cacheSize,
+            @Value("${bina.phone-stats.cache-ttl-ms:60000}") long cacheTtlMs,
+            @Value("${bina.phone-stats.rebuild.threads:2}") int rebuildThreads,
+            @Value("${bina.phone-stats.rebuild.on-startup:true}") boolean rebuildOnStartup) {
+        this.phoneStatsRepository = phoneStatsRepository;
+        this.phoneStatsJdbcRepository = phoneStatsJdbcRepository;
+        this.eventoStore = eventoStore;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildThreads = rebuildThreads;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .build();
+        this.rebuildTimer = Timer.builder("bina.phone-stats.rebuild")
+                .description("Duração da reconstrução das estatísticas por telefone")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inclui os eventos gravados nas estatísticas dos seus telefones. Deve
+     * rodar na transação que gravou os eventos: se a gravação for desfeita, as
+     * estatísticas também são. Parte da última versão em memória (ou de uma
+     * leitura sem trava) e grava tudo num único batch em ordem de telefone,
+     * que trava as linhas sempre na mesma ordem. Se outra transação alterou
+     * algum telefone nesse meio tempo, falha com StalePhoneStatsException sem
+     * travar mais nada: quem chamou desfaz a transação e usa applyLocked.
+     */
+    public void apply(List<Evento> eventos) {
+        Map<String, List<LocalDateTime>> calls = callsByPhone(eventos);
+        if (calls.isEmpty()) {
+            return;
+        }
+
+        Map<String, PhoneStats> current = new HashMap<>();
+        List<String> notCached = new ArrayList<>();
+        calls.keySet().forEach(phoneNumber -> {
+            PhoneStats cached = recent.getIfPresent(phoneNumber);
+            if (cached != null) {
+                current.put(phoneNumber, cached.copy());
+            } else {
+                notCached.add(phoneNumber);
+            }
+        });
+        phoneStatsJdbcRepository.findAll(notCached).forEach(stats -> current.put(stats.getPhoneNumber(), stats));
+
+        Set<String> created = new HashSet<>();
+        List<PhoneStats> written = new ArrayList<>(calls.size());
+        calls.forEach((phoneNumber, timestamps) -> {
+            PhoneStats stats = current.get(phoneNumber);
+            if (stats == null) {
+                stats = new PhoneStats(phoneNumber);
+                created.add(phoneNumber);
+            }
+            recordCalls(stats, timestamps);
+            written.add(stats);
+        });
+        List<PhoneStats> stale = phoneStatsJdbcRepository.mergeAll(written, created);
+        if (!stale.isEmpty()) {
+            throw new StalePhoneStatsException("Estatísticas alteradas por outra transação: "
+                    + stale.stream().map(PhoneStats::getPhoneNumber).toList());
+        }
+        publishAfterCommit(written);
+    }
+
+    /**
+     * Como apply, mas trava todos os telefones do lote numa única leitura, em
+     * ordem de telefone, antes de qualquer gravação: duas transações com
+     * telefones em comum sempre disputam as linhas na mesma ordem e não
+     * entram em deadlock. Usado quando apply encontrou uma revisão vencida.
+     */
+    public void applyLocked(List<Evento> eventos) {
+        Map<String, List<LocalDateTime>> calls = callsByPhone(eventos);
+        if (calls.isEmpty()) {
+            return;
+        }
+
+        Map<String, PhoneStats> existing = phoneStatsJdbcRepository.findAllForUpdate(calls.keySet()).stream()
+                .collect(Collectors.toMap(PhoneStats::getPhoneNumber, Function.identity()));
+        List<PhoneStats> created = new ArrayList<>();
+        List<PhoneStats> updated = new ArrayList<>(existing.size());
+        calls.forEach((phoneNumber, timestamps) -> {
+            PhoneStats stats = existing.get(phoneNumber);
+            if (stats == null) {
+                stats = new PhoneStats(phoneNumber);
+                created.add(stats);
+            } else {
+                updated.add(stats);
+            }
+            recordCalls(stats, timestamps);
+        });
+        phoneStatsJdbcRepository.insertAll(created);
+        writeLocked(updated);
+
+        List<PhoneStats> written = new ArrayList<>(calls.size());
+        written.addAll(created);
+        written.addAll(updated);
+        publishAfterCommit(written);
+    }
+
+    /**
+     * Estatísticas atuais do telefone, lidas do banco pela chave primária
+     */
+    public Optional<PhoneCallStats> find(String phoneNumber) {
+        return phoneStatsRepository.findById(phoneNumber).map(PhoneStatsService::toView);
+    }
+
+    /**
+     * Estatísticas do telefone para a notificação de um evento recém-gravado:
+     * normalmente já estão em memória, publicadas pelo commit da gravação
+     */
+    public Optional<PhoneCallStats> findRecent(String phoneNumber) {
+        PhoneStats stats = recent.getIfPresent(phoneNumber);
+        if (stats != null) {
+            return Optional.of(toView(stats));
+        }
+        return find(phoneNumber);
+    }
+
+    /**
+     * Na primeira subida com a tabela phone_stats vazia, calcula as
+     * estatísticas dos eventos já existentes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rebuildOnStartup && phoneStatsRepository.count() == 0 && eventoStore.count() > 0) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Inicia a reconstrução em segundo plano; false se já houver uma em andamento
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                doRebuild();
+            } catch (Exception e) {
+                log.error("[PhoneStatsService] startRebuild - ERROR message={}", e.getMessage(), e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "phone-stats-rebuild");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * Recalcula as estatísticas de todos os telefones presentes nos eventos
+     * gravados e aguarda o término. Retorna quantos telefones foram
+     * reconstruídos; execuções concorrentes são ignoradas.
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("[PhoneStatsService] rebuild - SKIPPED already running");
+            return 0;
+        }
+        try {
+            return doRebuild();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    private int doRebuild() {
+        long startTime = System.nanoTime();
+        List<String> phoneNumbers = eventoStore.findDistinctPhoneNumbers();
+        log.info("[PhoneStatsService] rebuild - IN phones={} threads={}", phoneNumbers.size(), rebuildThreads);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+            Thread thread = new Thread(runnable, "phone-stats-rebuild-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        int rebuilt = 0;
+        int failed = 0;
+        try {
+            List<Future<?>> tasks = new ArrayList<>(phoneNumbers.size());
+            for (String phoneNumber : phoneNumbers) {
+                tasks.add(executor.submit(() -> rebuildPhone(phoneNumber)));
+            }
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                    rebuilt++;
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.warn("[PhoneStatsService] rebuild - phone failed message={}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long durationNanos = System.nanoTime() - startTime;
+        rebuildTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        log.info("[PhoneStatsService] rebuild - OUT rebuilt={} failed={} durationMs={}ms", rebuilt, failed,
+                TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        return rebuilt;
+    }
+
+    private void rebuildPhone(String phoneNumber) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Com a linha travada, gravações concorrentes do telefone esperam e
+            // somam as suas ligações sobre o valor reconstruído
+            List<PhoneStats> existing = phoneStatsJdbcRepository.findAllForUpdate(List.of(phoneNumber));
+            PhoneStats stats = new PhoneStats(phoneNumber);
+            archiveRepository.findAllTimestampsByPhoneNumber(phoneNumber).forEach(stats::recordCall);
+            eventoStore.findAllTimestampsByPhoneNumber(phoneNumber).forEach(stats::recordCall);
+            if (existing.isEmpty()) {
+                phoneStatsJdbcRepository.insertAll(List.of(stats));
+            } else {
+                stats.setRevision(existing.get(0).getRevision());
+                writeLocked(List.of(stats));
+            }
+            publishAfterCommit(List.of(stats));
+        });
+    }
+
+    /**
+     * Horários das ligações por telefone; TreeMap: as linhas são gravadas e
+     * travadas sempre na mesma ordem
+     */
+    private static Map<String, List<LocalDateTime>> callsByPhone(List<Evento> eventos) {
+        Map<String, List<LocalDateTime>> calls = new TreeMap<>();
+        for (Evento evento : eventos) {
+            String phoneNumber = evento.getPhoneNumber();
+            if (phoneNumber != null && !phoneNumber.isEmpty() && evento.getTimestamp() != null) {
+                calls.computeIfAbsent(phoneNumber, key -> new ArrayList<>()).add(evento.getTimestamp());
+            }
+        }
+        return calls;
+    }
+
+    private static void recordCalls(PhoneStats stats, List<LocalDateTime> timestamps) {
+        timestamps.stream().sorted().forEach(stats::recordCall);
+    }
+
+    private void writeLocked(List<PhoneStats> stats) {
+        if (!phoneStatsJdbcRepository.updateAll(stats).isEmpty()) {
+            // Linha travada nesta transação: só muda se foi apagada
+            throw new IllegalStateException("Estatísticas de telefone removidas durante a gravação");
+        }
+    }
+
+    private void publishAfterCommit(List<PhoneStats> stats) {
+        List<PhoneStats> copies = stats.stream().map(PhoneStats::copy).toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            copies.forEach(copy -> recent.put(copy.getPhoneNumber(), copy));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                copies.forEach(copy -> recent.put(copy.getPhoneNumber(), copy));
+            }
+        });
+    }
+
+    private static PhoneCallStats toView(PhoneStats stats) {
+        LocalDate today = PhoneStats.brasiliaDay(TimezoneUtil.getCurrentUtcTime());
+        return PhoneCallStats.of(stats, today);
+    }
+}
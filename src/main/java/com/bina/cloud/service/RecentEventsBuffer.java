@@ -0,0 +1,215 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Buffer circular com os N eventos mais recentes deste nó. Alimentado por
+ * criarEvento a cada gravação, atende as listagens de últimos eventos sem ir
+ * ao banco.
+ *
+ * Só vale com um único nó: com o relay externo ou um barramento entre nós
+ * (bina.notification.bus diferente de local) os eventos gravados nos outros
+ * nós não passam por aqui, então o buffer fica desligado e as listagens vão
+ * sempre ao EventoStore.
+ */
+@Component
+@Slf4j
+public class RecentEventsBuffer implements MeterBinder {
+
+    private static final Comparator<Evento> MOST_RECENT_FIRST = Comparator
+            .comparing(Evento::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Evento::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final EventoStore eventoStore;
+    private final Evento[] ring;
+    private final boolean singleNode;
+    // Diferencia as versões desta execução das de antes de um restart
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private int head;
+    private int size;
+    private long changes;
+    private long latestId;
+    private long lastModifiedMillis = System.currentTimeMillis();
+    private volatile boolean ready;
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    public RecentEventsBuffer(EventoStore eventoStore,
+            @Value("${bina.recent-events.size:200}") int capacity,
+            @Value("${bina.websocket.relay.enabled:false}") boolean relayEnabled,
+            @Value("${bina.notification.bus:local}") String notificationBus) {
+        this.eventoStore = eventoStore;
+        this.ring = new Evento[capacity];
+        this.singleNode = !relayEnabled && "local".equals(notificationBus);
+    }
+
+    /**
+     * Carrega os eventos mais recentes do banco ao iniciar a aplicação
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!singleNode) {
+            log.info("[RecentEventsBuffer] warmUp - OUT disabled: eventos de outros nós não passam pelo buffer");
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            List<Evento> recentes = eventoStore.findLatest(ring.length);
+            synchronized (this) {
+                // Mantém o que já foi gravado durante a carga e completa com o banco
+                merge(recentes);
+                changed();
+                ready = true;
+            }
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.info("[RecentEventsBuffer] warmUp - OUT size={} durationMs={}ms", size(), durationMs);
+        } catch (Exception e) {
+            long durationMs = System.currentTimeMillis() - startTime;
+            log.error("[RecentEventsBuffer] warmUp - ERROR durationMs={}ms message={}", durationMs, e.getMessage(), e);
+        }
+    }
+
+    public synchronized void add(Evento evento) {
+        if (!singleNode) {
+            return;
+        }
+        push(evento);
+        changed();
+    }
+
+    /**
+     * Inclui eventos que podem ser antigos (importação em lote): o buffer
+     * continua com os mais recentes por timestamp, não os últimos recebidos
+     */
+    public synchronized void addAll(List<Evento> eventos) {
+        if (!singleNode) {
+            return;
+        }
+        merge(eventos);
+        changed();
+    }
+
+    /**
+     * Os limit eventos mais recentes, do mais novo para o mais antigo, ou vazio
+     * quando o buffer ainda não foi carregado, não comporta o limite pedido ou
+     * está desligado por haver vários nós
+     */
+    public Optional<List<Evento>> latest(int limit) {
+        if (!ready || limit > ring.length) {
+            increment(missCounter);
+            return Optional.empty();
+        }
+        List<Evento> eventos = snapshotSorted();
+        increment(hitCounter);
+        return Optional.of(eventos.size() > limit ? eventos.subList(0, limit) : eventos);
+    }
+
+    /**
+     * Versão do conteúdo servido por latest(limit), para validar o cache do
+     * navegador sem consultar os eventos; vazio nos mesmos casos em que
+     * latest(limit) recorre ao banco
+     */
+    public Optional<Version> version(int limit) {
+        if (!ready || limit > ring.length) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            return Optional.of(new Version(bootId + "-" + latestId + "-" + changes, lastModifiedMillis));
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bina.recent-events.size", this, RecentEventsBuffer::size)
+                .description("Eventos mantidos no buffer de recentes")
+                .register(registry);
+        hitCounter = Counter.builder("bina.recent-events.requests")
+                .tag("result", "hit")
+                .description("Listagens de recentes atendidas pelo buffer")
+                .register(registry);
+        missCounter = Counter.builder("bina.recent-events.requests")
+                .tag("result", "miss")
+                .description("Listagens de recentes que precisaram do banco")
+                .register(registry);
+    }
+
+    private synchronized List<Evento> snapshotSorted() {
+        List<Evento> eventos = snapshot();
+        // Gravações concorrentes podem chegar fora de ordem
+        eventos.sort(MOST_RECENT_FIRST);
+        return eventos;
+    }
+
+    private List<Evento> snapshot() {
+        List<Evento> eventos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            eventos.add(ring[Math.floorMod(head - 1 - i, ring.length)]);
+        }
+        return eventos;
+    }
+
+    private void merge(List<Evento> eventos) {
+        List<Evento> merged = new ArrayList<>(snapshot());
+        Set<Long> ids = new HashSet<>();
+        merged.forEach(evento -> ids.add(evento.getId()));
+        for (Evento evento : eventos) {
+            if (ids.add(evento.getId())) {
+                merged.add(evento);
+            }
+        }
+        merged.sort(MOST_RECENT_FIRST.reversed());
+        head = 0;
+        size = 0;
+        merged.stream().skip(Math.max(0, merged.size() - ring.length)).forEach(this::push);
+    }
+
+    private void changed() {
+        changes++;
+        // Last-Modified tem resolução de segundos: nunca volta atrás
+        lastModifiedMillis = Math.max(lastModifiedMillis, System.currentTimeMillis());
+    }
+
+    private void push(Evento evento) {
+        ring[head] = evento;
+        if (evento.getId() != null) {
+            latestId = Math.max(latestId, evento.getId());
+        }
+        head = (head + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * @param etag               maior id recebido e número de alterações do buffer
+     * @param lastModifiedMillis horário da última alteração
+     */
+    public record Version(String etag, long lastModifiedMillis) {
+    }
+}
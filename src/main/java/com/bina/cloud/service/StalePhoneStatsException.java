@@ -0,0 +1,13 @@
+package com.bina.cloud.service;
+
+/**
+ * Lançada quando outra transação alterou as estatísticas de um telefone
+ * entre a leitura e a gravação sem trava; a transação deve ser desfeita e
+ * refeita com PhoneStatsService.applyLocked
+ */
+public class StalePhoneStatsException extends RuntimeException {
+
+    public StalePhoneStatsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bina.cloud.service;
+
+/**
+ * Lançada quando a consulta depende da tabela eventos e o armazenamento
+ * escolhido em bina.store.engine não grava nela
+ */
+public class UnsupportedStoreQueryException extends RuntimeException {
+
+    public UnsupportedStoreQueryException(String message) {
+        super(message);
+    }
+}
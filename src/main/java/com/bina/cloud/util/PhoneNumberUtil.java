@@ -6,10 +6,72 @@ public class PhoneNumberUtil {
     private static final Pattern PHONE_JSON_PATTERN = Pattern.compile(".*\"numero\":\\s*\"([^\"]+)\".*");
     private static final Pattern DIGITS_ONLY_PATTERN = Pattern.compile("[^0-9]");
 
+    private static final String NUMERO_KEY = "\"numero\":";
+    private static final int MAX_DIGITS = 11;
+
+    /**
+     * Extrai o telefone do additionalData em uma única passada, sem regex.
+     * Usa o valor do último campo "numero" do JSON; sem ele, junta todos os
+     * dígitos do texto. Remove zeros à esquerda e limita a 11 dígitos (DDD +
+     * número).
+     */
     public static String extractPhoneNumber(String additionalData) {
         if (additionalData == null || additionalData.isEmpty()) {
             return "";
         }
+        if (hasLineTerminator(additionalData)) {
+            // "." da regex original não atravessa quebras de linha; mantém o comportamento dela
+            return extractPhoneNumberLegacy(additionalData);
+        }
+
+        int valueStart = -1;
+        int valueEnd = -1;
+        int keyIndex = additionalData.lastIndexOf(NUMERO_KEY);
+        while (keyIndex >= 0 && valueStart < 0) {
+            int i = keyIndex + NUMERO_KEY.length();
+            while (i < additionalData.length() && isRegexWhitespace(additionalData.charAt(i))) {
+                i++;
+            }
+            if (i < additionalData.length() && additionalData.charAt(i) == '"') {
+                int closing = additionalData.indexOf('"', i + 1);
+                if (closing > i + 1) {
+                    valueStart = i + 1;
+                    valueEnd = closing;
+                }
+            }
+            keyIndex = keyIndex == 0 ? -1 : additionalData.lastIndexOf(NUMERO_KEY, keyIndex - 1);
+        }
+
+        if (valueStart >= 0) {
+            if (valueEnd - valueStart == 3 && additionalData.startsWith("N/A", valueStart)) {
+                return "";
+            }
+            while (valueStart < valueEnd && additionalData.charAt(valueStart) == '0') {
+                valueStart++;
+            }
+            return additionalData.substring(valueStart, Math.min(valueEnd, valueStart + MAX_DIGITS));
+        }
+
+        // Sem campo "numero": usa apenas os dígitos do texto
+        char[] digits = new char[MAX_DIGITS];
+        int length = 0;
+        for (int i = 0; i < additionalData.length() && length < MAX_DIGITS; i++) {
+            char c = additionalData.charAt(i);
+            if (c >= '0' && c <= '9' && (length > 0 || c != '0')) {
+                digits[length++] = c;
+            }
+        }
+        return length == 0 ? "" : new String(digits, 0, length);
+    }
+
+    /**
+     * Implementação original baseada em regex, usada como referência do
+     * scanner e para textos com quebra de linha
+     */
+    static String extractPhoneNumberLegacy(String additionalData) {
+        if (additionalData == null || additionalData.isEmpty()) {
+            return "";
+        }
 
         try {
             // Tentar extrair número usando regex para JSON
@@ -42,4 +104,19 @@ public class PhoneNumberUtil {
         return "";
     }
 
+    private static boolean hasLineTerminator(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mesmo conjunto do \s da regex original (sem as quebras de linha, já tratadas)
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\u000B' || c == '\f';
+    }
+
 }
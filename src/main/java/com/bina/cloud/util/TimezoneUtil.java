@@ -1,10 +1,15 @@
 package com.bina.cloud.util;
 
 import org.springframework.stereotype.Component;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class TimezoneUtil {
@@ -14,6 +19,17 @@ public class TimezoneUtil {
     public static final DateTimeFormatter BRASILIA_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
     public static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
+    private static final ZoneRules BRASILIA_RULES = BRASILIA_ZONE.getRules();
+    // dd/MM/yyyy HH:mm:ss e yyyy-MM-ddTHH:mm:ss
+    private static final int TIMESTAMP_LENGTH = 19;
+
+    /**
+     * Offset de Brasília entre duas transições de horário de verão. Quase
+     * todas as conversões caem na janela atual (sem horário de verão desde
+     * 2019), então o offset sai de uma comparação em vez das regras da zona.
+     */
+    private static volatile OffsetWindow offsetWindow = OffsetWindow.at(Instant.now().getEpochSecond());
+
     /**
      * Converte LocalDateTime de UTC para Brasília
      */
@@ -21,10 +37,21 @@ public class TimezoneUtil {
         if (utcDateTime == null) {
             return "N/A";
         }
+        return format(convertUtcToBrasiliaDateTime(utcDateTime), new char[TIMESTAMP_LENGTH]);
+    }
 
-        ZonedDateTime utcZoned = utcDateTime.atZone(UTC_ZONE);
-        ZonedDateTime brasiliaZoned = utcZoned.withZoneSameInstant(BRASILIA_ZONE);
-        return brasiliaZoned.format(BRASILIA_FORMATTER);
+    /**
+     * Converte uma lista de horários UTC de uma vez (ex.: linhas de uma
+     * página), reaproveitando o buffer de formatação. Nulos viram "N/A",
+     * como em {@link #convertUtcToBrasilia(LocalDateTime)}.
+     */
+    public static List<String> convertAllUtcToBrasilia(List<LocalDateTime> utcDateTimes) {
+        List<String> converted = new ArrayList<>(utcDateTimes.size());
+        char[] buffer = new char[TIMESTAMP_LENGTH];
+        for (LocalDateTime utcDateTime : utcDateTimes) {
+            converted.add(utcDateTime == null ? "N/A" : format(convertUtcToBrasiliaDateTime(utcDateTime), buffer));
+        }
+        return converted;
     }
 
     /**
@@ -34,10 +61,7 @@ public class TimezoneUtil {
         if (utcDateTime == null) {
             return null;
         }
-
-        ZonedDateTime utcZoned = utcDateTime.atZone(UTC_ZONE);
-        ZonedDateTime brasiliaZoned = utcZoned.withZoneSameInstant(BRASILIA_ZONE);
-        return brasiliaZoned.toLocalDateTime();
+        return utcDateTime.plusSeconds(brasiliaOffsetSeconds(utcDateTime.toEpochSecond(ZoneOffset.UTC)));
     }
 
     /**
@@ -65,12 +89,15 @@ public class TimezoneUtil {
 
         try {
             // Verificar se já está no formato brasileiro
-            if (timestamp.matches("\\d{2}/\\d{2}/\\d{4} \\d{2}:\\d{2}:\\d{2}")) {
+            if (isBrasiliaFormat(timestamp)) {
                 return timestamp;
             }
 
-            // Tentar converter de ISO
-            LocalDateTime utcTime = LocalDateTime.parse(timestamp, ISO_FORMATTER);
+            // Tentar converter de ISO; só variações (fração de segundo, sem segundos) passam pelo parser
+            LocalDateTime utcTime = parseIsoSeconds(timestamp);
+            if (utcTime == null) {
+                utcTime = LocalDateTime.parse(timestamp, ISO_FORMATTER);
+            }
             return convertUtcToBrasilia(utcTime);
 
         } catch (Exception e) {
@@ -78,4 +105,121 @@ public class TimezoneUtil {
             return timestamp;
         }
     }
-}
\ No newline at end of file
+
+    private static int brasiliaOffsetSeconds(long utcEpochSecond) {
+        OffsetWindow window = offsetWindow;
+        if (!window.contains(utcEpochSecond)) {
+            // Horário de outra janela (histórico antigo): troca a janela em cache
+            window = OffsetWindow.at(utcEpochSecond);
+            offsetWindow = window;
+        }
+        return window.offsetSeconds();
+    }
+
+    /**
+     * Mesmo texto de BRASILIA_FORMATTER, escrito dígito a dígito no buffer
+     */
+    private static String format(LocalDateTime dateTime, char[] buffer) {
+        int year = dateTime.getYear();
+        if (year < 1 || year > 9999) {
+            // Ano de era e sinal seguem as regras do DateTimeFormatter
+            return dateTime.format(BRASILIA_FORMATTER);
+        }
+        writeTwoDigits(buffer, 0, dateTime.getDayOfMonth());
+        buffer[2] = '/';
+        writeTwoDigits(buffer, 3, dateTime.getMonthValue());
+        buffer[5] = '/';
+        writeTwoDigits(buffer, 6, year / 100);
+        writeTwoDigits(buffer, 8, year % 100);
+        buffer[10] = ' ';
+        writeTwoDigits(buffer, 11, dateTime.getHour());
+        buffer[13] = ':';
+        writeTwoDigits(buffer, 14, dateTime.getMinute());
+        buffer[16] = ':';
+        writeTwoDigits(buffer, 17, dateTime.getSecond());
+        return new String(buffer);
+    }
+
+    private static void writeTwoDigits(char[] buffer, int index, int value) {
+        buffer[index] = (char) ('0' + value / 10);
+        buffer[index + 1] = (char) ('0' + value % 10);
+    }
+
+    // Equivalente a matches("\\d{2}/\\d{2}/\\d{4} \\d{2}:\\d{2}:\\d{2}")
+    private static boolean isBrasiliaFormat(String timestamp) {
+        if (timestamp.length() != TIMESTAMP_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+            char c = timestamp.charAt(i);
+            boolean valid = switch (i) {
+                case 2, 5 -> c == '/';
+                case 10 -> c == ' ';
+                case 13, 16 -> c == ':';
+                default -> isDigit(c);
+            };
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * yyyy-MM-ddTHH:mm:ss lido direto dos caracteres; null para qualquer outra
+     * forma. Data ou hora inválida lança DateTimeException, como o parser ISO
+     */
+    private static LocalDateTime parseIsoSeconds(String timestamp) {
+        if (timestamp.length() != TIMESTAMP_LENGTH || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-'
+                || timestamp.charAt(10) != 'T' || timestamp.charAt(13) != ':' || timestamp.charAt(16) != ':') {
+            return null;
+        }
+        int year = parseDigits(timestamp, 0, 4);
+        int month = parseDigits(timestamp, 5, 2);
+        int day = parseDigits(timestamp, 8, 2);
+        int hour = parseDigits(timestamp, 11, 2);
+        int minute = parseDigits(timestamp, 14, 2);
+        int second = parseDigits(timestamp, 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private static int parseDigits(String value, int start, int length) {
+        int result = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Intervalo [from, until) em segundos UTC com o mesmo offset de Brasília
+     */
+    private record OffsetWindow(long fromEpochSecond, long untilEpochSecond, int offsetSeconds) {
+
+        static OffsetWindow at(long utcEpochSecond) {
+            Instant instant = Instant.ofEpochSecond(utcEpochSecond);
+            // Transição exatamente no instante conta como início da janela
+            ZoneOffsetTransition previous = BRASILIA_RULES.previousTransition(instant.plusSeconds(1));
+            ZoneOffsetTransition next = BRASILIA_RULES.nextTransition(instant);
+            return new OffsetWindow(
+                    previous != null ? previous.toEpochSecond() : Long.MIN_VALUE,
+                    next != null ? next.toEpochSecond() : Long.MAX_VALUE,
+                    BRASILIA_RULES.getOffset(instant).getTotalSeconds());
+        }
+
+        boolean contains(long utcEpochSecond) {
+            return utcEpochSecond >= fromEpochSecond && utcEpochSecond < untilEpochSecond;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- Sequência dos eventos com alocação em blocos de 50 ids (allocationSize do Evento).
+-- Bancos criados com INCREMENT BY 1 são ajustados aqui, antes do Hibernate validar a sequência.
+-- Sem colisão com os ids existentes pelo otimizador pooled-lo (hibernate.id.optimizer.pooled.preferred):
+-- o próximo valor da sequência passa a ser o início do bloco seguinte.
+CREATE SEQUENCE IF NOT EXISTS evento_sequence START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE evento_sequence INCREMENT BY 50;
@@ -0,0 +1,390 @@
+package com.bina.cloud.config;
+
+import com.bina.cloud.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CoalescingWebSocketHandlerDecoratorTest {
+
+    private static final String BATCH_TOPIC = NotificationService.EVENTS_BATCH_TOPIC;
+    private static final int OUTBOUND_THREADS = 4;
+    private static final Pattern EVENT_ID = Pattern.compile("\"eventId\":\"(\\d+)\"");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+    private ExecutorService writer;
+    private ScheduledExecutorService watchdog;
+
+    @BeforeEach
+    void setUp() {
+        writer = Executors.newCachedThreadPool();
+        watchdog = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    @Test
+    void pendingBatchFrames_ShouldBeMergedIntoOneArray() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession client = client(() -> {
+            writing.countDown();
+            awaitQuietly(release);
+        });
+        WebSocketSession session = decorate(client, 512 * 1024);
+
+        session.sendMessage(batchFrame("sub-0", 0, 0));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < 5; i++) {
+            session.sendMessage(batchFrame("sub-0", i, i));
+        }
+        session.sendMessage(batchFrame("sub-1", 5, 5));
+        release.countDown();
+        awaitWritten(3);
+
+        // O primeiro já estava em escrita; os 4 seguintes da sub-0 viram um frame só
+        assertEquals(List.of(0), eventIds(written.get(0)));
+        assertEquals(List.of(1, 2, 3, 4), eventIds(written.get(1)));
+        assertEquals(List.of(5), eventIds(written.get(2)));
+
+        String merged = written.get(1);
+        assertTrue(merged.contains("message-id:m-4\n"), "headers do frame mais novo");
+        String body = merged.substring(merged.indexOf("\n\n") + 2, merged.length() - 1);
+        assertTrue(merged.contains("content-length:" + body.getBytes(StandardCharsets.UTF_8).length + "\n"));
+        assertTrue(body.startsWith("[{") && body.endsWith("}]"));
+        assertTrue(merged.contains("seq:2,3,4,5\n"), "seq dos lotes unidos");
+        assertEquals(3.0, meterRegistry.get("bina.websocket.frames").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void otherFrames_ShouldKeepOrderWithoutMerging() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession client = client(() -> {
+            writing.countDown();
+            awaitQuietly(release);
+        });
+        WebSocketSession session = decorate(client, 512 * 1024);
+
+        session.sendMessage(batchFrame("sub-0", 0, 0));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        session.sendMessage(frame("/topic/events", "sub-2", 1, "{\"eventId\":\"1\"}"));
+        session.sendMessage(batchFrame("sub-0", 2, 2));
+        session.sendMessage(batchFrame("sub-0", 3, 3));
+        release.countDown();
+        awaitWritten(3);
+
+        assertEquals(List.of(0), eventIds(written.get(0)));
+        assertEquals(List.of(1), eventIds(written.get(1)));
+        assertEquals(List.of(2, 3), eventIds(written.get(2)));
+    }
+
+    @Test
+    void pendingBytesOverLimit_ShouldCloseSession() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession client = client(() -> awaitQuietly(release));
+        WebSocketSession session = decorate(client, 2 * 1024);
+
+        session.sendMessage(frame("/topic/events", "sub-2", 0, "{\"eventId\":\"0\"}"));
+        for (int i = 1; i < 100; i++) {
+            session.sendMessage(frame("/topic/events", "sub-2", i, "{\"eventId\":\"" + i + "\"}"));
+        }
+        release.countDown();
+
+        verify(client).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1.0, meterRegistry.get("bina.websocket.slow-consumer.closed").counter().count());
+    }
+
+    @Test
+    void dropOldest_ShouldKeepSessionAndNewestFrames() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession client = client(() -> {
+            writing.countDown();
+            awaitQuietly(release);
+        });
+        WebSocketSession session = decorate(client, 2 * 1024, SlowConsumerPolicy.DROP_OLDEST);
+
+        session.sendMessage(frame("/topic/events", "sub-2", 0, "{\"eventId\":\"0\"}"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < 100; i++) {
+            session.sendMessage(frame("/topic/events", "sub-2", i, "{\"eventId\":\"" + i + "\"}"));
+        }
+        release.countDown();
+
+        double dropped = meterRegistry.get("bina.websocket.frames").tag("result", "dropped").counter().count();
+        awaitWritten(100 - (int) dropped);
+        verify(client, never()).close(any());
+        assertTrue(dropped > 0);
+        // O frame em escrita segue; dos pendentes ficam os mais recentes, em ordem
+        assertEquals(List.of(0), eventIds(written.get(0)));
+        assertEquals(List.of(99), eventIds(written.get(written.size() - 1)));
+        assertEquals(List.of((int) dropped + 1), eventIds(written.get(1)));
+        // O primeiro frame depois do descarte aponta o último seq entregue antes dele (o do frame 0)
+        assertTrue(written.get(1).startsWith("MESSAGE\ngap:1\n"), written.get(1));
+        assertEquals(1, written.stream().filter(frame -> frame.contains("\ngap:")).count());
+    }
+
+    @Test
+    void conflate_ShouldKeepLatestFramePerSubscription() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession client = client(() -> {
+            writing.countDown();
+            awaitQuietly(release);
+        });
+        WebSocketSession session = decorate(client, 2 * 1024, SlowConsumerPolicy.CONFLATE);
+
+        session.sendMessage(frame("/topic/events", "sub-2", 0, "{\"eventId\":\"0\"}"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < 100; i++) {
+            String subscription = i % 2 == 0 ? "sub-2" : "sub-3";
+            session.sendMessage(frame("/topic/events", subscription, i, "{\"eventId\":\"" + i + "\"}"));
+        }
+        release.countDown();
+
+        double conflated = meterRegistry.get("bina.websocket.frames").tag("result", "conflated").counter().count();
+        awaitWritten(100 - (int) conflated);
+        verify(client, never()).close(any());
+        assertTrue(conflated > 0);
+        // Os dois últimos de cada assinatura sempre sobrevivem
+        List<Integer> delivered = eventIdsInOrder();
+        assertTrue(delivered.containsAll(List.of(0, 98, 99)), "entregues=" + delivered);
+        assertEquals(delivered.stream().sorted().toList(), delivered);
+        // Cada assinatura recebe um gap: seq anterior ao seu primeiro frame substituído (frames 1 e 2)
+        List<String> gaps = written.stream().filter(frame -> frame.startsWith("MESSAGE\ngap:"))
+                .map(frame -> frame.substring("MESSAGE\n".length(), frame.indexOf('\n', "MESSAGE\n".length())))
+                .sorted().toList();
+        assertEquals(List.of("gap:1", "gap:2"), gaps);
+    }
+
+    @Test
+    void stalledWrite_ShouldBeClosedWithoutWaitingForNextFrame() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession client = client(() -> {
+            writing.countDown();
+            awaitQuietly(release);
+        });
+        WebSocketSession session = decorate(client, 512 * 1024, SlowConsumerPolicy.DROP_OLDEST, 200);
+
+        session.sendMessage(frame("/topic/events", "sub-2", 0, "{\"eventId\":\"0\"}"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Nenhum frame novo: quem encerra é a verificação periódica
+        verify(client, timeout(5000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1.0, meterRegistry.get("bina.websocket.slow-consumer.closed").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void busySession_ShouldYieldWriterToOtherSessions() throws Exception {
+        writer.shutdownNow();
+        writer = Executors.newSingleThreadExecutor();
+        Runnable slowWrite = () -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        WebSocketSession busy = decorate(client(slowWrite), 512 * 1024);
+        WebSocketSession other = decorate(client(slowWrite), 512 * 1024);
+
+        for (int i = 0; i < 200; i++) {
+            busy.sendMessage(frame("/topic/events", "sub-2", i, "{\"eventId\":\"" + i + "\"}"));
+        }
+        other.sendMessage(frame("/topic/events", "sub-3", 1000, "{\"eventId\":\"1000\"}"));
+        awaitWritten(201);
+
+        // Com uma única thread de escrita, a outra sessão entra depois de poucos frames da sessão ocupada
+        int position = eventIdsInOrder().indexOf(1000);
+        assertTrue(position <= CoalescingWebSocketHandlerDecorator.MAX_FRAMES_PER_DRAIN * 2, "posição=" + position);
+    }
+
+    /**
+     * Rajada de 2000 notificações (lotes de 1) para um cliente que leva 2ms por
+     * frame. Com o buffer padrão o backlog cresce até desconectar; unindo os
+     * pendentes, o cliente recebe tudo em poucos frames.
+     */
+    @Test
+    void syntheticBurst_ShouldDeliverEverythingWithFewerFramesAndNoDisconnect() throws Exception {
+        int events = 2000;
+        int bufferLimit = 64 * 1024;
+        Runnable slowWrite = () -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+
+        // Buffer padrão do Spring (ConcurrentWebSocketSessionDecorator) direto na sessão lenta
+        WebSocketSession plain = new ConcurrentWebSocketSessionDecorator(client(slowWrite), 20000, bufferLimit);
+        BurstResult plainResult = burst(plain, events);
+        written.clear();
+
+        // Mesmo buffer, agora sobre o decorator de coalescência, como no stack STOMP
+        WebSocketSession coalescing = new ConcurrentWebSocketSessionDecorator(
+                decorate(client(slowWrite), bufferLimit), 20000, bufferLimit);
+        BurstResult coalescingResult = burst(coalescing, events);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (deliveredEvents() < events && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        int coalescingFrames = written.size();
+
+        System.out.printf("[CoalescingWebSocketHandlerDecoratorTest] events=%d plain: frames=%d disconnects=%d | "
+                + "coalescing: frames=%d (%.0f frames/s) delivered=%d disconnects=%d%n",
+                events, plainResult.framesWritten(), plainResult.disconnects(), coalescingFrames,
+                coalescingFrames / (coalescingResult.elapsedNanos() / 1e9), deliveredEvents(),
+                coalescingResult.disconnects());
+
+        assertEquals(1, plainResult.disconnects(), "buffer padrão deveria estourar com o cliente lento");
+        assertEquals(0, coalescingResult.disconnects());
+        assertEquals(events, deliveredEvents());
+        assertTrue(coalescingFrames < events / 2, "frames=" + coalescingFrames);
+    }
+
+    /**
+     * Envia pelas threads de um pool, como o canal de saída do STOMP: enquanto
+     * uma thread escreve, as demais deixam o frame no buffer da sessão
+     */
+    private BurstResult burst(WebSocketSession session, int events) throws Exception {
+        ExecutorService outbound = Executors.newFixedThreadPool(OUTBOUND_THREADS);
+        AtomicInteger disconnects = new AtomicInteger();
+        long startTime = System.nanoTime();
+        try {
+            for (int i = 0; i < events && disconnects.get() == 0; i++) {
+                TextMessage frame = batchFrame("sub-0", i, i);
+                outbound.execute(() -> {
+                    try {
+                        session.sendMessage(frame);
+                    } catch (SessionLimitExceededException e) {
+                        disconnects.compareAndSet(0, 1);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                // ~20 notificações por ms, bem acima do que o cliente consome
+                LockSupport.parkNanos(50_000);
+            }
+        } finally {
+            outbound.shutdown();
+            outbound.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        return new BurstResult(written.size(), disconnects.get(), System.nanoTime() - startTime);
+    }
+
+    private WebSocketSession decorate(WebSocketSession client, int maxPendingBytes) throws Exception {
+        return decorate(client, maxPendingBytes, SlowConsumerPolicy.DISCONNECT);
+    }
+
+    private WebSocketSession decorate(WebSocketSession client, int maxPendingBytes, SlowConsumerPolicy policy)
+            throws Exception {
+        return decorate(client, maxPendingBytes, policy, 20000);
+    }
+
+    private WebSocketSession decorate(WebSocketSession client, int maxPendingBytes, SlowConsumerPolicy policy,
+            long sendTimeLimitMs) throws Exception {
+        WebSocketHandler delegate = mock(WebSocketHandler.class);
+        CoalescingWebSocketHandlerDecorator decorator = new CoalescingWebSocketHandlerDecorator(delegate,
+                BATCH_TOPIC, maxPendingBytes, sendTimeLimitMs, policy, writer, watchdog, meterRegistry);
+        decorator.afterConnectionEstablished(client);
+        ArgumentCaptor<WebSocketSession> decorated = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(delegate).afterConnectionEstablished(decorated.capture());
+        return decorated.getValue();
+    }
+
+    private WebSocketSession client(Runnable onWrite) throws Exception {
+        WebSocketSession client = mock(WebSocketSession.class);
+        when(client.getId()).thenReturn("session-" + System.nanoTime());
+        when(client.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            onWrite.run();
+            written.add(((WebSocketMessage<?>) invocation.getArgument(0)).getPayload().toString());
+            return null;
+        }).when(client).sendMessage(any());
+        return client;
+    }
+
+    private static TextMessage batchFrame(String subscription, int messageId, int eventId) {
+        return frame(BATCH_TOPIC, subscription, messageId,
+                "[{\"eventId\":\"" + eventId + "\",\"eventTitle\":\"Chamada recebida\",\"deviceId\":\"device-1\"}]");
+    }
+
+    private static TextMessage frame(String destination, String subscription, int messageId, String body) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId(subscription);
+        accessor.setMessageId("m-" + messageId);
+        accessor.setNativeHeader(NotificationService.SEQUENCE_HEADER, String.valueOf(messageId + 1));
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        byte[] encoded = new StompEncoder().encode(accessor.getMessageHeaders(),
+                body.getBytes(StandardCharsets.UTF_8));
+        return new TextMessage(encoded);
+    }
+
+    private static List<Integer> eventIds(String frame) {
+        List<Integer> ids = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(frame);
+        while (matcher.find()) {
+            ids.add(Integer.valueOf(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private List<Integer> eventIdsInOrder() {
+        synchronized (written) {
+            return written.stream().flatMap(frame -> eventIds(frame).stream()).toList();
+        }
+    }
+
+    private int deliveredEvents() {
+        synchronized (written) {
+            return written.stream().mapToInt(frame -> eventIds(frame).size()).sum();
+        }
+    }
+
+    private void awaitWritten(int frames) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (written.size() < frames && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(frames, written.size());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record BurstResult(int framesWritten, int disconnects, long elapsedNanos) {
+    }
+}
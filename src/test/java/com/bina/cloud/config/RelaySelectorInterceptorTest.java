@@ -0,0 +1,95 @@
+package com.bina.cloud.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Modo relay: o selector sai do SUBSCRIBE enviado ao broker externo e filtra
+ * os frames MESSAGE que voltam
+ */
+class RelaySelectorInterceptorTest {
+
+    private static final String SESSION = "session-1";
+    private static final String DEVICE_TOPIC = "/topic/events/device/052ad7f7b6ee816b";
+
+    private final RelaySelectorInterceptor interceptor = new RelaySelectorInterceptor();
+
+    @Test
+    void subscribeWithSelector_ShouldStripHeaderAndFilterMessages() {
+        Message<?> relayed = interceptor.onInbound(subscribe("sub-0", "headers.eventType == 'CALL_MISSED'"));
+
+        assertNull(StompHeaderAccessor.wrap(relayed).getFirstNativeHeader(RelaySelectorInterceptor.SELECTOR_HEADER));
+        assertEquals(1, interceptor.subscriptionsWithSelector());
+        assertTrue(interceptor.accepts(message("sub-0", "CALL_MISSED")));
+        assertFalse(interceptor.accepts(message("sub-0", "CALL_RECEIVED")));
+        assertFalse(interceptor.accepts(message("sub-0", null)));
+    }
+
+    @Test
+    void subscriptionWithoutSelector_ShouldReceiveEverything() {
+        interceptor.onInbound(subscribe("sub-0", "headers.eventType == 'CALL_MISSED'"));
+        Message<?> plain = subscribe("sub-1", null);
+
+        assertSame(plain, interceptor.onInbound(plain));
+        assertTrue(interceptor.accepts(message("sub-1", "CALL_RECEIVED")));
+    }
+
+    @Test
+    void unsubscribeAndDisconnect_ShouldForgetSelectors() {
+        interceptor.onInbound(subscribe("sub-0", "headers.eventType == 'CALL_MISSED'"));
+        interceptor.onInbound(subscribe("sub-1", "headers.eventType == 'CALL_MISSED'"));
+
+        interceptor.onInbound(frame(StompCommand.UNSUBSCRIBE, "sub-0"));
+        assertEquals(1, interceptor.subscriptionsWithSelector());
+
+        interceptor.onInbound(frame(StompCommand.DISCONNECT, null));
+        assertEquals(0, interceptor.subscriptionsWithSelector());
+    }
+
+    @Test
+    void invalidSelector_ShouldBeIgnored() {
+        interceptor.onInbound(subscribe("sub-0", "headers.eventType =="));
+
+        assertEquals(0, interceptor.subscriptionsWithSelector());
+        assertTrue(interceptor.accepts(message("sub-0", "CALL_RECEIVED")));
+    }
+
+    private static Message<byte[]> subscribe(String subscriptionId, String selector) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(SESSION);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(DEVICE_TOPIC);
+        if (selector != null) {
+            accessor.setNativeHeader(RelaySelectorInterceptor.SELECTOR_HEADER, selector);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String subscriptionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(SESSION);
+        if (subscriptionId != null) {
+            accessor.setSubscriptionId(subscriptionId);
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    /**
+     * Frame MESSAGE como o relay entrega vindo do broker externo
+     */
+    private static Message<byte[]> message(String subscriptionId, String eventType) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setSessionId(SESSION);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(DEVICE_TOPIC);
+        if (eventType != null) {
+            accessor.setNativeHeader("eventType", eventType);
+        }
+        return MessageBuilder.createMessage("{}".getBytes(), accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,93 @@
+package com.bina.cloud.controller;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Com bina.store.engine=segment-log nada vai para a tabela eventos: a listagem
+ * lê o log, as consultas SQL respondem 501 e os ids do log começam depois dos
+ * já usados pela tabela
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EventoControllerSegmentLogTest {
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void segmentLog(DynamicPropertyRegistry registry) {
+        registry.add("bina.store.engine", () -> "segment-log");
+        registry.add("bina.store.segment-log.dir", () -> directory.toString());
+        registry.add("bina.store.segment-log.fsync", () -> "false");
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:segmentlog;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void segmentLog_ShouldServeListingFromLogAndRefuseSqlQueries() throws Exception {
+        String response = mockMvc.perform(post("/api/eventos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(evento())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode created = objectMapper.readTree(response);
+        long id = created.get("id").asLong();
+
+        assertEquals(0, eventoRepository.count());
+        // O log vazio tomou o valor seguinte de evento_sequence: acima dos ids da tabela e do arquivo
+        assertEquals(id + 50, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR evento_sequence", Long.class));
+
+        mockMvc.perform(get("/api/eventos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is((int) id)));
+        mockMvc.perform(get("/api/eventos/page").param("eventType", "CALL_RECEIVED"))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.message", containsString("segment-log")));
+        mockMvc.perform(get("/api/eventos/export"))
+                .andExpect(status().isNotImplemented());
+    }
+
+    private static Evento evento() {
+        Evento evento = new Evento();
+        evento.setDescription("Chamada recebida");
+        evento.setDeviceId("052ad7f7b6ee816b");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+        return evento;
+    }
+}
@@ -2,6 +2,7 @@ package com.bina.cloud.controller;
 
 import com.bina.cloud.model.Evento;
 import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.PhoneStatsRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,10 +12,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,9 +39,13 @@ class EventoControllerTest {
     @Autowired
     private EventoRepository eventoRepository;
 
+    @Autowired
+    private PhoneStatsRepository phoneStatsRepository;
+
     @BeforeEach
     void setUp() {
         eventoRepository.deleteAll();
+        phoneStatsRepository.deleteAll();
     }
 
     private Evento createTestEvento() {
@@ -189,6 +200,23 @@ class EventoControllerTest {
                 .andExpect(jsonPath("$[0].description", is("Test Event")));
     }
 
+    @Test
+    void getAllEventos_ShouldReturnOnlyMostRecentUpToLimit() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            Evento evento = createTestEvento();
+            evento.setDescription("Evento " + i);
+            evento.setTimestamp(now.minusMinutes(3 - i));
+            eventoRepository.save(evento);
+        }
+
+        mockMvc.perform(get("/api/eventos").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].description", is("Evento 2")))
+                .andExpect(jsonPath("$[1].description", is("Evento 1")));
+    }
+
     @Test
     void getEventoById_ShouldReturnEvento_WhenEventoExists() throws Exception {
         Evento evento = createTestEvento();
@@ -206,4 +234,263 @@ class EventoControllerTest {
         mockMvc.perform(get("/api/eventos/{id}", 999L))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getEventosPage_ShouldWalkAllPagesWithCursor() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            Evento evento = createTestEvento();
+            evento.setDescription("Evento " + i);
+            evento.setTimestamp(base.plusMinutes(i));
+            eventoRepository.save(evento);
+        }
+
+        MvcResult first = mockMvc.perform(get("/api/eventos/page").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].description", is("Evento 4")))
+                .andExpect(jsonPath("$.items[1].description", is("Evento 3")))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn();
+        String next = objectMapper.readTree(first.getResponse().getContentAsString()).get("next").asText();
+
+        MvcResult second = mockMvc.perform(get("/api/eventos/page").param("limit", "2").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].description", is("Evento 2")))
+                .andExpect(jsonPath("$.items[1].description", is("Evento 1")))
+                .andReturn();
+        next = objectMapper.readTree(second.getResponse().getContentAsString()).get("next").asText();
+
+        mockMvc.perform(get("/api/eventos/page").param("limit", "2").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].description", is("Evento 0")))
+                .andExpect(jsonPath("$.next", nullValue()));
+    }
+
+    @Test
+    void getEventosPage_ShouldApplyFilters() throws Exception {
+        Evento received = createTestEvento();
+        received.setEventType("CALL_RECEIVED");
+        received.setTimestamp(LocalDateTime.of(2025, 6, 24, 20, 0, 0));
+        eventoRepository.save(received);
+        Evento missed = createTestEvento();
+        missed.setEventType("CALL_MISSED");
+        missed.setDeviceId("test-device-002");
+        missed.setTimestamp(LocalDateTime.of(2025, 6, 25, 20, 0, 0));
+        eventoRepository.save(missed);
+
+        mockMvc.perform(get("/api/eventos/page").param("eventType", "CALL_MISSED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].deviceId", is("test-device-002")));
+
+        mockMvc.perform(get("/api/eventos/page").param("to", "2025-06-25T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].eventType", is("CALL_RECEIVED")));
+    }
+
+    @Test
+    void getEventosPage_InvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/eventos/page").param("cursor", "invalido"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportEventos_ShouldStreamOneJsonPerLine() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Evento evento = createTestEvento();
+            evento.setDescription("Evento " + i);
+            evento.setTimestamp(LocalDateTime.of(2025, 6, 24, 20, i, 0));
+            eventoRepository.save(evento);
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/eventos/export").param("deviceId", "test-device-001"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        JsonNode newest = objectMapper.readTree(lines[0]);
+        assertEquals("Evento 2", newest.get("description").asText());
+        assertEquals("2025-06-24T20:02:00", newest.get("timestamp").asText());
+    }
+
+    @Test
+    void createEventosBatch_JsonArray_ShouldKeepTimestampsAndReportEachItem() throws Exception {
+        String body = """
+                [
+                  {"description":"Chamada perdida","deviceId":"device-offline","eventType":"CALL_MISSED",
+                   "timestamp":"2025-06-24T22:59:59","additionalData":"{\\"numero\\":\\"061981122752\\"}"},
+                  {"description":"Sem horário","deviceId":"device-offline","eventType":"CALL_RECEIVED"},
+                  {"description":"Futuro","deviceId":"device-offline","eventType":"CALL_RECEIVED",
+                   "timestamp":"2999-01-01T00:00:00"}
+                ]
+                """;
+
+        mockMvc.perform(post("/api/eventos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.persisted", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.items[0].status", is("PERSISTED")))
+                .andExpect(jsonPath("$.items[0].id", notNullValue()))
+                .andExpect(jsonPath("$.items[1].status", is("PERSISTED")))
+                .andExpect(jsonPath("$.items[2].status", is("FAILED")))
+                .andExpect(jsonPath("$.items[2].error", containsString("futuro")));
+
+        Evento historico = eventoRepository.findAll().stream()
+                .filter(evento -> "CALL_MISSED".equals(evento.getEventType()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(LocalDateTime.of(2025, 6, 24, 22, 59, 59), historico.getTimestamp());
+        assertEquals("61981122752", historico.getPhoneNumber());
+        assertEquals(2, eventoRepository.count());
+    }
+
+    @Test
+    void createEventosBatch_Ndjson_ShouldFailOnlyUnreadableItem() throws Exception {
+        String body = """
+                {"description":"Evento 0","deviceId":"device-offline","eventType":"CALL_RECEIVED"}
+                {"description":"Evento 1","deviceId":"device-offline","timestamp":"ontem"}
+                {"description":"Evento 2","deviceId":"device-offline","eventType":"CALL_RECEIVED"}
+                """;
+
+        mockMvc.perform(post("/api/eventos/batch")
+                .contentType("application/x-ndjson")
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.persisted", is(2)))
+                .andExpect(jsonPath("$.items[1].index", is(1)))
+                .andExpect(jsonPath("$.items[1].status", is("FAILED")))
+                .andExpect(jsonPath("$.items[2].status", is("PERSISTED")));
+
+        assertEquals(2, eventoRepository.count());
+    }
+
+    @Test
+    void createEvento_RetryWithSameIdempotencyKey_ShouldReturnOriginalEvento() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        String body = objectMapper.writeValueAsString(createTestEvento());
+
+        MvcResult first = mockMvc.perform(post("/api/eventos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(EventoController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientEventId", is(idempotencyKey)))
+                .andReturn();
+        long id = objectMapper.readTree(first.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(post("/api/eventos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(EventoController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is((int) id)));
+
+        assertEquals(1, eventoRepository.count());
+    }
+
+    @Test
+    void createEvento_IdempotencyKeyTooLong_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/eventos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(EventoController.IDEMPOTENCY_KEY_HEADER, "k".repeat(65))
+                .content(objectMapper.writeValueAsString(createTestEvento())))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, eventoRepository.count());
+    }
+
+    @Test
+    void createEventosBatch_RepeatedClientEventIds_ShouldReportDuplicates() throws Exception {
+        String sent = UUID.randomUUID().toString();
+        String repeated = UUID.randomUUID().toString();
+        Evento evento = createTestEvento();
+        evento.setClientEventId(sent);
+        MvcResult single = mockMvc.perform(post("/api/eventos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(evento)))
+                .andExpect(status().isOk())
+                .andReturn();
+        long sentId = objectMapper.readTree(single.getResponse().getContentAsString()).get("id").asLong();
+
+        String body = String.join("\n",
+                "{\"deviceId\":\"test-device-001\",\"eventType\":\"TEST\",\"clientEventId\":\"" + sent + "\"}",
+                "{\"deviceId\":\"test-device-001\",\"eventType\":\"TEST\",\"clientEventId\":\"" + repeated + "\"}",
+                "{\"deviceId\":\"test-device-001\",\"eventType\":\"TEST\",\"clientEventId\":\"" + repeated + "\"}");
+
+        mockMvc.perform(post("/api/eventos/batch")
+                .contentType("application/x-ndjson")
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.persisted", is(1)))
+                .andExpect(jsonPath("$.duplicates", is(2)))
+                .andExpect(jsonPath("$.failed", is(0)))
+                .andExpect(jsonPath("$.items[0].status", is("DUPLICATE")))
+                .andExpect(jsonPath("$.items[0].id", is((int) sentId)))
+                .andExpect(jsonPath("$.items[1].status", is("PERSISTED")))
+                .andExpect(jsonPath("$.items[2].status", is("DUPLICATE")));
+
+        assertEquals(2, eventoRepository.count());
+    }
+
+    @Test
+    void getHistoricoTelefone_ShouldReturnEventsOfPhoneMostRecentFirst() throws Exception {
+        for (String data : new String[] { "{\"numero\":\"061981122752\"}", "{\"numero\":\"061999990000\"}",
+                "{\"numero\":\"061981122752\"}" }) {
+            Evento evento = createTestEvento();
+            evento.setEventType("CALL_RECEIVED");
+            evento.setAdditionalData(data);
+            mockMvc.perform(post("/api/eventos")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(evento)))
+                    .andExpect(status().isOk());
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/eventos/phone/61981122752"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].phoneNumber", everyItem(is("61981122752"))))
+                .andReturn();
+        JsonNode eventos = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertTrue(eventos.get(0).get("id").asLong() > eventos.get(1).get("id").asLong());
+    }
+
+    @Test
+    void getPhoneStats_ShouldReturnStatsUpdatedOnIngest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Evento evento = createTestEvento();
+            evento.setEventType("CALL_RECEIVED");
+            evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+            mockMvc.perform(post("/api/eventos")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(evento)))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/phones/61981122752/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phoneNumber", is("61981122752")))
+                .andExpect(jsonPath("$.callCount", is(3)))
+                .andExpect(jsonPath("$.callsToday", is(3)))
+                .andExpect(jsonPath("$.callsThisWeek", is(3)))
+                .andExpect(jsonPath("$.lastCall", notNullValue()))
+                .andExpect(jsonPath("$.minIntervalSeconds", notNullValue()));
+
+        mockMvc.perform(get("/api/phones/61900000000/stats"))
+                .andExpect(status().isNotFound());
+    }
+}
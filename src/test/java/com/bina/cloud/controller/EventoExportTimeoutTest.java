@@ -0,0 +1,74 @@
+package com.bina.cloud.controller;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.service.EventoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Exportação mais lenta que o limite assíncrono padrão do conector (reduzido
+ * aqui para 1s) chega inteira: o limite vem de spring.mvc.async.request-timeout
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class EventoExportTimeoutTest {
+
+    private static final int ROWS = 6;
+    private static final long ROW_DELAY_MS = 400;
+
+    @TestConfiguration
+    static class ShortConnectorTimeout {
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> shortAsyncTimeout() {
+            return factory -> factory.addConnectorCustomizers(connector -> connector.setAsyncTimeout(1000));
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private EventoService eventoService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportSlowerThanConnectorTimeout_ShouldStreamEveryRow() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Evento> consumer = invocation.getArgument(1);
+            for (int i = 0; i < ROWS; i++) {
+                Thread.sleep(ROW_DELAY_MS);
+                Evento evento = new Evento();
+                evento.setId((long) i);
+                evento.setDescription("Evento " + i);
+                evento.setTimestamp(LocalDateTime.of(2025, 6, 24, 20, i, 0));
+                consumer.accept(evento);
+            }
+            return null;
+        }).when(eventoService).exportarEventos(any(), any(Consumer.class));
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/eventos/export")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(ROWS, response.body().lines().count());
+    }
+}
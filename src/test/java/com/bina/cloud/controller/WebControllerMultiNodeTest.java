@@ -0,0 +1,70 @@
+package com.bina.cloud.controller;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.service.EventoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Com vários nós o ETag de /eventos não pode vir do buffer deste nó: um
+ * evento gravado por outro nó (aqui, direto no banco) precisa invalidar a
+ * versão que o navegador guardou
+ */
+@SpringBootTest(properties = "bina.notification.bus=in-jvm")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WebControllerMultiNodeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EventoService eventoService;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Test
+    void eventos_ShouldSeeEventsWrittenByOtherNodes() throws Exception {
+        eventoService.criarEvento(evento("Chamada neste nó"));
+
+        String etag = mockMvc.perform(get("/eventos"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Chamada neste nó")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/eventos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Gravado por outro nó: não passa por criarEvento deste
+        eventoRepository.save(evento("Chamada em outro nó"));
+
+        String newEtag = mockMvc.perform(get("/eventos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Chamada em outro nó")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    private static Evento evento(String description) {
+        Evento evento = new Evento();
+        evento.setDescription(description);
+        evento.setDeviceId("web-device-002");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+        return evento;
+    }
+}
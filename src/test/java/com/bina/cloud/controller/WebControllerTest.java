@@ -0,0 +1,62 @@
+package com.bina.cloud.controller;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.service.EventoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WebControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EventoService eventoService;
+
+    @Test
+    void eventos_ShouldAnswerNotModifiedUntilANewEventArrives() throws Exception {
+        eventoService.criarEvento(evento("Chamada antes"));
+
+        String etag = mockMvc.perform(get("/eventos"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(content().string(containsString("Chamada antes")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/eventos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        eventoService.criarEvento(evento("Chamada depois"));
+
+        String newEtag = mockMvc.perform(get("/eventos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Chamada depois")))
+                .andExpect(content().string(containsString("Chamada antes")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    private static Evento evento(String description) {
+        Evento evento = new Evento();
+        evento.setDescription(description);
+        evento.setDeviceId("web-device-001");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+        return evento;
+    }
+}
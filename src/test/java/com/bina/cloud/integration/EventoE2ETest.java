@@ -3,6 +3,7 @@ package com.bina.cloud.integration;
 import com.bina.cloud.model.Evento;
 import com.bina.cloud.repository.EventoRepository;
 import com.bina.cloud.service.EventoService;
+import com.bina.cloud.service.NotificationReplayLog;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ import org.springframework.web.socket.sockjs.client.WebSocketTransport;
 
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -50,6 +52,9 @@ class EventoE2ETest {
     @Autowired
     private EventoService eventoService;
 
+    @Autowired
+    private NotificationReplayLog replayLog;
+
     private WebSocketStompClient stompClient;
     private CompletableFuture<String> notificationFuture;
 
@@ -154,6 +159,51 @@ class EventoE2ETest {
         assertEquals(3, eventoRepository.count());
     }
 
+    @Test
+    void reconnect_ShouldReplayOnlyEventsMissedWhileDisconnected() throws Exception {
+        // Arrange - Último seq recebido antes da queda e eventos entregues sem o cliente conectado
+        sendEventViaRest(createEvento("CALL_RECEIVED", "061981122752"));
+        long lastSeq = replayLog.latestSeq();
+        sendEventViaRest(createEvento("CALL_MISSED", "11987654321"));
+        sendEventViaRest(createEvento("CALL_ANSWERED", "21999887766"));
+
+        // Act - Reconectar pedindo o que veio depois do último seq
+        StompSession session = connectToWebSocket();
+        Map<String, Object> replay = requestReplay(session, lastSeq, replayLog.epoch());
+        Map<String, Object> resync = requestReplay(session, lastSeq, "outra-execucao");
+
+        // Assert - Só o intervalo perdido, na ordem
+        assertEquals("OK", replay.get("status"));
+        List<?> notifications = (List<?>) replay.get("notifications");
+        assertEquals(2, notifications.size());
+        Map<?, ?> first = (Map<?, ?>) notifications.get(0);
+        assertEquals(lastSeq + 1, ((Number) first.get("seq")).longValue());
+        assertEquals("CALL_MISSED", ((Map<?, ?>) first.get("notification")).get("eventType"));
+        assertEquals("RESYNC", resync.get("status"));
+        session.disconnect();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> requestReplay(StompSession session, long since, String epoch) throws Exception {
+        CompletableFuture<Map<String, Object>> reply = new CompletableFuture<>();
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/app/events/replay");
+        headers.add("since", String.valueOf(since));
+        headers.add("epoch", epoch);
+        session.subscribe(headers, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                reply.complete((Map<String, Object>) payload);
+            }
+        });
+        return reply.get(5, TimeUnit.SECONDS);
+    }
+
     private StompSession connectToWebSocket() throws ExecutionException, InterruptedException, TimeoutException {
         return stompClient.connect(
                 "ws://localhost:" + port + "/ws",
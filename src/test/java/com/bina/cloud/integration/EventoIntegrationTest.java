@@ -3,23 +3,30 @@ package com.bina.cloud.integration;
 import com.bina.cloud.model.Evento;
 import com.bina.cloud.repository.EventoRepository;
 import com.bina.cloud.service.EventoService;
-import com.bina.cloud.service.NotificationService;
+import com.bina.cloud.config.CacheConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -45,6 +52,12 @@ class EventoIntegrationTest {
         @Autowired
         private EventoService eventoService;
 
+        @Autowired
+        private CacheManager cacheManager;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
         @MockBean
         private SimpMessagingTemplate messagingTemplate;
 
@@ -84,8 +97,7 @@ class EventoIntegrationTest {
                 assert eventoRepository.findById(savedEvento.getId()).isPresent();
 
                 // Verificar que a notificação foi enviada via WebSocket
-                verify(messagingTemplate).convertAndSend(eq("/topic/events"),
-                                any(NotificationService.EventNotification.class));
+                verify(messagingTemplate).send(eq("/topic/events"), any(Message.class));
         }
 
         @Test
@@ -203,4 +215,74 @@ class EventoIntegrationTest {
                                 .andExpect(jsonPath("$.phoneNumber", is("61981122752"))); // Leading zero should be
                                                                                           // removed
         }
-}
\ No newline at end of file
+
+        @Test
+        void getById_SecondRequest_ShouldBeServedFromCache() throws Exception {
+                // Arrange
+                Evento evento = new Evento();
+                evento.setDescription("Chamada recebida");
+                evento.setDeviceId("cache-device");
+                evento.setEventType("CALL_RECEIVED");
+                evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+                Long id = eventoService.criarEvento(evento).getId();
+                double hitsBefore = cacheGets("hit");
+
+                // Act
+                mockMvc.perform(get("/api/eventos/{id}", id)).andExpect(status().isOk());
+                mockMvc.perform(get("/api/eventos/{id}", id))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.deviceId").value("cache-device"));
+
+                // Assert
+                assertEquals(hitsBefore + 1, cacheGets("hit"));
+                assertNotNull(cacheManager.getCache(CacheConfig.EVENTOS_CACHE).get(id));
+        }
+
+        @Test
+        void ultimosEventos_ShouldIncludeEventJustCreatedWithoutDatabase() {
+                // Arrange
+                Evento evento = new Evento();
+                evento.setDescription("Recente");
+                evento.setDeviceId("recent-device");
+                evento.setEventType("CALL_RECEIVED");
+                evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+
+                // Act
+                Long id = eventoService.criarEvento(evento).getId();
+
+                // Assert
+                assertEquals(id, eventoService.getUltimosEventos(1).get(0).getId());
+                assertTrue(meterRegistry.get("bina.recent-events.requests").tag("result", "hit").counter()
+                                .count() > 0);
+        }
+
+        private double cacheGets(String result) {
+                return meterRegistry.get("cache.gets").tag("cache", CacheConfig.EVENTOS_CACHE).tag("result", result)
+                                .functionCounter().count();
+        }
+
+        @Test
+        void metrics_ShouldTimeIngestPersistAndPageRenderStages() throws Exception {
+                Evento evento = new Evento();
+                evento.setDescription("Chamada recebida");
+                evento.setDeviceId("metrics-device");
+                evento.setEventType("CALL_METRICS");
+                evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+
+                mockMvc.perform(post("/api/eventos")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(evento)))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/monitor")).andExpect(status().isOk());
+
+                assertEquals(1, meterRegistry.get("bina.eventos.ingest")
+                                .tag("eventType", "CALL_METRICS")
+                                .tag("deviceId", "metrics-device")
+                                .tag("result", "ok")
+                                .timer().count());
+                assertEquals(1, meterRegistry.get("bina.eventos.persist")
+                                .tag("eventType", "CALL_METRICS")
+                                .timer().count());
+                assertTrue(meterRegistry.get("bina.web.page.render").tag("page", "monitor").timer().count() >= 1);
+        }
+}
@@ -0,0 +1,137 @@
+package com.bina.cloud.integration;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Comparação de carga do POST /api/eventos com threads de plataforma (config
+ * padrão) e com o perfil "virtual". Desabilitado por padrão; executar com
+ * Java 21:
+ *
+ * <pre>
+ * mvn -Pjava21 test -Dtest=EventoLoadComparisonTest -Dbina.loadtest=true \
+ *     [-Dbina.loadtest.clients=50,500,5000] [-Dbina.loadtest.duration-seconds=10]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "bina.loadtest", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class EventoLoadComparisonTest {
+
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final int WARMUP_CLIENTS = 20;
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        List<Integer> levels = Arrays.stream(System.getProperty("bina.loadtest.clients", "50,500,5000").split(","))
+                .map(String::trim).map(Integer::valueOf).toList();
+        Duration duration = Duration.ofSeconds(Long.getLong("bina.loadtest.duration-seconds", 10));
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %8s %10s %9s %9s %9s %8s", "mode", "clients", "req/s", "p50(ms)",
+                "p99(ms)", "max(ms)", "errors"));
+        for (String mode : List.of("platform", "virtual")) {
+            try (ConfigurableApplicationContext context = startServer(mode)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                run(port, WARMUP_CLIENTS, WARMUP);
+                for (int clients : levels) {
+                    report.add(String.format("%-9s %8d %s", mode, clients, run(port, clients, duration)));
+                }
+            }
+        }
+        System.out.println(String.join(System.lineSeparator(), report));
+    }
+
+    private static ConfigurableApplicationContext startServer(String mode) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bina.cloud=WARN"));
+        if ("virtual".equals(mode)) {
+            args.add("--spring.profiles.active=virtual");
+        }
+        return new SpringApplicationBuilder(BinaCloudServerApplication.class).run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Cada cliente posta em laço (um request por vez) até o fim da janela
+     */
+    private static String run(int port, int clients, Duration duration) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        URI uri = URI.create("http://localhost:" + port + "/api/eventos");
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("load-client-");
+
+        long startTime = System.nanoTime();
+        long deadline = startTime + duration.toNanos();
+        for (int c = 0; c < clients; c++) {
+            String body = String.format("{\"description\":\"Chamada recebida\",\"deviceId\":\"load-%d\","
+                    + "\"eventType\":\"CALL_RECEIVED\",\"additionalData\":\"{\\\"numero\\\":\\\"0619%08d\\\"}\"}",
+                    c % 64, c);
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request,
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 300) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - requestStart);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return "sem respostas";
+        }
+        return String.format("%10.1f %9.2f %9.2f %9.2f %8d", sorted.length / elapsedSeconds,
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6,
+                errors.get());
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,90 @@
+package com.bina.cloud.integration;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.service.EventoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Banco em arquivo criado pela versão com allocationSize = 1 (sequência com
+ * INCREMENT BY 1 e eventos já gravados): depois da subida os novos ids não
+ * podem repetir os existentes
+ */
+class EventoSequenceUpgradeTest {
+
+    private static final int LEGACY_ROWS = 120;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void upgradeFromIncrementByOne_ShouldNotReuseExistingIds() throws Exception {
+        String url = "jdbc:h2:file:" + directory.resolve("eventosdb");
+        createLegacyDatabase(url);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BinaCloudServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + url + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.com.bina.cloud=WARN",
+                        "--bina.phone-stats.rebuild.on-startup=false")) {
+            EventoService eventoService = context.getBean(EventoService.class);
+            Set<Long> ids = new HashSet<>();
+            // Mais de um bloco de 50 ids
+            for (int i = 0; i < 120; i++) {
+                Evento evento = new Evento();
+                evento.setDescription("Chamada recebida");
+                evento.setDeviceId("device-upgrade");
+                evento.setEventType("CALL_RECEIVED");
+                evento.setPhoneNumber("61981120000");
+                evento.setTimestamp(LocalDateTime.now());
+                Long id = eventoService.criarEvento(evento).getId();
+                assertTrue(id > LEGACY_ROWS, "id " + id + " já usado pela versão anterior");
+                ids.add(id);
+            }
+            assertEquals(120, ids.size());
+        }
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "password");
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*), COUNT(DISTINCT id) FROM eventos")) {
+            rs.next();
+            assertEquals(LEGACY_ROWS + 120, rs.getInt(1));
+            assertEquals(LEGACY_ROWS + 120, rs.getInt(2));
+        }
+    }
+
+    private static void createLegacyDatabase(String url) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "password");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SEQUENCE evento_sequence START WITH 1 INCREMENT BY 1");
+            statement.execute("CREATE TABLE eventos (id BIGINT NOT NULL PRIMARY KEY, description VARCHAR(255), "
+                    + "timestamp TIMESTAMP, device_id VARCHAR(255), event_type VARCHAR(255), "
+                    + "additional_data VARCHAR(255), phone_number VARCHAR(20), "
+                    // Discriminador exigido pelo TestEvento do classpath de testes
+                    + "dtype VARCHAR(31) DEFAULT 'Evento' NOT NULL)");
+            for (int i = 0; i < LEGACY_ROWS; i++) {
+                statement.execute("INSERT INTO eventos (id, description, timestamp, device_id, event_type, phone_number) "
+                        + "VALUES (NEXT VALUE FOR evento_sequence, 'Chamada recebida', CURRENT_TIMESTAMP, "
+                        + "'device-legacy', 'CALL_RECEIVED', '61981110000')");
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.bina.cloud.integration;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.service.EventoService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dois nós da aplicação na mesma JVM ligados pelo barramento in-jvm: um
+ * evento criado em um nó chega aos clientes WebSocket do outro
+ */
+class NotificationBusMultiNodeTest {
+
+    private static final int EVENTS = 200;
+    private static final String PROBE = "probe";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void eventCreatedOnOneNode_ShouldReachSubscribersOfEveryNode() throws Exception {
+        Map<String, Long> sentAt = new ConcurrentHashMap<>();
+        List<Long> latenciesNanos = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch receivedOnA = new CountDownLatch(EVENTS);
+        CountDownLatch receivedOnB = new CountDownLatch(EVENTS);
+
+        StompSession sessionA = subscribe(nodeA, payload -> receivedOnA.countDown());
+        StompSession sessionB = subscribe(nodeB, payload -> {
+            Long start = sentAt.get(String.valueOf(payload.get("eventTitle")));
+            if (start != null) {
+                latenciesNanos.add(System.nanoTime() - start);
+            }
+            receivedOnB.countDown();
+        });
+
+        EventoService eventoServiceA = nodeA.getBean(EventoService.class);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            String title = "multi-node-" + i;
+            sentAt.put(title, System.nanoTime());
+            eventoServiceA.criarEvento(evento(title));
+        }
+
+        assertTrue(receivedOnB.await(30, TimeUnit.SECONDS), "nó B não recebeu todos os eventos");
+        long elapsedNanos = System.nanoTime() - startTime;
+        assertTrue(receivedOnA.await(30, TimeUnit.SECONDS), "nó A não recebeu todos os eventos");
+        assertEquals(EVENTS, latenciesNanos.size());
+
+        List<Long> sorted = new ArrayList<>(latenciesNanos);
+        Collections.sort(sorted);
+        System.out.printf("[NotificationBusMultiNodeTest] events=%d throughput=%.1f events/s "
+                + "latency p50=%.2fms p99=%.2fms max=%.2fms%n",
+                EVENTS, EVENTS / (elapsedNanos / 1e9),
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted.get(sorted.size() - 1) / 1e6);
+
+        sessionA.disconnect();
+        sessionB.disconnect();
+    }
+
+    private static ConfigurableApplicationContext startNode(String name) {
+        return new SpringApplicationBuilder(BinaCloudServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.com.bina.cloud=WARN",
+                        "--bina.notification.bus=in-jvm");
+    }
+
+    private static StompSession subscribe(ConfigurableApplicationContext node, PayloadHandler handler)
+            throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws",
+                new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+
+        CountDownLatch subscribed = new CountDownLatch(1);
+        session.subscribe("/topic/events", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders stompHeaders) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders stompHeaders, Object payload) {
+                Map<String, Object> notification = (Map<String, Object>) payload;
+                if (PROBE.equals(notification.get("eventTitle"))) {
+                    subscribed.countDown();
+                } else {
+                    handler.handle(notification);
+                }
+            }
+        });
+
+        // O broker simples não confirma SUBSCRIBE; publica sondas locais até a assinatura valer
+        SimpMessagingTemplate messagingTemplate = node.getBean(SimpMessagingTemplate.class);
+        for (int attempt = 0; attempt < 100 && subscribed.getCount() > 0; attempt++) {
+            messagingTemplate.convertAndSend("/topic/events", Map.of("eventTitle", PROBE));
+            subscribed.await(100, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(0, subscribed.getCount(), "assinatura não registrada no broker");
+        return session;
+    }
+
+    private static Evento evento(String title) {
+        Evento evento = new Evento();
+        evento.setDescription(title);
+        evento.setDeviceId("multi-node-device");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setAdditionalData("{\"numero\":\"061981122752\",\"data\":\"24/06/2025 20:00:00\"}");
+        return evento;
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    @FunctionalInterface
+    private interface PayloadHandler {
+        void handle(Map<String, Object> payload);
+    }
+}
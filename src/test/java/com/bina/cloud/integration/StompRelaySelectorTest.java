@@ -0,0 +1,271 @@
+package com.bina.cloud.integration;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import com.bina.cloud.service.NotificationService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Modo relay (bina.websocket.relay.enabled) contra um broker STOMP mínimo em
+ * memória que não entende selector: o filtro da assinatura continua valendo
+ * porque é avaliado no nó
+ */
+class StompRelaySelectorTest {
+
+    private static final String DEVICE_ID = "052ad7f7b6ee816b";
+
+    private static FakeStompBroker broker;
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() throws IOException {
+        broker = new FakeStompBroker();
+        context = new SpringApplicationBuilder(BinaCloudServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:relay;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.com.bina.cloud=WARN",
+                        "--bina.notification.replay.enabled=false",
+                        "--bina.websocket.relay.enabled=true",
+                        "--bina.websocket.relay.port=" + broker.port());
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        context.close();
+        broker.close();
+    }
+
+    @Test
+    void selectorSubscription_ShouldOnlyReceiveMatchingEventsThroughRelay() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws",
+                new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/topic/events/device/" + DEVICE_ID);
+        headers.add("selector", "headers.eventType == 'CALL_MISSED'");
+        session.subscribe(headers, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders stompHeaders) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders stompHeaders, Object payload) {
+                received.add(String.valueOf(((Map<?, ?>) payload).get("eventType")));
+            }
+        });
+        Map<String, String> subscribe = broker.awaitSubscription("/topic/events/device/" + DEVICE_ID);
+        assertFalse(subscribe.containsKey("selector"), "selector não deve chegar ao broker externo");
+
+        NotificationService notificationService = context.getBean(NotificationService.class);
+        notificationService.notifyNewEvent("1", "Chamada recebida", "CALL_RECEIVED", DEVICE_ID,
+                "2025-06-24T20:00:00", "{}");
+        notificationService.notifyNewEvent("2", "Chamada perdida", "CALL_MISSED", DEVICE_ID,
+                "2025-06-24T20:00:01", "{}");
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((broker.delivered() < 2 || received.isEmpty()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        // Os frames saem do canal de saída em threads diferentes: margem para o CALL_RECEIVED chegar se passasse
+        Thread.sleep(500);
+        assertEquals(2, broker.delivered(), "o broker entregou os dois eventos ao nó");
+        assertEquals(List.of("CALL_MISSED"), received);
+        session.disconnect();
+    }
+
+    /**
+     * Broker STOMP 1.2 mínimo: CONNECT, SUBSCRIBE e SEND repassado como
+     * MESSAGE às assinaturas do destino, sem heartbeat nem selector
+     */
+    static class FakeStompBroker {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final List<Connection> connections = new CopyOnWriteArrayList<>();
+        private final AtomicLong messageIds = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+
+        FakeStompBroker() throws IOException {
+            Thread acceptor = new Thread(this::accept, "fake-stomp-broker");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        long delivered() {
+            return delivered.get();
+        }
+
+        Map<String, String> awaitSubscription(String destination) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (System.currentTimeMillis() < deadline) {
+                for (Connection connection : connections) {
+                    for (Map<String, String> subscription : connection.subscriptions) {
+                        if (destination.equals(subscription.get("destination"))) {
+                            return subscription;
+                        }
+                    }
+                }
+                Thread.sleep(20);
+            }
+            throw new AssertionError("SUBSCRIBE não chegou ao broker: " + destination);
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+            for (Connection connection : connections) {
+                connection.socket.close();
+            }
+        }
+
+        private void accept() {
+            try {
+                while (!serverSocket.isClosed()) {
+                    Connection connection = new Connection(serverSocket.accept());
+                    connections.add(connection);
+                    Thread reader = new Thread(connection::read, "fake-stomp-connection");
+                    reader.setDaemon(true);
+                    reader.start();
+                }
+            } catch (IOException e) {
+                // Broker encerrado
+            }
+        }
+
+        private void publish(String destination, Map<String, String> headers, byte[] body) throws IOException {
+            for (Connection connection : connections) {
+                for (Map<String, String> subscription : connection.subscriptions) {
+                    if (destination.equals(subscription.get("destination"))) {
+                        Map<String, String> message = new LinkedHashMap<>(headers);
+                        message.put("subscription", subscription.get("id"));
+                        message.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+                        connection.write("MESSAGE", message, body);
+                        delivered.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        private class Connection {
+
+            private final Socket socket;
+            private final List<Map<String, String>> subscriptions = new CopyOnWriteArrayList<>();
+
+            Connection(Socket socket) {
+                this.socket = socket;
+            }
+
+            void read() {
+                try (InputStream in = socket.getInputStream()) {
+                    while (true) {
+                        String command = readLine(in);
+                        if (command == null) {
+                            return;
+                        }
+                        if (command.isEmpty()) {
+                            continue; // heartbeat
+                        }
+                        Map<String, String> headers = new LinkedHashMap<>();
+                        for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+                            int colon = line.indexOf(':');
+                            headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+                        }
+                        byte[] body = readBody(in);
+                        switch (command) {
+                            case "CONNECT", "STOMP" -> write("CONNECTED",
+                                    Map.of("version", "1.2", "heart-beat", "0,0"), new byte[0]);
+                            case "SUBSCRIBE" -> subscriptions.add(headers);
+                            case "UNSUBSCRIBE" -> subscriptions.removeIf(
+                                    subscription -> subscription.get("id").equals(headers.get("id")));
+                            case "SEND" -> publish(headers.get("destination"), headers, body);
+                            case "DISCONNECT" -> {
+                                socket.close();
+                                return;
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    // Conexão encerrada
+                } finally {
+                    connections.remove(this);
+                }
+            }
+
+            synchronized void write(String command, Map<String, String> headers, byte[] body) throws IOException {
+                StringBuilder frame = new StringBuilder(command).append('\n');
+                headers.forEach((name, value) -> frame.append(name).append(':').append(value).append('\n'));
+                frame.append('\n');
+                OutputStream out = socket.getOutputStream();
+                out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+                out.write(body);
+                out.write(0);
+                out.flush();
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    return line.toString(StandardCharsets.UTF_8).replace("\r", "");
+                }
+                line.write(b);
+            }
+            return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+        }
+
+        private static byte[] readBody(InputStream in) throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) > 0) {
+                body.write(b);
+            }
+            return body.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.bina.cloud.integration;
+
+import com.bina.cloud.BinaCloudServerApplication;
+import com.bina.cloud.service.NotificationService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Broker em memória: o selector por eventType documentado também filtra o
+ * tópico geral /topic/events, não só os roteados
+ */
+class StompSelectorTest {
+
+    private static final String DEVICE_ID = "052ad7f7b6ee816b";
+
+    private static ConfigurableApplicationContext context;
+
+    private final AtomicInteger eventIds = new AtomicInteger();
+
+    @BeforeAll
+    static void start() {
+        context = new SpringApplicationBuilder(BinaCloudServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:selector;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.com.bina.cloud=WARN",
+                        "--bina.notification.replay.enabled=false");
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    void selectorSubscription_OnGeneralTopic_ShouldOnlyReceiveMatchingEvents() throws Exception {
+        List<String> missed = new CopyOnWriteArrayList<>();
+        List<String> all = new CopyOnWriteArrayList<>();
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        StompSession session = stompClient.connectAsync("ws://localhost:" + port + "/ws",
+                new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+
+        StompHeaders filtered = new StompHeaders();
+        filtered.setDestination(NotificationService.EVENTS_TOPIC);
+        filtered.add("selector", "headers.eventType == 'CALL_MISSED'");
+        session.subscribe(filtered, collectEventTypes(missed));
+        session.subscribe(NotificationService.EVENTS_TOPIC, collectEventTypes(all));
+
+        // Sem recibo do SUBSCRIBE no broker simples: repete até as duas assinaturas estarem registradas
+        NotificationService notificationService = context.getBean(NotificationService.class);
+        await(() -> {
+            publish(notificationService, "CALL_MISSED");
+            return !missed.isEmpty() && !all.isEmpty();
+        });
+        Thread.sleep(200);
+        missed.clear();
+        all.clear();
+
+        publish(notificationService, "CALL_RECEIVED");
+        publish(notificationService, "CALL_MISSED");
+
+        await(() -> all.size() >= 2 && !missed.isEmpty());
+        // Margem para o CALL_RECEIVED chegar à assinatura filtrada se o selector não o barrasse
+        Thread.sleep(500);
+        assertEquals(2, all.size());
+        assertTrue(all.containsAll(List.of("CALL_RECEIVED", "CALL_MISSED")), all::toString);
+        assertEquals(List.of("CALL_MISSED"), missed);
+        session.disconnect();
+    }
+
+    private void publish(NotificationService notificationService, String eventType) {
+        notificationService.notifyNewEvent(String.valueOf(eventIds.incrementAndGet()), "Chamada", eventType,
+                DEVICE_ID, "2025-06-24T20:00:00", "{}");
+    }
+
+    private static StompFrameHandler collectEventTypes(List<String> received) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders stompHeaders) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders stompHeaders, Object payload) {
+                received.add(String.valueOf(((Map<?, ?>) payload).get("eventType")));
+            }
+        };
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condição não atingida em 10s");
+            }
+            Thread.sleep(100);
+        }
+    }
+}
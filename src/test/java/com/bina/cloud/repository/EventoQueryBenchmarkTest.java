@@ -0,0 +1,125 @@
+package com.bina.cloud.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark das consultas de listagem com e sem os índices de eventos.
+ * Desabilitado por padrão; executar com:
+ *
+ * <pre>
+ * mvn test -Dtest=EventoQueryBenchmarkTest -Dbina.benchmark=true [-Dbina.benchmark.rows=100000,1000000,10000000]
+ * </pre>
+ *
+ * 10M linhas em H2 em memória exigem alguns GB de heap (-DargLine=-Xmx8g).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "bina.benchmark", matches = "true")
+class EventoQueryBenchmarkTest {
+
+    private static final String PHONE = "61900000042";
+    private static final int PHONES = 5000;
+    private static final int DEVICES = 50;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX idx_eventos_phone_timestamp ON eventos (phone_number, timestamp DESC)",
+            "CREATE INDEX idx_eventos_timestamp_id ON eventos (timestamp DESC, id DESC)",
+            "CREATE INDEX idx_eventos_device_timestamp ON eventos (device_id, timestamp)");
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void benchmarkListingQueries() {
+        String rows = System.getProperty("bina.benchmark.rows", "100000,1000000,10000000");
+        List<Integer> sizes = Arrays.stream(rows.split(",")).map(String::trim).map(Integer::valueOf).toList();
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %-26s %14s %14s", "rows", "query", "sem indice(ms)", "com indice(ms)"));
+        for (int size : sizes) {
+            load(size);
+
+            dropIndexes();
+            double[] withoutIndex = measureAll();
+            createIndexes();
+            double[] withIndex = measureAll();
+
+            String[] names = { "telefone (top 2)", "recentes (top 50)", "dispositivo (top 50)" };
+            for (int i = 0; i < names.length; i++) {
+                report.add(String.format("%-10d %-26s %14.3f %14.3f", size, names[i], withoutIndex[i], withIndex[i]));
+            }
+        }
+        System.out.println(String.join(System.lineSeparator(), report));
+    }
+
+    private void load(int size) {
+        // O pool roda com auto-commit desligado, então a carga precisa de transação explícita
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("TRUNCATE TABLE eventos");
+            jdbcTemplate.update("INSERT INTO eventos (dtype, id, description, timestamp, device_id, "
+                    + "event_type, additional_data, phone_number) "
+                    + "SELECT 'Evento', X, 'Benchmark', DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), "
+                    + "'device-' || MOD(X, ?), 'CALL', 'Numero: ' || (61900000000 + MOD(X, ?)), "
+                    + "CAST(61900000000 + MOD(X, ?) AS VARCHAR) FROM SYSTEM_RANGE(1, ?)",
+                    DEVICES, PHONES, PHONES, size);
+        });
+        jdbcTemplate.execute("ANALYZE TABLE eventos");
+    }
+
+    private double[] measureAll() {
+        return new double[] {
+                measure(() -> eventoRepository.findTimestampsByPhoneNumber(PHONE, PageRequest.of(0, 2))),
+                measure(() -> eventoRepository.findByOrderByTimestampDesc(PageRequest.of(0, 50),
+                        EventoMonitorView.class)),
+                measure(() -> jdbcTemplate.queryForList("SELECT id FROM eventos WHERE device_id = 'device-7' "
+                        + "ORDER BY timestamp LIMIT 50"))
+        };
+    }
+
+    private double measure(Supplier<?> query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.get();
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - startTime) / 1_000_000.0 / MEASURED_RUNS;
+    }
+
+    private void dropIndexes() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_eventos_phone_timestamp");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_eventos_timestamp_id");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_eventos_device_timestamp");
+    }
+
+    private void createIndexes() {
+        INDEXES.forEach(jdbcTemplate::execute);
+    }
+}
@@ -1,9 +1,12 @@
 package com.bina.cloud.repository;
 
 import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.EventoItem;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.persistence.EntityManager;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
@@ -19,6 +22,9 @@ class EventoRepositoryTest {
     @Autowired
     private EventoRepository eventoRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Evento createTestEvento() {
         Evento evento = new Evento();
         evento.setDescription("Test Event");
@@ -103,4 +109,68 @@ class EventoRepositoryTest {
         Optional<Evento> deletedEvento = eventoRepository.findById(savedEvento.getId());
         assertThat(deletedEvento).isEmpty();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void findByOrderByTimestampDesc_ShouldProjectMostRecentFirst() {
+        // Arrange
+        Evento older = createTestEvento();
+        older.setTimestamp(LocalDateTime.of(2025, 6, 24, 12, 0, 0));
+        older.setDescription("Older");
+        Evento newer = createTestEvento();
+        newer.setTimestamp(LocalDateTime.of(2025, 6, 24, 13, 0, 0));
+        newer.setDescription("Newer");
+        newer.setPhoneNumber("61981122752");
+        eventoRepository.saveAll(List.of(older, newer));
+
+        // Act
+        List<EventoMonitorView> eventos = eventoRepository.findByOrderByTimestampDesc(PageRequest.of(0, 1),
+                EventoMonitorView.class);
+
+        // Assert
+        assertThat(eventos).hasSize(1);
+        assertThat(eventos.get(0).phoneNumber()).isEqualTo("61981122752");
+        assertThat(eventos.get(0).brasiliaTimestamp()).isEqualTo(LocalDateTime.of(2025, 6, 24, 10, 0, 0));
+    }
+
+    @Test
+    void findAllProjectedBy_ShouldBuildItemsFromColumns() {
+        // Arrange
+        Evento evento = createTestEvento();
+        evento.setTimestamp(LocalDateTime.of(2025, 6, 24, 13, 0, 0));
+        evento.setPhoneNumber("61981122752");
+        Evento saved = eventoRepository.save(evento);
+
+        // Act
+        List<EventoItem> eventos = eventoRepository.findAllProjectedBy(EventoItem.class);
+
+        // Assert
+        assertThat(eventos).containsExactly(EventoItem.of(saved));
+    }
+
+    @Test
+    void explain_ShouldUseTimestampIndexForRecentEvents() {
+        assertThat(explain("SELECT id FROM eventos ORDER BY timestamp DESC LIMIT 10"))
+                .containsIgnoringCase("IDX_EVENTOS_TIMESTAMP");
+        // Desempate por id (EventoStore.findLatest, paginação por keyset) sem ordenar a tabela
+        assertThat(explain("SELECT id FROM eventos ORDER BY timestamp DESC, id DESC LIMIT 10"))
+                .containsIgnoringCase("IDX_EVENTOS_TIMESTAMP_ID")
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void explain_ShouldUsePhoneIndexForPhoneHistory() {
+        assertThat(explain("SELECT timestamp FROM eventos WHERE phone_number = '61981122752' "
+                + "ORDER BY timestamp DESC LIMIT 2"))
+                .containsIgnoringCase("IDX_EVENTOS_PHONE_TIMESTAMP");
+    }
+
+    @Test
+    void explain_ShouldUseDeviceIndexForDeviceFilter() {
+        assertThat(explain("SELECT id FROM eventos WHERE device_id = 'test-device-001' ORDER BY timestamp"))
+                .containsIgnoringCase("IDX_EVENTOS_DEVICE_TIMESTAMP");
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
+}
@@ -0,0 +1,165 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Contrato de {@link EventoStore}, executado contra cada implementação
+ */
+abstract class EventoStoreContractTest {
+
+    protected static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+
+    protected abstract EventoStore store();
+
+    @Test
+    void saveAll_ShouldAssignIncreasingIdsAndKeepFields() {
+        Evento first = evento(0, "61981122752");
+        first.setClientEventId("retry-1");
+        Evento second = evento(1, null);
+
+        List<Evento> saved = store().saveAll(List.of(first, second));
+
+        assertThat(saved).containsExactly(first, second);
+        assertThat(second.getId()).isGreaterThan(first.getId());
+        Evento found = store().findById(first.getId()).orElseThrow();
+        assertThat(found.getDescription()).isEqualTo("Chamada recebida");
+        assertThat(found.getDeviceId()).isEqualTo("device-001");
+        assertThat(found.getEventType()).isEqualTo("CALL_RECEIVED");
+        assertThat(found.getAdditionalData()).isEqualTo("{\"numero\":\"061981122752\"}");
+        assertThat(found.getPhoneNumber()).isEqualTo("61981122752");
+        assertThat(found.getClientEventId()).isEqualTo("retry-1");
+        assertThat(found.getTimestamp()).isEqualTo(BASE);
+        assertThat(store().findById(second.getId()).orElseThrow().getPhoneNumber()).isNull();
+        assertThat(store().count()).isEqualTo(2);
+    }
+
+    @Test
+    void findById_Unknown_ShouldBeEmpty() {
+        Evento saved = store().saveAll(List.of(evento(0, null))).get(0);
+
+        assertThat(store().findById(saved.getId() + 1000)).isEmpty();
+    }
+
+    @Test
+    void findLatest_ShouldOrderByTimestampThenId() {
+        Evento late = evento(5, null);
+        Evento early = evento(1, null);
+        Evento tieFirst = evento(3, null);
+        Evento tieSecond = evento(3, null);
+        store().saveAll(List.of(late, early));
+        store().saveAll(List.of(tieFirst, tieSecond));
+
+        assertThat(ids(store().findLatest(3))).containsExactly(late.getId(), tieSecond.getId(), tieFirst.getId());
+        assertThat(ids(store().findLatest(10))).hasSize(4).endsWith(early.getId());
+    }
+
+    @Test
+    void findByPhoneNumber_ShouldReturnMostRecentCallsOfThatPhone() {
+        Evento older = evento(0, "61981122752");
+        Evento other = evento(1, "61999990000");
+        Evento newer = evento(2, "61981122752");
+        Evento newest = evento(4, "61981122752");
+        store().saveAll(List.of(older, other, newest));
+        store().saveAll(List.of(newer));
+
+        assertThat(ids(store().findByPhoneNumber("61981122752", 2))).containsExactly(newest.getId(), newer.getId());
+        assertThat(ids(store().findByPhoneNumber("61981122752", 10)))
+                .containsExactly(newest.getId(), newer.getId(), older.getId());
+        assertThat(store().findByPhoneNumber("61900000000", 10)).isEmpty();
+    }
+
+    @Test
+    void findTimestampsByPhoneNumber_ShouldListCallsOfThatPhone() {
+        store().saveAll(List.of(evento(4, "61981122752"), evento(1, "61999990000"), evento(0, "61981122752")));
+        store().saveAll(List.of(evento(2, "61981122752")));
+
+        assertThat(store().findTimestampsByPhoneNumber("61981122752", 2))
+                .containsExactly(BASE.plusMinutes(4), BASE.plusMinutes(2));
+        assertThat(store().findAllTimestampsByPhoneNumber("61981122752"))
+                .containsExactly(BASE, BASE.plusMinutes(2), BASE.plusMinutes(4));
+        assertThat(store().findTimestampsByPhoneNumber("61900000000", 2)).isEmpty();
+        assertThat(store().findAllTimestampsByPhoneNumber("61900000000")).isEmpty();
+    }
+
+    @Test
+    void findLastCallPerPhoneNumber_ShouldListMostRecentPhonesFirst() {
+        store().saveAll(List.of(evento(5, "61981122752"), evento(3, "61999990000"), evento(1, "61981122752"),
+                evento(4, "61988887777"), evento(6, null)));
+
+        List<PhoneLastCall> lastCalls = store().findLastCallPerPhoneNumber(2);
+
+        assertThat(lastCalls).extracting(PhoneLastCall::getPhoneNumber).containsExactly("61981122752", "61988887777");
+        assertThat(lastCalls).extracting(PhoneLastCall::getLastCall)
+                .containsExactly(BASE.plusMinutes(5), BASE.plusMinutes(4));
+        assertThat(store().findDistinctPhoneNumbers())
+                .containsExactlyInAnyOrder("61981122752", "61999990000", "61988887777");
+    }
+
+    @Test
+    void findByTimestampBetween_ShouldUseHalfOpenRange() {
+        List<Evento> saved = store().saveAll(List.of(evento(0, null), evento(1, null), evento(2, null),
+                evento(3, null)));
+
+        List<Evento> range = store().findByTimestampBetween(BASE.plusMinutes(1), BASE.plusMinutes(3), 10);
+
+        assertThat(ids(range)).containsExactly(saved.get(2).getId(), saved.get(1).getId());
+        assertThat(store().findByTimestampBetween(BASE.plusMinutes(1), BASE.plusMinutes(3), 1)).hasSize(1);
+    }
+
+    @Test
+    void findByDeviceIdAndClientEventId_ShouldFindOnlyThatDevice() {
+        Evento evento = evento(0, null);
+        evento.setClientEventId("retry-1");
+        store().saveAll(List.of(evento));
+
+        assertThat(store().findByDeviceIdAndClientEventId("device-001", "retry-1").orElseThrow().getId())
+                .isEqualTo(evento.getId());
+        assertThat(store().findByDeviceIdAndClientEventId("device-002", "retry-1")).isEmpty();
+    }
+
+    @Test
+    void saveAll_WithClientEventIdAlreadySaved_ShouldFail() {
+        Evento original = evento(0, null);
+        original.setClientEventId("retry-1");
+        store().saveAll(List.of(original));
+
+        Evento retry = evento(1, null);
+        retry.setClientEventId("retry-1");
+
+        assertThatThrownBy(() -> store().saveAll(List.of(retry))).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void saveAll_WithClientEventIdRepeatedInBatch_ShouldFail() {
+        Evento first = evento(0, null);
+        first.setClientEventId("retry-1");
+        Evento second = evento(1, null);
+        second.setClientEventId("retry-1");
+
+        assertThatThrownBy(() -> store().saveAll(List.of(first, second)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    protected static Evento evento(int minutes, String phoneNumber) {
+        Evento evento = new Evento();
+        evento.setDescription("Chamada recebida");
+        evento.setDeviceId("device-001");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setAdditionalData("{\"numero\":\"061981122752\"}");
+        evento.setPhoneNumber(phoneNumber);
+        evento.setTimestamp(BASE.plusMinutes(minutes));
+        return evento;
+    }
+
+    protected static List<Long> ids(List<Evento> eventos) {
+        return eventos.stream().map(Evento::getId).toList();
+    }
+}
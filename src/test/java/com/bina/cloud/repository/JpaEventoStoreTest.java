@@ -0,0 +1,29 @@
+package com.bina.cloud.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+@DataJpaTest
+@Import(JpaEventoStore.class)
+@ActiveProfiles("test")
+class JpaEventoStoreTest extends EventoStoreContractTest {
+
+    @Autowired
+    private JpaEventoStore store;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @BeforeEach
+    void setUp() {
+        eventoRepository.deleteAll();
+    }
+
+    @Override
+    protected EventoStore store() {
+        return store;
+    }
+}
@@ -0,0 +1,279 @@
+package com.bina.cloud.repository;
+
+import com.bina.cloud.model.Evento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentLogEventoStoreTest extends EventoStoreContractTest {
+
+    // Segmentos pequenos e blocos de 2 registros para exercitar a troca de arquivo e o índice esparso
+    private static final int SEGMENT_SIZE = 512;
+    private static final int INDEX_INTERVAL = 2;
+    private static final int KEYS = 1000;
+
+    @TempDir
+    Path directory;
+
+    private SegmentLogEventoStore store;
+    private final SynchronizationOnlyTransactionManager transactionManager =
+            new SynchronizationOnlyTransactionManager();
+
+    @BeforeEach
+    void setUp() {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Override
+    protected EventoStore store() {
+        return store;
+    }
+
+    @Test
+    void saveAll_ShouldRollToNewSegmentsWhenFull() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            store.saveAll(List.of(evento(i, "61981122752")));
+        }
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        assertThat(ids(store.findByPhoneNumber("61981122752", 3))).containsExactly(10L, 9L, 8L);
+    }
+
+    @Test
+    void reopen_ShouldRebuildIndexesAndContinueIds() {
+        Evento retry = evento(1, "61981122752");
+        retry.setClientEventId("retry-1");
+        for (int i = 0; i < 6; i++) {
+            store.saveAll(List.of(evento(10 - i, null)));
+        }
+        store.saveAll(List.of(retry));
+        store.close();
+
+        store = open();
+
+        assertThat(store.count()).isEqualTo(7);
+        assertThat(ids(store.findLatest(2))).containsExactly(1L, 2L);
+        assertThat(ids(store.findByPhoneNumber("61981122752", 10))).containsExactly(7L);
+        assertThat(store.findByDeviceIdAndClientEventId("device-001", "retry-1")).isPresent();
+        assertThat(store.saveAll(List.of(evento(20, null))).get(0).getId()).isEqualTo(8L);
+    }
+
+    @Test
+    void reopen_WithCorruptedLastRecord_ShouldDropItAndReuseItsId() throws IOException {
+        store.saveAll(List.of(evento(0, null), evento(1, null)));
+        store.close();
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 0);
+            // Um byte do payload do segundo registro: CRC deixa de bater
+            long secondPayload = 8 + length.flip().getInt() + 8 + 20;
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7f }), secondPayload);
+        }
+
+        store = open();
+
+        assertThat(store.count()).isEqualTo(1);
+        assertThat(store.saveAll(List.of(evento(2, null))).get(0).getId()).isEqualTo(2L);
+        assertThat(store.findById(2L).orElseThrow().getTimestamp()).isEqualTo(BASE.plusMinutes(2));
+    }
+
+    @Test
+    void findByTime_AfterHistoricalImport_ShouldWalkBlocksByMaxTimestamp() {
+        // Blocos de 2: [5, 6], [1, 2] importado depois, [3, 9] cujo máximo passa o do primeiro
+        for (int minute : new int[] { 5, 6, 1, 2, 3, 9 }) {
+            store.saveAll(List.of(evento(minute, null)));
+        }
+
+        assertThat(ids(store.findLatest(3))).containsExactly(6L, 2L, 1L);
+        assertThat(ids(store.findByTimestampBetween(BASE.plusMinutes(1), BASE.plusMinutes(4), 10)))
+                .containsExactly(5L, 4L, 3L);
+    }
+
+    @Test
+    void boundedIndexes_ShouldRereadEvictedPhonesAndForgetOldClientEventIds() {
+        store.close();
+        store = new SegmentLogEventoStore(directory, SEGMENT_SIZE, INDEX_INTERVAL, true, 2, 1, false, () -> 1L);
+        Evento first = evento(0, "61981122752");
+        first.setClientEventId("retry-1");
+        Evento second = evento(1, "61999990000");
+        second.setClientEventId("retry-2");
+        store.saveAll(List.of(first, second));
+        // Terceiro telefone: o primeiro sai do índice e volta com uma ligação nova
+        store.saveAll(List.of(evento(2, "61988887777"), evento(3, "61981122752")));
+
+        assertThat(ids(store.findByPhoneNumber("61981122752", 10))).containsExactly(4L, 1L);
+        assertThat(store.findAllTimestampsByPhoneNumber("61981122752"))
+                .containsExactly(BASE, BASE.plusMinutes(3));
+        assertThat(store.findDistinctPhoneNumbers())
+                .containsExactlyInAnyOrder("61981122752", "61999990000", "61988887777");
+        // Janela de uma chave: retry-1 já saiu e uma retentativa dele é gravada de novo
+        assertThat(store.findByDeviceIdAndClientEventId("device-001", "retry-1")).isEmpty();
+        assertThat(store.findByDeviceIdAndClientEventId("device-001", "retry-2")).isPresent();
+    }
+
+    @Test
+    void saveAll_WithDuplicate_ShouldNotWriteAnyEventOfTheBatch() {
+        Evento original = evento(0, null);
+        original.setClientEventId("retry-1");
+        store.saveAll(List.of(original));
+        Evento fresh = evento(1, null);
+        Evento retry = evento(2, null);
+        retry.setClientEventId("retry-1");
+
+        assertThatThrownBy(() -> store.saveAll(List.of(fresh, retry)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(store.count()).isEqualTo(1);
+        assertThat(store.saveAll(List.of(fresh)).get(0).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void transaction_ShouldWriteAndAssignIdsOnlyOnCommit() {
+        Evento evento = evento(0, "61981122752");
+        evento.setClientEventId("retry-1");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            store.saveAll(List.of(evento));
+            assertThat(evento.getId()).isNull();
+            assertThat(store.count()).isZero();
+        });
+
+        assertThat(evento.getId()).isEqualTo(1L);
+        assertThat(store.findByDeviceIdAndClientEventId("device-001", "retry-1")).isPresent();
+        assertThat(ids(store.findByPhoneNumber("61981122752", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void transaction_RolledBack_ShouldLeaveNothingForTheRetry() {
+        Evento evento = evento(0, null);
+        evento.setClientEventId("retry-1");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Falha depois do saveAll, como nas estatísticas do telefone
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            store.saveAll(List.of(evento, evento(1, null)));
+            throw new IllegalStateException("phone_stats");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(store.count()).isZero();
+
+        transaction.executeWithoutResult(status -> store.saveAll(List.of(evento)));
+        store.close();
+        store = open();
+
+        assertThat(store.count()).isEqualTo(1);
+        assertThat(store.findByDeviceIdAndClientEventId("device-001", "retry-1").orElseThrow().getId())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void transaction_FailedCommit_ShouldUndoAppendedTail() throws IOException {
+        store.saveAll(List.of(evento(0, null)));
+        List<Path> before = segmentFiles();
+        List<Evento> batch = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            batch.add(evento(i, null));
+        }
+        transactionManager.failCommit = true;
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> store.saveAll(batch)))
+                .isInstanceOf(TransactionSystemException.class);
+
+        assertThat(store.count()).isEqualTo(1);
+        assertThat(batch).allMatch(evento -> evento.getId() == null);
+        assertThat(segmentFiles()).isEqualTo(before);
+        store.close();
+        store = open();
+        assertThat(store.count()).isEqualTo(1);
+        assertThat(store.saveAll(List.of(evento(20, null))).get(0).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void emptyLog_ShouldStartAtInitialIdAndKeepItOnReopen() {
+        Path other = directory.resolve("sequence");
+        SegmentLogEventoStore seeded = new SegmentLogEventoStore(other, SEGMENT_SIZE, INDEX_INTERVAL, true, KEYS,
+                KEYS, false, () -> 5001L);
+        seeded.saveAll(List.of(evento(0, null), evento(1, null)));
+        seeded.close();
+
+        // Log com registros: o id segue do arquivo, sem consultar a sequência
+        seeded = new SegmentLogEventoStore(other, SEGMENT_SIZE, INDEX_INTERVAL, true, KEYS, KEYS, false, () -> {
+            throw new AssertionError("sequência consultada com o log preenchido");
+        });
+
+        assertThat(ids(seeded.findLatest(10))).containsExactly(5002L, 5001L);
+        assertThat(seeded.saveAll(List.of(evento(2, null))).get(0).getId()).isEqualTo(5003L);
+        seeded.close();
+    }
+
+    @Test
+    void retentionEnabled_ShouldRefuseToOpen() {
+        assertThatThrownBy(() -> new SegmentLogEventoStore(directory.resolve("retention"), SEGMENT_SIZE,
+                INDEX_INTERVAL, true, KEYS, KEYS, true, () -> 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bina.retention.enabled");
+    }
+
+    private SegmentLogEventoStore open() {
+        return new SegmentLogEventoStore(directory, SEGMENT_SIZE, INDEX_INTERVAL, true, KEYS, KEYS, false, () -> 1L);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Transação sem recurso: só dispara as sincronizações, com um commit que pode falhar
+     */
+    private static final class SynchronizationOnlyTransactionManager extends AbstractPlatformTransactionManager {
+
+        private boolean failCommit;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (failCommit) {
+                throw new TransactionSystemException("commit falhou");
+            }
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventoIngestPipelineTest {
+
+    private static final long AWAIT_SECONDS = 5;
+
+    @Mock
+    private EventoService eventoService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EventoIngestPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldPersistInOrderPerDevice() throws Exception {
+        int total = 50;
+        List<String> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(total);
+        when(eventoService.criarEvento(any(Evento.class))).thenAnswer(invocation -> {
+            Evento evento = invocation.getArgument(0);
+            processed.add(evento.getDescription());
+            evento.setId((long) processed.size());
+            done.countDown();
+            return evento;
+        });
+        pipeline = new EventoIngestPipeline(eventoService, meterRegistry, true, 4 * total, 4);
+        pipeline.start();
+
+        String lastIngestId = null;
+        for (int i = 0; i < total; i++) {
+            lastIngestId = pipeline.submit(createEvento("device-1", String.valueOf(i))).ingestId();
+        }
+
+        assertTrue(done.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < total; i++) {
+            assertEquals(String.valueOf(i), processed.get(i));
+        }
+        String ingestId = lastIngestId;
+        awaitStatus(ingestId, EventoIngestPipeline.STATUS_PERSISTED);
+        assertEquals(total, pipeline.getStatus(ingestId).orElseThrow().eventoId());
+    }
+
+    @Test
+    void submit_ShouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(eventoService.criarEvento(any(Evento.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        pipeline = new EventoIngestPipeline(eventoService, meterRegistry, true, 2, 1);
+        pipeline.start();
+
+        pipeline.submit(createEvento("device-1", "em processamento"));
+        assertTrue(started.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+        pipeline.submit(createEvento("device-1", "na fila 1"));
+        pipeline.submit(createEvento("device-1", "na fila 2"));
+
+        assertThrows(IngestQueueFullException.class,
+                () -> pipeline.submit(createEvento("device-1", "recusado")));
+        assertEquals(2, pipeline.queueDepth());
+        assertEquals(1.0, meterRegistry.get("bina.ingest.rejected").counter().count());
+
+        release.countDown();
+    }
+
+    @Test
+    void submit_WhenPersistenceFails_ShouldReportFailedStatus() throws Exception {
+        when(eventoService.criarEvento(any(Evento.class))).thenThrow(new IllegalStateException("db down"));
+        pipeline = new EventoIngestPipeline(eventoService, meterRegistry, true, 10, 1);
+        pipeline.start();
+
+        String ingestId = pipeline.submit(createEvento("device-1", "falha")).ingestId();
+
+        awaitStatus(ingestId, EventoIngestPipeline.STATUS_FAILED);
+        assertEquals("db down", pipeline.getStatus(ingestId).orElseThrow().error());
+    }
+
+    private void awaitStatus(String ingestId, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            if (expected.equals(pipeline.getStatus(ingestId).orElseThrow().status())) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Status " + expected + " não atingido para " + ingestId);
+    }
+
+    private Evento createEvento(String deviceId, String description) {
+        Evento evento = new Evento();
+        evento.setDeviceId(deviceId);
+        evento.setDescription(description);
+        evento.setEventType("CALL_RECEIVED");
+        return evento;
+    }
+}
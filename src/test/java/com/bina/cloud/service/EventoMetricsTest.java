@@ -0,0 +1,78 @@
+package com.bina.cloud.service;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventoMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private EventoMetrics eventoMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        eventoMetrics = new EventoMetrics(registry, 2, 2);
+    }
+
+    @Test
+    void recordPersist_ShouldGroupDeviceIdsBeyondLimitAsOther() {
+        eventoMetrics.recordPersist("CALL_RECEIVED", "device-1", 1_000_000);
+        eventoMetrics.recordPersist("CALL_RECEIVED", "device-2", 1_000_000);
+        eventoMetrics.recordPersist("CALL_RECEIVED", "device-3", 1_000_000);
+        eventoMetrics.recordPersist("CALL_RECEIVED", "device-4", 1_000_000);
+        eventoMetrics.recordPersist("CALL_RECEIVED", "device-1", 1_000_000);
+
+        assertEquals(2, registry.get("bina.eventos.persist").tag("deviceId", "device-1").timer().count());
+        assertEquals(1, registry.get("bina.eventos.persist").tag("deviceId", "device-2").timer().count());
+        assertEquals(2, registry.get("bina.eventos.persist").tag("deviceId", EventoMetrics.OTHER_TAG_VALUE)
+                .timer().count());
+        assertEquals(3, registry.get("bina.eventos.persist").timers().size());
+    }
+
+    @Test
+    void recordIngest_ShouldTagMissingValuesAsNone() {
+        eventoMetrics.recordIngest(null, " ", EventoMetrics.RESULT_OK, 2_000_000);
+
+        Timer timer = registry.get("bina.eventos.ingest")
+                .tag("eventType", EventoMetrics.NONE_TAG_VALUE)
+                .tag("deviceId", EventoMetrics.NONE_TAG_VALUE)
+                .tag("result", EventoMetrics.RESULT_OK)
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(2.0, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void timers_ShouldPublishPercentileHistograms() {
+        // SimpleMeterRegistry não gera buckets agregáveis; verifica a configuração pedida pelo timer
+        Map<String, Boolean> histograms = new HashMap<>();
+        SimpleMeterRegistry capturing = new SimpleMeterRegistry();
+        capturing.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                histograms.put(id.getName(), config.isPercentileHistogram());
+                return config;
+            }
+        });
+        EventoMetrics metrics = new EventoMetrics(capturing, 2, 2);
+
+        metrics.recordBrokerSend("CALL_RECEIVED", 500_000);
+        metrics.recordPageRender("monitor", 500_000);
+        metrics.recordAdditionalDataSize("CALL_RECEIVED", "{}");
+
+        assertEquals(Boolean.TRUE, histograms.get("bina.notification.broker.send"));
+        assertEquals(Boolean.TRUE, histograms.get("bina.web.page.render"));
+        assertEquals(Boolean.TRUE, histograms.get("bina.eventos.additional-data.size"));
+    }
+}
@@ -0,0 +1,149 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoMonitorView;
+import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.JpaEventoStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Latência de ingestão e das consultas antes e depois de arquivar tudo o que
+ * está fora da janela quente. Os eventos cobrem os últimos 365 dias, então
+ * com a janela de 90 dias cerca de 3/4 das linhas vão para o arquivo.
+ * Desabilitado por padrão; executar com:
+ *
+ * <pre>
+ * mvn test -Dtest=EventoRetentionBenchmarkTest -Dbina.benchmark=true [-Dbina.benchmark.rows=10000000] -DargLine=-Xmx8g
+ * </pre>
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "bina.benchmark", matches = "true")
+class EventoRetentionBenchmarkTest {
+
+    private static final String PHONE = "61900000042";
+    private static final int PHONES = 5000;
+    private static final int DEVICES = 50;
+    private static final int DAYS = 365;
+    private static final int HOT_DAYS = 90;
+    private static final int INSERTS = 500;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void benchmarkBeforeAndAfterCompaction() {
+        int rows = Integer.parseInt(System.getProperty("bina.benchmark.rows", "10000000"));
+        EventoArchiveRepository archiveRepository = new EventoArchiveRepository(jdbcTemplate, transactionManager);
+        EventoRetentionService retentionService = new EventoRetentionService(archiveRepository,
+                new SimpleMeterRegistry(), true, HOT_DAYS, 10000, 0);
+        EventoService eventoService = new EventoService(eventoRepository, new JpaEventoStore(eventoRepository), null,
+                archiveRepository, null, null, null, null, null, null);
+
+        load(rows);
+        double[] before = measureAll(eventoService);
+
+        long startTime = System.nanoTime();
+        long archived = retentionService.compact();
+        double compactionSeconds = (System.nanoTime() - startTime) / 1e9;
+        jdbcTemplate.execute("ANALYZE TABLE eventos");
+        double[] after = measureAll(eventoService);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("rows=%d archived=%d compaction=%.1fs", rows, archived, compactionSeconds));
+        report.add(String.format("%-34s %12s %12s", "", "antes(ms)", "depois(ms)"));
+        String[] names = { "ingestão (1 evento por transação)", "telefone (top 2)", "recentes (top 50)",
+                "histórico telefone (top 50)", "histórico antigo (top 500)" };
+        for (int i = 0; i < names.length; i++) {
+            report.add(String.format("%-34s %12.3f %12.3f", names[i], before[i], after[i]));
+        }
+        System.out.println(String.join(System.lineSeparator(), report));
+    }
+
+    private void load(int size) {
+        // O pool roda com auto-commit desligado, então a carga precisa de transação explícita
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("TRUNCATE TABLE eventos");
+            jdbcTemplate.update("INSERT INTO eventos (dtype, id, description, timestamp, device_id, "
+                    + "event_type, additional_data, phone_number) "
+                    + "SELECT 'Evento', X, 'Benchmark', "
+                    + "DATEADD('MILLISECOND', X * ?, DATEADD('DAY', ?, CURRENT_TIMESTAMP(0))), "
+                    + "'device-' || MOD(X, ?), 'CALL', 'Numero: ' || (61900000000 + MOD(X, ?)), "
+                    + "CAST(61900000000 + MOD(X, ?) AS VARCHAR) FROM SYSTEM_RANGE(1, ?)",
+                    (long) DAYS * 86_400_000L / size, -DAYS, DEVICES, PHONES, PHONES, size);
+            // O otimizador pooled do Hibernate usa o valor da sequência como teto do bloco de 50 ids
+            jdbcTemplate.execute("ALTER SEQUENCE evento_sequence RESTART WITH " + (size + 100));
+        });
+        jdbcTemplate.execute("ANALYZE TABLE eventos");
+    }
+
+    private double[] measureAll(EventoService eventoService) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < WARMUP_RUNS * 10; i++) {
+            transactionTemplate.executeWithoutResult(status -> eventoRepository.saveAndFlush(newEvento()));
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < INSERTS; i++) {
+            transactionTemplate.executeWithoutResult(status -> eventoRepository.saveAndFlush(newEvento()));
+        }
+        double ingest = (System.nanoTime() - startTime) / 1_000_000.0 / INSERTS;
+
+        return new double[] {
+                ingest,
+                measure(() -> eventoRepository.findTimestampsByPhoneNumber(PHONE, PageRequest.of(0, 2))),
+                measure(() -> eventoRepository.findByOrderByTimestampDesc(PageRequest.of(0, 50),
+                        EventoMonitorView.class)),
+                measure(() -> eventoService.historicoPorTelefone(PHONE, 50)),
+                measure(() -> eventoService.historicoPorTelefone(PHONE, 500))
+        };
+    }
+
+    private double measure(Supplier<?> query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.get();
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - startTime) / 1_000_000.0 / MEASURED_RUNS;
+    }
+
+    private static Evento newEvento() {
+        Evento evento = new Evento();
+        evento.setDescription("Benchmark");
+        evento.setDeviceId("device-1");
+        evento.setEventType("CALL");
+        evento.setTimestamp(LocalDateTime.now());
+        evento.setPhoneNumber(PHONE);
+        return evento;
+    }
+}
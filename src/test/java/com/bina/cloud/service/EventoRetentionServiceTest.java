@@ -0,0 +1,143 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.JpaEventoStore;
+import com.bina.cloud.util.TimezoneUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventoRetentionServiceTest {
+
+    private static final String PHONE = "61981122752";
+    private static final int HOT_DAYS = 90;
+    private static final int BATCH_SIZE = 7;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EventoArchiveRepository archiveRepository;
+    private EventoRetentionService retentionService;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        dropArchiveTables();
+        eventoRepository.deleteAll();
+        archiveRepository = new EventoArchiveRepository(jdbcTemplate, transactionManager);
+        retentionService = new EventoRetentionService(archiveRepository, meterRegistry, true, HOT_DAYS, BATCH_SIZE,
+                0);
+        now = TimezoneUtil.getCurrentUtcTime().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventoRepository.deleteAll();
+        dropArchiveTables();
+    }
+
+    @Test
+    void compact_ShouldMoveOldEventsToMonthlyTablesAndKeepHotWindow() {
+        // Meio do mês, para que os 10 minutos de cada grupo caiam no mesmo mês
+        LocalDateTime older = now.minusDays(200).withDayOfMonth(15);
+        LocalDateTime old = now.minusDays(120).withDayOfMonth(15);
+        List<Evento> eventos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            eventos.add(evento(older.plusMinutes(i), "6190000000" + i));
+            eventos.add(evento(old.plusMinutes(i), "6190000000" + i));
+        }
+        eventos.add(evento(now.minusDays(10), PHONE));
+        eventos.add(evento(now.minusDays(1), PHONE));
+        eventoRepository.saveAll(eventos);
+
+        long archived = retentionService.compact();
+
+        assertEquals(20, archived);
+        assertEquals(2, eventoRepository.count());
+        assertEquals(List.of(YearMonth.from(old), YearMonth.from(older)), archiveRepository.archivedMonths());
+        assertEquals(10, countArchived(YearMonth.from(older)));
+        assertEquals(10, countArchived(YearMonth.from(old)));
+        assertEquals(20.0, meterRegistry.get("bina.retention.archived").counter().count());
+        // Segunda execução não encontra nada fora da janela
+        assertEquals(0, retentionService.compact());
+    }
+
+    @Test
+    void phoneHistory_ShouldSpanHotAndArchivedEvents() {
+        LocalDateTime archivedCall = now.minusDays(150);
+        LocalDateTime olderArchivedCall = now.minusDays(400);
+        LocalDateTime hotCall = now.minusDays(2);
+        eventoRepository.saveAll(List.of(evento(olderArchivedCall, PHONE), evento(archivedCall, PHONE),
+                evento(hotCall, PHONE), evento(archivedCall, "61900000001")));
+        retentionService.compact();
+
+        LastCallIndex lastCallIndex = new LastCallIndex(new JpaEventoStore(eventoRepository), archiveRepository, 100);
+        assertEquals(archivedCall, lastCallIndex.findPreviousCall(PHONE).orElseThrow());
+
+        List<Evento> archived = archiveRepository.findByPhoneNumber(PHONE, 10);
+        assertEquals(List.of(archivedCall, olderArchivedCall), archived.stream().map(Evento::getTimestamp).toList());
+        assertEquals(List.of(archivedCall), archiveRepository.findTimestampsByPhoneNumber(PHONE, 1));
+    }
+
+    @Test
+    void archivedMonths_ShouldBeDiscoveredFromExistingTables() {
+        eventoRepository.save(evento(now.minusDays(100), PHONE));
+        retentionService.compact();
+
+        EventoArchiveRepository restarted = new EventoArchiveRepository(jdbcTemplate, transactionManager);
+        assertEquals(List.of(YearMonth.from(now.minusDays(100))), restarted.archivedMonths());
+        assertEquals(1, restarted.findByPhoneNumber(PHONE, 10).size());
+    }
+
+    private long countArchived(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + EventoArchiveRepository.tableName(month),
+                Long.class);
+    }
+
+    private void dropArchiveTables() {
+        List<String> tables = jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE LOWER(table_name) LIKE '" + EventoArchiveRepository.TABLE_PREFIX + "%'", String.class);
+        tables.forEach(table -> jdbcTemplate.execute("DROP TABLE IF EXISTS " + table));
+    }
+
+    private static Evento evento(LocalDateTime timestamp, String phoneNumber) {
+        Evento evento = new Evento();
+        evento.setDescription("Chamada recebida");
+        evento.setDeviceId("device-retention");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setTimestamp(timestamp);
+        evento.setPhoneNumber(phoneNumber);
+        return evento;
+    }
+}
@@ -1,21 +1,35 @@
 package com.bina.cloud.service;
 
 import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.EventoFilter;
+import com.bina.cloud.model.EventoItem;
+import com.bina.cloud.repository.EventoListView;
 import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.EventoStore;
 import com.bina.cloud.util.TimezoneUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,9 +38,29 @@ class EventoServiceTest {
     @Mock
     private EventoRepository eventoRepository;
 
+    @Mock
+    private EventoStore eventoStore;
+
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private LastCallIndex lastCallIndex;
+
+    @Mock
+    private EventoWriter eventoWriter;
+
+    @Mock
+    private RecentEventsBuffer recentEventsBuffer;
+
+    @Mock
+    private EventoMetrics eventoMetrics;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private IdempotencyCache idempotencyCache = new IdempotencyCache(meterRegistry, 60000, 1000);
+
     @InjectMocks
     private EventoService eventoService;
 
@@ -57,7 +91,7 @@ class EventoServiceTest {
         savedEvento.setTimestamp(mockUtcTime);
         savedEvento.setAdditionalData("{\"numero\": \"061996593711\"}"); // Keep original additionalData
 
-        when(eventoRepository.save(any(Evento.class))).thenReturn(savedEvento);
+        when(eventoWriter.write(any(Evento.class))).thenReturn(savedEvento);
 
         try (MockedStatic<TimezoneUtil> timezoneUtilMock = mockStatic(TimezoneUtil.class)) {
             timezoneUtilMock.when(TimezoneUtil::getCurrentUtcTime).thenReturn(mockUtcTime);
@@ -76,7 +110,8 @@ class EventoServiceTest {
                     eq("CALL_RECEIVED"),
                     eq("test-device"),
                     eq("15/01/2024 08:30:00"),
-                    eq("{\"numero\": \"061996593711\"}"));
+                    eq("{\"numero\": \"061996593711\"}"),
+                    eq("61996593711"));
         }
     }
 
@@ -97,7 +132,7 @@ class EventoServiceTest {
         savedEvento.setPhoneNumber("61996593711");
         savedEvento.setTimestamp(mockUtcTime);
 
-        when(eventoRepository.save(any(Evento.class))).thenReturn(savedEvento);
+        when(eventoWriter.write(any(Evento.class))).thenReturn(savedEvento);
 
         try (MockedStatic<TimezoneUtil> timezoneUtilMock = mockStatic(TimezoneUtil.class)) {
             timezoneUtilMock.when(TimezoneUtil::getCurrentUtcTime).thenReturn(mockUtcTime);
@@ -130,7 +165,7 @@ class EventoServiceTest {
         savedEvento.setPhoneNumber("61996593711"); // Both leading zeros should be removed
         savedEvento.setTimestamp(mockUtcTime);
 
-        when(eventoRepository.save(any(Evento.class))).thenReturn(savedEvento);
+        when(eventoWriter.write(any(Evento.class))).thenReturn(savedEvento);
 
         try (MockedStatic<TimezoneUtil> timezoneUtilMock = mockStatic(TimezoneUtil.class)) {
             timezoneUtilMock.when(TimezoneUtil::getCurrentUtcTime).thenReturn(mockUtcTime);
@@ -163,7 +198,7 @@ class EventoServiceTest {
         savedEvento.setPhoneNumber("61996593711"); // Should be truncated to 11 digits
         savedEvento.setTimestamp(mockUtcTime);
 
-        when(eventoRepository.save(any(Evento.class))).thenReturn(savedEvento);
+        when(eventoWriter.write(any(Evento.class))).thenReturn(savedEvento);
 
         try (MockedStatic<TimezoneUtil> timezoneUtilMock = mockStatic(TimezoneUtil.class)) {
             timezoneUtilMock.when(TimezoneUtil::getCurrentUtcTime).thenReturn(mockUtcTime);
@@ -185,13 +220,228 @@ class EventoServiceTest {
         Long id = 1L;
         Evento expectedEvento = new Evento();
         expectedEvento.setId(id);
-        when(eventoRepository.findById(id)).thenReturn(Optional.of(expectedEvento));
+        when(eventoStore.findById(id)).thenReturn(Optional.of(expectedEvento));
 
         // Act
-        Optional<Evento> result = eventoService.buscarPorId(id);
+        Optional<EventoItem> result = eventoService.buscarPorId(id);
 
         // Assert
         assertTrue(result.isPresent());
-        assertEquals(expectedEvento, result.get());
+        assertEquals(EventoItem.of(expectedEvento), result.get());
+    }
+
+    @Test
+    void testGetUltimosEventos_BufferReady_ShouldNotQueryDatabase() {
+        // Arrange
+        Evento recente = new Evento();
+        recente.setId(7L);
+        when(recentEventsBuffer.latest(50)).thenReturn(Optional.of(List.of(recente)));
+
+        // Act
+        List<Evento> result = eventoService.getUltimosEventos(50);
+
+        // Assert
+        assertEquals(List.of(recente), result);
+        verifyNoInteractions(eventoRepository, eventoStore);
+    }
+
+    @Test
+    void testGetUltimosEventosView_BufferReady_ShouldBuildRecordsWithoutQuery() {
+        // Arrange
+        Evento recente = new Evento();
+        recente.setId(7L);
+        recente.setDescription("Chamada recebida");
+        recente.setTimestamp(mockUtcTime);
+        when(recentEventsBuffer.latest(10)).thenReturn(Optional.of(List.of(recente)));
+
+        // Act
+        List<EventoListView> result = eventoService.getUltimosEventos(10, EventoListView.class, EventoListView::of);
+
+        // Assert
+        assertEquals(List.of(new EventoListView(7L, "Chamada recebida", null, null, null, mockUtcTime)), result);
+        assertEquals(LocalDateTime.of(2024, 1, 15, 7, 30, 0), result.get(0).brasiliaTimestamp());
+        verifyNoInteractions(eventoRepository, eventoStore);
+    }
+
+    @Test
+    void testGetUltimosEventosView_BufferNotReady_ShouldQueryProjectedColumns() {
+        // Arrange
+        EventoListView view = new EventoListView(7L, "Chamada recebida", null, null, null, mockUtcTime);
+        when(recentEventsBuffer.latest(10)).thenReturn(Optional.empty());
+        when(eventoStore.isTableBacked()).thenReturn(true);
+        when(eventoRepository.findByOrderByTimestampDesc(PageRequest.of(0, 10), EventoListView.class))
+                .thenReturn(List.of(view));
+
+        // Act
+        List<EventoListView> result = eventoService.getUltimosEventos(10, EventoListView.class, EventoListView::of);
+
+        // Assert
+        assertEquals(List.of(view), result);
+        verify(eventoStore, never()).findLatest(anyInt());
+    }
+
+    @Test
+    void testCriarEvento_ShouldAddSavedEventoToRecentBuffer() {
+        // Arrange
+        Evento evento = new Evento();
+        evento.setAdditionalData("{\"numero\": \"61996593711\"}");
+        Evento savedEvento = new Evento();
+        savedEvento.setId(1L);
+        savedEvento.setTimestamp(mockUtcTime);
+        when(eventoWriter.write(any(Evento.class))).thenReturn(savedEvento);
+
+        // Act
+        eventoService.criarEvento(evento);
+
+        // Assert
+        verify(recentEventsBuffer).add(savedEvento);
+    }
+
+    @Test
+    void testCriarEvento_SameClientEventIdWithoutDeviceId_ShouldWriteBoth() {
+        // Arrange - como na constraint única, device_id nulo não conflita
+        Evento first = eventoWithClientId("retry-1");
+        first.setDeviceId(null);
+        Evento second = eventoWithClientId("retry-1");
+        second.setDeviceId(null);
+        Evento savedFirst = new Evento();
+        savedFirst.setId(1L);
+        Evento savedSecond = new Evento();
+        savedSecond.setId(2L);
+        when(eventoWriter.write(any(Evento.class))).thenReturn(savedFirst, savedSecond);
+
+        // Act
+        Evento resultFirst = eventoService.criarEvento(first);
+        Evento resultSecond = eventoService.criarEvento(second);
+
+        // Assert
+        assertNull(IdempotencyCache.key(first));
+        assertEquals(1L, resultFirst.getId());
+        assertEquals(2L, resultSecond.getId());
+        verify(eventoWriter, times(2)).write(any(Evento.class));
+        verify(idempotencyCache, never()).claim(any(), any());
+    }
+
+    @Test
+    void testCriarEvento_RetryWithSameClientEventId_ShouldReturnOriginalWithoutWritingOrNotifying() {
+        // Arrange
+        Evento savedEvento = new Evento();
+        savedEvento.setId(1L);
+        savedEvento.setTimestamp(mockUtcTime);
+        when(eventoWriter.write(any(Evento.class))).thenReturn(savedEvento);
+
+        // Act
+        Evento first = eventoService.criarEvento(eventoWithClientId("retry-1"));
+        Evento retry = eventoService.criarEvento(eventoWithClientId("retry-1"));
+
+        // Assert
+        assertSame(first, retry);
+        verify(eventoWriter, times(1)).write(any(Evento.class));
+        verify(notificationService, times(1)).notifyNewEvent(any(), any(), any(), any(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("bina.ingest.dedup").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("bina.ingest.dedup").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testCriarEvento_ConcurrentRetry_ShouldWaitForFirstAttempt() throws Exception {
+        // Arrange
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Evento savedEvento = new Evento();
+        savedEvento.setId(1L);
+        savedEvento.setTimestamp(mockUtcTime);
+        when(eventoWriter.write(any(Evento.class))).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return savedEvento;
+        });
+
+        // Act
+        CompletableFuture<Evento> first = CompletableFuture.supplyAsync(
+                () -> eventoService.criarEvento(eventoWithClientId("retry-2")));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Evento> retry = CompletableFuture.supplyAsync(
+                () -> eventoService.criarEvento(eventoWithClientId("retry-2")));
+        release.countDown();
+
+        // Assert
+        assertSame(first.get(5, TimeUnit.SECONDS), retry.get(5, TimeUnit.SECONDS));
+        verify(eventoWriter, times(1)).write(any(Evento.class));
+    }
+
+    @Test
+    void testCriarEvento_FailedAttempt_ShouldAllowRetryToWrite() {
+        // Arrange
+        Evento savedEvento = new Evento();
+        savedEvento.setId(1L);
+        savedEvento.setTimestamp(mockUtcTime);
+        when(eventoWriter.write(any(Evento.class)))
+                .thenThrow(new IllegalStateException("Fila de gravação de eventos cheia"))
+                .thenReturn(savedEvento);
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> eventoService.criarEvento(eventoWithClientId("retry-3")));
+        Evento retry = eventoService.criarEvento(eventoWithClientId("retry-3"));
+
+        // Assert
+        assertEquals(1L, retry.getId());
+        verify(eventoWriter, times(2)).write(any(Evento.class));
+    }
+
+    @Test
+    void testCriarEvento_DuplicateOutsideWindow_ShouldReturnRowFromUniqueConstraint() {
+        // Arrange
+        Evento original = new Evento();
+        original.setId(9L);
+        when(eventoWriter.write(any(Evento.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_eventos_device_client_event"));
+        when(eventoStore.findByDeviceIdAndClientEventId("test-device", "retry-4"))
+                .thenReturn(Optional.of(original));
+
+        // Act
+        Evento result = eventoService.criarEvento(eventoWithClientId("retry-4"));
+
+        // Assert
+        assertSame(original, result);
+        verifyNoInteractions(notificationService, recentEventsBuffer, lastCallIndex);
+        assertEquals(1.0, meterRegistry.get("bina.ingest.dedup").tag("result", "constraint").counter().count());
+    }
+
+    @Test
+    void testListarEventos_SegmentLog_ShouldReadFromStore() {
+        // Arrange
+        Evento evento = new Evento();
+        evento.setId(5001L);
+        evento.setPhoneNumber("61981122752");
+        when(eventoStore.isTableBacked()).thenReturn(false);
+        when(eventoStore.findLatest(EventoService.MAX_PAGE_SIZE)).thenReturn(List.of(evento));
+
+        // Act
+        List<EventoItem> eventos = eventoService.listarEventos(10000);
+
+        // Assert
+        assertEquals(List.of(5001L), eventos.stream().map(EventoItem::id).toList());
+        verifyNoInteractions(eventoRepository);
+    }
+
+    @Test
+    void testListarEventosPaginado_SegmentLog_ShouldBeUnsupported() {
+        // Arrange
+        when(eventoStore.isTableBacked()).thenReturn(false);
+        EventoFilter filter = new EventoFilter(null, "CALL_RECEIVED", null, null, null);
+
+        // Act & Assert
+        assertThrows(UnsupportedStoreQueryException.class, () -> eventoService.listarEventosPaginado(filter, null, 50));
+        assertThrows(UnsupportedStoreQueryException.class, () -> eventoService.exportarEventos(filter, evento -> {
+        }));
+        verifyNoInteractions(eventoRepository);
+    }
+
+    private static Evento eventoWithClientId(String clientEventId) {
+        Evento evento = new Evento();
+        evento.setDeviceId("test-device");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setClientEventId(clientEventId);
+        return evento;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.JpaEventoStore;
+import com.bina.cloud.repository.PhoneStatsJdbcRepository;
+import com.bina.cloud.repository.PhoneStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventoWriterTest {
+
+    private static final int EVENT_COUNT = 200;
+    private static final int CONCURRENT_THREADS = 20;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private PhoneStatsRepository phoneStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EventoWriter eventoWriter;
+
+    @BeforeEach
+    void setUp() {
+        eventoRepository.deleteAll();
+        phoneStatsRepository.deleteAll();
+        PhoneStatsService phoneStatsService = new PhoneStatsService(phoneStatsRepository,
+                new PhoneStatsJdbcRepository(jdbcTemplate), new JpaEventoStore(eventoRepository),
+                new EventoArchiveRepository(jdbcTemplate, transactionManager), transactionManager, meterRegistry,
+                100, 60000, 2, false);
+        eventoWriter = new EventoWriter(new JpaEventoStore(eventoRepository), phoneStatsService, transactionManager,
+                meterRegistry, true, 50, 5);
+        eventoWriter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventoWriter.stop();
+        eventoRepository.deleteAll();
+        phoneStatsRepository.deleteAll();
+    }
+
+    @Test
+    void write_ConcurrentCallers_ShouldGroupInsertsAndReturnIds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_THREADS);
+        List<CompletableFuture<Evento>> futures = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Evento evento = createEvento("Evento " + i);
+            futures.add(CompletableFuture.supplyAsync(() -> eventoWriter.write(evento), executor));
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (CompletableFuture<Evento> future : futures) {
+            Evento saved = future.get(30, TimeUnit.SECONDS);
+            assertNotNull(saved.getId());
+            ids.add(saved.getId());
+        }
+        executor.shutdown();
+
+        assertEquals(EVENT_COUNT, ids.size());
+        assertEquals(EVENT_COUNT, eventoRepository.count());
+        assertTrue(meterRegistry.get("bina.persist.batch.size").summary().max() > 1,
+                "Esperado ao menos um commit com mais de um evento");
+    }
+
+    @Test
+    void write_InvalidEventInBatch_ShouldFailOnlyThatEvent() throws Exception {
+        Evento invalid = createEvento("x".repeat(300));
+        Evento valid = createEvento("Evento válido");
+
+        CompletableFuture<Evento> invalidFuture = CompletableFuture.supplyAsync(() -> eventoWriter.write(invalid));
+        CompletableFuture<Evento> validFuture = CompletableFuture.supplyAsync(() -> eventoWriter.write(valid));
+
+        assertNotNull(validFuture.get(30, TimeUnit.SECONDS).getId());
+        assertThrows(Exception.class, () -> invalidFuture.get(30, TimeUnit.SECONDS));
+        assertEquals(1, eventoRepository.count());
+    }
+
+    private Evento createEvento(String description) {
+        Evento evento = new Evento();
+        evento.setDescription(description);
+        evento.setDeviceId("test-device-001");
+        evento.setEventType("TEST");
+        evento.setTimestamp(LocalDateTime.now());
+        return evento;
+    }
+}
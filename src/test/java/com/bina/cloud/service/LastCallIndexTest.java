@@ -0,0 +1,108 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoStore;
+import com.bina.cloud.repository.PhoneLastCall;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastCallIndexTest {
+
+    private static final String PHONE = "61981122752";
+
+    @Mock
+    private EventoStore eventoStore;
+
+    @Mock
+    private EventoArchiveRepository archiveRepository;
+
+    private LastCallIndex lastCallIndex;
+
+    @BeforeEach
+    void setUp() {
+        lastCallIndex = new LastCallIndex(eventoStore, archiveRepository, 100);
+    }
+
+    @Test
+    void findPreviousCall_CacheMiss_ShouldFallbackToDatabaseOnlyOnce() {
+        LocalDateTime current = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+        LocalDateTime previous = current.minusHours(2);
+        when(eventoStore.findTimestampsByPhoneNumber(eq(PHONE), anyInt()))
+                .thenReturn(List.of(current, previous));
+
+        assertEquals(Optional.of(previous), lastCallIndex.findPreviousCall(PHONE));
+        assertEquals(Optional.of(previous), lastCallIndex.findPreviousCall(PHONE));
+
+        verify(eventoStore, times(1)).findTimestampsByPhoneNumber(eq(PHONE), anyInt());
+        assertEquals(1, lastCallIndex.missCount());
+        assertEquals(1, lastCallIndex.hitCount());
+    }
+
+    @Test
+    void findPreviousCall_PreviousCallArchived_ShouldLookUpArchive() {
+        LocalDateTime current = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+        LocalDateTime archived = LocalDateTime.of(2025, 1, 10, 9, 0, 0);
+        when(eventoStore.findTimestampsByPhoneNumber(eq(PHONE), anyInt()))
+                .thenReturn(List.of(current));
+        when(archiveRepository.findTimestampsByPhoneNumber(PHONE, 1)).thenReturn(List.of(archived));
+
+        assertEquals(Optional.of(archived), lastCallIndex.findPreviousCall(PHONE));
+    }
+
+    @Test
+    void findPreviousCall_FirstCall_ShouldReturnEmpty() {
+        LocalDateTime current = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+        when(eventoStore.findTimestampsByPhoneNumber(eq(PHONE), anyInt()))
+                .thenReturn(List.of(current));
+
+        assertTrue(lastCallIndex.findPreviousCall(PHONE).isEmpty());
+    }
+
+    @Test
+    void recordCall_ShouldShiftLastCallToPreviousWithoutDatabase() {
+        LocalDateTime first = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+        LocalDateTime second = first.plusMinutes(30);
+        LocalDateTime third = second.plusMinutes(5);
+        when(eventoStore.findTimestampsByPhoneNumber(eq(PHONE), anyInt()))
+                .thenReturn(List.of(first));
+        lastCallIndex.findPreviousCall(PHONE);
+
+        lastCallIndex.recordCall(PHONE, second);
+        assertEquals(Optional.of(first), lastCallIndex.findPreviousCall(PHONE));
+
+        lastCallIndex.recordCall(PHONE, third);
+        assertEquals(Optional.of(second), lastCallIndex.findPreviousCall(PHONE));
+
+        verify(eventoStore, times(1)).findTimestampsByPhoneNumber(anyString(), anyInt());
+    }
+
+    @Test
+    void warmUp_ShouldServeNextCallFromIndex() {
+        LocalDateTime lastCall = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+        PhoneLastCall phoneLastCall = mock(PhoneLastCall.class);
+        when(phoneLastCall.getPhoneNumber()).thenReturn(PHONE);
+        when(phoneLastCall.getLastCall()).thenReturn(lastCall);
+        when(eventoStore.findLastCallPerPhoneNumber(anyInt())).thenReturn(List.of(phoneLastCall));
+
+        lastCallIndex.warmUp();
+        lastCallIndex.recordCall(PHONE, lastCall.plusDays(1));
+
+        assertEquals(Optional.of(lastCall), lastCallIndex.findPreviousCall(PHONE));
+        verify(eventoStore, never()).findTimestampsByPhoneNumber(anyString(), anyInt());
+        assertEquals(1, lastCallIndex.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.bina.cloud.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatcherTest {
+
+    @Test
+    void itemsWithinWindow_ShouldBeDeliveredTogetherUpToMaxSize() throws Exception {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(2);
+        MicroBatcher<Integer> batcher = new MicroBatcher<>("test-batcher", 100, 3, 200, batch -> {
+            batches.add(new ArrayList<>(batch));
+            delivered.countDown();
+        });
+        batcher.start();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(batcher.offer(i));
+        }
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4)), batches);
+        batcher.stop(1000);
+    }
+
+    @Test
+    void failedBatch_ShouldNotStopTheFlusher() throws Exception {
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch second = new CountDownLatch(1);
+        MicroBatcher<Integer> batcher = new MicroBatcher<>("test-batcher", 100, 1, 0, batch -> {
+            if (batch.get(0) == 1) {
+                throw new IllegalStateException("falha no lote");
+            }
+            delivered.addAll(batch);
+            second.countDown();
+        });
+        batcher.start();
+
+        batcher.offer(1);
+        batcher.offer(2);
+
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(2), delivered);
+        batcher.stop(1000);
+    }
+
+    @Test
+    void stop_ShouldDeliverQueuedItemsBeforeExiting() {
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        MicroBatcher<Integer> batcher = new MicroBatcher<>("test-batcher", 100, 10, 50, delivered::addAll);
+        batcher.start();
+        for (int i = 0; i < 25; i++) {
+            batcher.offer(i);
+        }
+
+        batcher.stop(5000);
+
+        assertFalse(batcher.isRunning());
+        assertEquals(25, delivered.size());
+        assertEquals(0, batcher.size());
+    }
+}
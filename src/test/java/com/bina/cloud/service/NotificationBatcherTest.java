@@ -0,0 +1,96 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventNotification;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationBatcherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NotificationEncoder encoder = new NotificationEncoder(objectMapper);
+
+    private NotificationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void burst_ShouldBeSentAsFewArrayFramesInOrder() {
+        batcher = new NotificationBatcher(messagingTemplate, meterRegistry, true, 100, 50);
+        batcher.start();
+
+        for (int i = 0; i < 250; i++) {
+            batcher.add(notification(i));
+        }
+
+        // stop espera a fila esvaziar
+        batcher.stop();
+
+        ArgumentCaptor<Message<byte[]>> frames = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, atLeast(3)).send(eq(NotificationService.EVENTS_BATCH_TOPIC), frames.capture());
+        assertTrue(frames.getAllValues().size() <= 5, "frames=" + frames.getAllValues().size());
+
+        // Cada frame é um array JSON válido montado com os bytes de cada notificação
+        List<JsonNode> arrays = frames.getAllValues().stream().map(frame -> readTree(frame.getPayload())).toList();
+        assertTrue(arrays.stream().allMatch(array -> array.isArray() && array.size() <= 100));
+        List<String> delivered = arrays.stream()
+                .flatMap(array -> StreamSupport.stream(array.spliterator(), false))
+                .map(node -> node.get("eventId").asText())
+                .toList();
+        assertEquals(250, delivered.size());
+        for (int i = 0; i < delivered.size(); i++) {
+            assertEquals(String.valueOf(i), delivered.get(i));
+        }
+        assertEquals(250, meterRegistry.get("bina.notification.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void disabled_ShouldIgnoreNotifications() {
+        batcher = new NotificationBatcher(messagingTemplate, meterRegistry, false, 100, 50);
+        batcher.start();
+
+        batcher.add(notification(1));
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    private JsonNode readTree(byte[] payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private EncodedNotification notification(int id) {
+        return encoder.encode(new EventNotification(String.valueOf(id), "Chamada recebida", "CALL_RECEIVED", "device-1",
+                "24/06/2025 20:00:00", "{}", "", "", "61981122752", null));
+    }
+}
@@ -0,0 +1,63 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationService.EventNotification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NotificationEncoder encoder = new NotificationEncoder(objectMapper);
+
+    @Test
+    void encode_ShouldMatchJacksonSerialization() throws Exception {
+        EventNotification notification = notification(1);
+
+        EncodedNotification encoded = encoder.encode(notification);
+
+        assertSame(notification, encoded.notification());
+        assertArrayEquals(objectMapper.writeValueAsBytes(notification), encoded.payload());
+    }
+
+    @Test
+    void toJsonArray_ShouldJoinEncodedPayloads() throws Exception {
+        List<EncodedNotification> encoded = List.of(encoder.encode(notification(1)), encoder.encode(notification(2)));
+
+        assertEquals("[]", new String(NotificationEncoder.toJsonArray(List.of()), StandardCharsets.UTF_8));
+        assertEquals(objectMapper.writeValueAsString(List.of(notification(1))),
+                new String(NotificationEncoder.toJsonArray(encoded.subList(0, 1)), StandardCharsets.UTF_8));
+        assertEquals(objectMapper.writeValueAsString(List.of(notification(1), notification(2))),
+                new String(NotificationEncoder.toJsonArray(encoded), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void toMessage_ShouldShareTheSamePayload() {
+        byte[] payload = encoder.encode(notification(1)).payload();
+
+        Message<byte[]> routed = NotificationEncoder.toMessage(payload, "CALL_MISSED");
+        Message<byte[]> broadcast = NotificationEncoder.toMessage(payload, null);
+
+        assertSame(payload, routed.getPayload());
+        assertSame(payload, broadcast.getPayload());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON, SimpMessageHeaderAccessor.wrap(routed).getContentType());
+        assertEquals("CALL_MISSED", SimpMessageHeaderAccessor.wrap(routed)
+                .getFirstNativeHeader(NotificationService.EVENT_TYPE_HEADER));
+        assertNull(SimpMessageHeaderAccessor.wrap(broadcast)
+                .getFirstNativeHeader(NotificationService.EVENT_TYPE_HEADER));
+    }
+
+    private static EventNotification notification(int id) {
+        return new EventNotification(String.valueOf(id), "Chamada recebida", "CALL_RECEIVED", "device-1",
+                "24/06/2025 20:00:00", "{\"numero\":\"061981122752\"}", "", "Primeira ligação", "61981122752",
+                null);
+    }
+}
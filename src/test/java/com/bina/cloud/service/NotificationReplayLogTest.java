@@ -0,0 +1,93 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.service.NotificationEncoder.EncodedNotification;
+import com.bina.cloud.service.NotificationReplayLog.Replay;
+import com.bina.cloud.service.NotificationReplayLog.ReplayedNotification;
+import com.bina.cloud.service.NotificationService.EventNotification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationReplayLogTest {
+
+    private final NotificationReplayLog replayLog = new NotificationReplayLog(true, 3);
+
+    @Test
+    void append_ShouldNumberNotificationsInDeliveryOrder() {
+        assertEquals(1, replayLog.append(encoded(1, "device-1")).seq());
+        assertEquals(2, replayLog.append(encoded(2, "device-1")).seq());
+        assertEquals(2, replayLog.latestSeq());
+    }
+
+    @Test
+    void since_ShouldReturnOnlyTheGap() {
+        for (int id = 1; id <= 3; id++) {
+            replayLog.append(encoded(id, "device-1"));
+        }
+
+        Replay replay = replayLog.since(replayLog.epoch(), 1, notification -> true);
+
+        assertEquals(Replay.OK, replay.status());
+        assertEquals(3, replay.latestSeq());
+        assertEquals(List.of(2L, 3L), seqs(replay));
+        assertEquals("2", replay.notifications().get(0).notification().eventId());
+        assertTrue(replayLog.since(replayLog.epoch(), 3, notification -> true).notifications().isEmpty());
+    }
+
+    @Test
+    void since_ShouldApplySubscriptionFilter() {
+        replayLog.append(encoded(1, "device-1"));
+        replayLog.append(encoded(2, "device-2"));
+        replayLog.append(encoded(3, "device-1"));
+
+        Replay replay = replayLog.since(replayLog.epoch(), 0, notification -> "device-1".equals(notification.deviceId()));
+
+        assertEquals(Replay.OK, replay.status());
+        assertEquals(List.of(1L, 3L), seqs(replay));
+    }
+
+    @Test
+    void since_WhenGapLeftTheBuffer_ShouldAskForResync() {
+        for (int id = 1; id <= 5; id++) {
+            replayLog.append(encoded(id, "device-1"));
+        }
+
+        // Buffer com os seqs 3..5: quem parou no 2 ainda é atendido, quem parou no 1 não
+        assertEquals(List.of(3L, 4L, 5L), seqs(replayLog.since(replayLog.epoch(), 2, notification -> true)));
+        Replay replay = replayLog.since(replayLog.epoch(), 1, notification -> true);
+        assertEquals(Replay.RESYNC, replay.status());
+        assertEquals(5, replay.latestSeq());
+        assertTrue(replay.notifications().isEmpty());
+    }
+
+    @Test
+    void since_FromAnotherEpochOrAheadOfTheLog_ShouldAskForResync() {
+        replayLog.append(encoded(1, "device-1"));
+
+        assertEquals(Replay.RESYNC, replayLog.since("restarted", 1, notification -> true).status());
+        assertEquals(Replay.RESYNC, replayLog.since(null, 1, notification -> true).status());
+        assertEquals(Replay.RESYNC, replayLog.since(replayLog.epoch(), 7, notification -> true).status());
+        assertEquals(Replay.RESYNC, replayLog.since(replayLog.epoch(), -1, notification -> true).status());
+    }
+
+    @Test
+    void disabled_ShouldLeaveNotificationsWithoutSeq() {
+        NotificationReplayLog disabled = new NotificationReplayLog(false, 3);
+
+        assertEquals(0, disabled.append(encoded(1, "device-1")).seq());
+        assertEquals(Replay.DISABLED, disabled.since(disabled.epoch(), 0, notification -> true).status());
+    }
+
+    private static List<Long> seqs(Replay replay) {
+        return replay.notifications().stream().map(ReplayedNotification::seq).toList();
+    }
+
+    private static EncodedNotification encoded(int id, String deviceId) {
+        EventNotification notification = new EventNotification(String.valueOf(id), "Chamada recebida",
+                "CALL_RECEIVED", deviceId, "24/06/2025 20:00:00", "{\"numero\":\"061981122752\"}", "",
+                "Primeira ligação", "61981122752", null);
+        return new EncodedNotification(notification, new byte[0]);
+    }
+}
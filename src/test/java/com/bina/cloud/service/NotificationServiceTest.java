@@ -1,20 +1,31 @@
 package com.bina.cloud.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
-import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mockito.ArgumentCaptor;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceTest {
@@ -23,13 +34,28 @@ class NotificationServiceTest {
     private SimpMessagingTemplate messagingTemplate;
 
     @Mock
-    private EventoRepository eventoRepository;
+    private EventoStore eventoStore;
+
+    @Mock
+    private EventoArchiveRepository archiveRepository;
+
+    @Mock
+    private PhoneStatsService phoneStatsService;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
 
     private NotificationService notificationService;
 
     @BeforeEach
     void setUp() {
-        notificationService = new NotificationService(messagingTemplate, eventoRepository);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EventoMetrics eventoMetrics = new EventoMetrics(meterRegistry, 100, 50);
+        NotificationBatcher batcher = new NotificationBatcher(messagingTemplate, meterRegistry, false, 100, 50);
+        notificationService = new NotificationService(
+                new LocalNotificationBus(new NotificationDispatcher(messagingTemplate, eventoMetrics, batcher,
+                        new NotificationReplayLog(true, 100))),
+                new LastCallIndex(eventoStore, archiveRepository, 100), eventoMetrics, phoneStatsService,
+                new NotificationEncoder(objectMapper));
     }
 
     @Test
@@ -46,8 +72,7 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -64,8 +89,7 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -82,8 +106,7 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -100,8 +123,7 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -118,8 +140,7 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -136,8 +157,7 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -154,8 +174,7 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -174,8 +193,7 @@ class NotificationServiceTest {
         });
 
         // Verificar que a mensagem foi enviada
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
     }
 
     @Test
@@ -192,7 +210,74 @@ class NotificationServiceTest {
         notificationService.notifyNewEvent(eventId, eventTitle, eventType, deviceId, timestamp, additionalData);
 
         // Assert
-        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/events"),
-                any(NotificationService.EventNotification.class));
+        verify(messagingTemplate, times(1)).send(eq("/topic/events"), any(Message.class));
+    }
+
+    @Test
+    void testNotifyNewEvent_ShouldSendToAllTopicsWithEventTypeHeader() {
+        // Act
+        notificationService.notifyNewEvent("1", "Chamada perdida", "CALL_MISSED", "052ad7f7b6ee816b",
+                "2025-06-24T20:15:30", "{\"numero\":\"011987654321\"}");
+
+        // Assert - os três destinos recebem o mesmo payload, serializado uma vez
+        ArgumentCaptor<Message<byte[]>> broadcast = messageCaptor();
+        ArgumentCaptor<Message<byte[]>> device = messageCaptor();
+        ArgumentCaptor<Message<byte[]>> phone = messageCaptor();
+        verify(messagingTemplate).send(eq("/topic/events"), broadcast.capture());
+        verify(messagingTemplate).send(eq("/topic/events/device/052ad7f7b6ee816b"), device.capture());
+        verify(messagingTemplate).send(eq("/topic/events/phone/11987654321"), phone.capture());
+        assertSame(broadcast.getValue().getPayload(), device.getValue().getPayload());
+        assertSame(broadcast.getValue().getPayload(), phone.getValue().getPayload());
+        for (Message<byte[]> message : List.of(broadcast.getValue(), device.getValue(), phone.getValue())) {
+            assertEquals(Map.of(NotificationService.EVENT_TYPE_HEADER, List.of("CALL_MISSED"),
+                    NotificationService.SEQUENCE_HEADER, List.of("1")),
+                    SimpMessageHeaderAccessor.wrap(message).toNativeHeaderMap());
+        }
+    }
+
+    @Test
+    void testNotifyNewEvent_PayloadShouldBeNotificationJson() throws Exception {
+        // Act
+        notificationService.notifyNewEvent("9", "Chamada recebida", "CALL_RECEIVED", "052ad7f7b6ee816b",
+                "2025-06-24T20:15:30", "{\"numero\":\"061981122752\"}");
+
+        // Assert
+        ArgumentCaptor<Message<byte[]>> broadcast = messageCaptor();
+        verify(messagingTemplate).send(eq("/topic/events"), broadcast.capture());
+        assertEquals("application/json", String.valueOf(broadcast.getValue().getHeaders().get("contentType")));
+        JsonNode json = objectMapper.readTree(broadcast.getValue().getPayload());
+        assertEquals("9", json.get("eventId").asText());
+        assertEquals("24/06/2025 17:15:30", json.get("timestamp").asText());
+        assertEquals("61981122752", json.get("phoneNumber").asText());
+        assertEquals("https://portal.gasdelivery.com.br/secure/client/?primary_phone=61981122752",
+                json.get("url").asText());
+        assertTrue(json.get("callStats").isNull());
+    }
+
+    @Test
+    void formatDuration_ShouldUseSingularAndPlural() {
+        assertEquals("Menos de 1 minuto", NotificationService.formatDuration(Duration.ofSeconds(30)));
+        assertEquals("1 minuto", NotificationService.formatDuration(Duration.ofMinutes(1)));
+        assertEquals("45 minutos", NotificationService.formatDuration(Duration.ofMinutes(45)));
+        assertEquals("1 hora, 1 minuto", NotificationService.formatDuration(Duration.ofMinutes(61)));
+        assertEquals("5 horas, 20 minutos", NotificationService.formatDuration(Duration.parse("PT5H20M")));
+        assertEquals("3 dias, 0 hora", NotificationService.formatDuration(Duration.ofDays(3)));
+        assertEquals("1 dia, 2 horas", NotificationService.formatDuration(Duration.parse("P1DT2H")));
+    }
+
+    @Test
+    void testNotifyNewEvent_WithoutPhoneOrUnsafeDevice_ShouldOnlyBroadcast() {
+        // Act
+        notificationService.notifyNewEvent("1", "Teste", "CALL", "loja/1", "2025-06-24T20:15:30",
+                "{\"test\": \"data\"}");
+
+        // Assert
+        verify(messagingTemplate).send(eq("/topic/events"), any(Message.class));
+        verify(messagingTemplate, times(1)).send(anyString(), any(Message.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Message<byte[]>> messageCaptor() {
+        return ArgumentCaptor.forClass(Message.class);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,256 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.model.PhoneCallStats;
+import com.bina.cloud.model.PhoneStats;
+import com.bina.cloud.repository.EventoArchiveRepository;
+import com.bina.cloud.repository.EventoRepository;
+import com.bina.cloud.repository.JpaEventoStore;
+import com.bina.cloud.repository.PhoneStatsJdbcRepository;
+import com.bina.cloud.repository.PhoneStatsRepository;
+import com.bina.cloud.util.TimezoneUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PhoneStatsServiceTest {
+
+    private static final String PHONE = "61981122752";
+    private static final String OTHER_PHONE = "61999990000";
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private PhoneStatsRepository phoneStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EventoArchiveRepository archiveRepository;
+    private PhoneStatsService phoneStatsService;
+    private EventoWriter eventoWriter;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        eventoRepository.deleteAll();
+        phoneStatsRepository.deleteAll();
+        archiveRepository = new EventoArchiveRepository(jdbcTemplate, transactionManager);
+        phoneStatsService = new PhoneStatsService(phoneStatsRepository,
+                new PhoneStatsJdbcRepository(jdbcTemplate), new JpaEventoStore(eventoRepository), archiveRepository,
+                transactionManager, meterRegistry, 100, 60000, 4, false);
+        eventoWriter = new EventoWriter(new JpaEventoStore(eventoRepository), phoneStatsService, transactionManager,
+                meterRegistry, true, 50, 5);
+        eventoWriter.start();
+        dropArchiveTables();
+        now = TimezoneUtil.getCurrentUtcTime().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventoWriter.stop();
+        eventoRepository.deleteAll();
+        phoneStatsRepository.deleteAll();
+        dropArchiveTables();
+    }
+
+    @Test
+    void recordCall_ShouldKeepCountsAndIntervalStats() {
+        PhoneStats stats = new PhoneStats(PHONE);
+        LocalDateTime first = now.minusMinutes(30);
+        stats.recordCall(first);
+        stats.recordCall(first.plusMinutes(10));
+        stats.recordCall(first.plusMinutes(30));
+
+        PhoneCallStats view = PhoneCallStats.of(stats, PhoneStats.brasiliaDay(first.plusMinutes(30)));
+        assertEquals(3, view.callCount());
+        assertEquals(first, view.firstCall());
+        assertEquals(first.plusMinutes(30), view.lastCall());
+        assertEquals(first.plusMinutes(10), stats.getPreviousCall());
+        assertEquals(900.0, view.averageIntervalSeconds());
+        assertEquals(600L, view.minIntervalSeconds());
+        assertEquals(1200L, view.maxIntervalSeconds());
+        assertEquals(Math.sqrt(180000.0), view.stdDevIntervalSeconds(), 1e-9);
+        // Dias seguintes zeram o contador do dia, mas não o total
+        assertEquals(0, PhoneCallStats.of(stats, PhoneStats.brasiliaDay(first).plusDays(8)).callsToday());
+    }
+
+    @Test
+    void write_ConcurrentCallsOfSamePhone_ShouldMatchRebuild() throws Exception {
+        int calls = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<CompletableFuture<Evento>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            Evento evento = evento(now.minusSeconds(calls - i), i % 3 == 0 ? OTHER_PHONE : PHONE);
+            futures.add(CompletableFuture.supplyAsync(() -> eventoWriter.write(evento), executor));
+        }
+        for (CompletableFuture<Evento> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        PhoneCallStats incremental = phoneStatsService.find(PHONE).orElseThrow();
+        assertEquals(66, incremental.callCount());
+        assertEquals(34, phoneStatsService.find(OTHER_PHONE).orElseThrow().callCount());
+        assertEquals(incremental.callCount(), phoneStatsService.findRecent(PHONE).orElseThrow().callCount());
+
+        assertEquals(2, phoneStatsService.rebuild());
+        PhoneCallStats rebuilt = phoneStatsService.find(PHONE).orElseThrow();
+        assertEquals(incremental.callCount(), rebuilt.callCount());
+        assertEquals(incremental.firstCall(), rebuilt.firstCall());
+        assertEquals(incremental.lastCall(), rebuilt.lastCall());
+    }
+
+    @Test
+    void rebuild_ShouldIncludeArchivedEventsAndFixOutOfOrderImports() {
+        EventoRetentionService retentionService = new EventoRetentionService(archiveRepository, meterRegistry, true,
+                90, 100, 0);
+        LocalDateTime archivedCall = now.minusDays(120);
+        eventoRepository.save(evento(archivedCall, PHONE));
+        retentionService.compact();
+        eventoWriter.write(evento(now.minusHours(2), PHONE));
+        eventoWriter.write(evento(now, PHONE));
+        // Importação atrasada no meio do histórico: conta, mas não entra nos intervalos
+        eventoWriter.write(evento(now.minusHours(1), PHONE));
+        assertEquals(3, phoneStatsService.find(PHONE).orElseThrow().callCount());
+        assertEquals(7200.0, phoneStatsService.find(PHONE).orElseThrow().averageIntervalSeconds());
+
+        phoneStatsService.rebuild();
+
+        PhoneCallStats rebuilt = phoneStatsService.find(PHONE).orElseThrow();
+        assertEquals(4, rebuilt.callCount());
+        assertEquals(archivedCall, rebuilt.firstCall());
+        assertEquals(now, rebuilt.lastCall());
+        assertEquals(3600L, rebuilt.minIntervalSeconds());
+        assertEquals(3600L * 24 * 120 - 7200, rebuilt.maxIntervalSeconds());
+    }
+
+    @Test
+    void write_FailedEvent_ShouldNotCountCall() throws Exception {
+        Evento invalid = evento(now, PHONE);
+        invalid.setDescription("x".repeat(300));
+
+        assertThrows(Exception.class, () -> eventoWriter.write(invalid));
+        eventoWriter.write(evento(now, PHONE));
+
+        assertEquals(1, phoneStatsService.find(PHONE).orElseThrow().callCount());
+    }
+
+    @Test
+    void apply_ShouldWriteEveryPhoneInOneSortedMergeWithoutLockingFirst() {
+        List<String> statements = new CopyOnWriteArrayList<>();
+        PhoneStatsService service = new PhoneStatsService(phoneStatsRepository, recording(statements),
+                new JpaEventoStore(eventoRepository), archiveRepository, transactionManager, meterRegistry, 100, 60000,
+                4, false);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // PHONE já em memória e OTHER_PHONE sem linha: só OTHER_PHONE é lido, e sem trava
+        transactionTemplate.executeWithoutResult(status -> service.apply(List.of(evento(now.minusMinutes(5), PHONE))));
+        statements.clear();
+
+        transactionTemplate.executeWithoutResult(status -> service.apply(
+                List.of(evento(now, OTHER_PHONE), evento(now, PHONE))));
+
+        assertEquals(List.of("read [" + OTHER_PHONE + "]", "merge [" + PHONE + ", " + OTHER_PHONE + "]"), statements);
+        assertEquals(2, service.find(PHONE).orElseThrow().callCount());
+        assertEquals(1, service.find(OTHER_PHONE).orElseThrow().callCount());
+    }
+
+    @Test
+    void write_StaleCachedStats_ShouldRetryChunkLockingRowsInOneSortedPass() {
+        List<String> statements = new CopyOnWriteArrayList<>();
+        PhoneStatsService service = new PhoneStatsService(phoneStatsRepository, recording(statements),
+                new JpaEventoStore(eventoRepository), archiveRepository, transactionManager, meterRegistry, 100, 60000,
+                4, false);
+        EventoWriter writer = new EventoWriter(new JpaEventoStore(eventoRepository), service, transactionManager,
+                meterRegistry, false, 50, 5);
+        writer.write(evento(now.minusMinutes(5), PHONE));
+        // Outro nó gravou PHONE: a cópia em memória deste ficou para trás
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE phone_stats SET call_count = call_count + 1, revision = revision + 1 WHERE phone_number = ?",
+                PHONE));
+        statements.clear();
+
+        writer.persistChunk(List.of(evento(now, OTHER_PHONE), evento(now, PHONE)));
+
+        // A primeira tentativa é desfeita inteira: a segunda trava tudo antes de gravar
+        assertEquals(List.of("read [" + OTHER_PHONE + "]", "merge [" + PHONE + ", " + OTHER_PHONE + "]",
+                "lock [" + PHONE + ", " + OTHER_PHONE + "]"), statements);
+        assertEquals(3, service.find(PHONE).orElseThrow().callCount());
+        assertEquals(1, service.find(OTHER_PHONE).orElseThrow().callCount());
+        assertEquals(3, eventoRepository.count());
+    }
+
+    private PhoneStatsJdbcRepository recording(List<String> statements) {
+        return new PhoneStatsJdbcRepository(jdbcTemplate) {
+            @Override
+            public List<PhoneStats> findAllForUpdate(Collection<String> phoneNumbers) {
+                statements.add("lock " + phoneNumbers);
+                return super.findAllForUpdate(phoneNumbers);
+            }
+
+            @Override
+            public List<PhoneStats> findAll(Collection<String> phoneNumbers) {
+                if (!phoneNumbers.isEmpty()) {
+                    statements.add("read " + phoneNumbers);
+                }
+                return super.findAll(phoneNumbers);
+            }
+
+            @Override
+            public List<PhoneStats> mergeAll(List<PhoneStats> stats, Set<String> created) {
+                statements.add("merge " + stats.stream().map(PhoneStats::getPhoneNumber).toList());
+                return super.mergeAll(stats, created);
+            }
+        };
+    }
+
+    private void dropArchiveTables() {
+        List<String> tables = jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE LOWER(table_name) LIKE '" + EventoArchiveRepository.TABLE_PREFIX + "%'", String.class);
+        tables.forEach(table -> jdbcTemplate.execute("DROP TABLE IF EXISTS " + table));
+    }
+
+    private static Evento evento(LocalDateTime timestamp, String phoneNumber) {
+        Evento evento = new Evento();
+        evento.setDescription("Chamada recebida");
+        evento.setDeviceId("device-stats");
+        evento.setEventType("CALL_RECEIVED");
+        evento.setTimestamp(timestamp);
+        evento.setPhoneNumber(phoneNumber);
+        return evento;
+    }
+}
@@ -0,0 +1,106 @@
+package com.bina.cloud.service;
+
+import com.bina.cloud.model.Evento;
+import com.bina.cloud.repository.EventoStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecentEventsBufferTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 24, 20, 0, 0);
+
+    @Mock
+    private EventoStore eventoStore;
+
+    private RecentEventsBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new RecentEventsBuffer(eventoStore, 3, false, "local");
+    }
+
+    @Test
+    void latest_BeforeWarmUp_ShouldFallBackToDatabase() {
+        buffer.add(evento(1, 0));
+
+        assertTrue(buffer.latest(1).isEmpty());
+    }
+
+    @Test
+    void latest_ShouldKeepOnlyMostRecentInDescendingOrder() {
+        when(eventoStore.findLatest(3)).thenReturn(List.of());
+        buffer.warmUp();
+
+        buffer.add(evento(1, 0));
+        buffer.add(evento(3, 2));
+        buffer.add(evento(2, 1));
+        buffer.add(evento(4, 3));
+
+        assertEquals(List.of(4L, 3L, 2L), ids(buffer.latest(3).orElseThrow()));
+        assertEquals(List.of(4L, 3L), ids(buffer.latest(2).orElseThrow()));
+        assertTrue(buffer.latest(4).isEmpty());
+    }
+
+    @Test
+    void warmUp_ShouldMergeDatabaseRowsWithEventsWrittenMeanwhile() {
+        buffer.add(evento(5, 5));
+        when(eventoStore.findLatest(3))
+                .thenReturn(List.of(evento(5, 5), evento(4, 4), evento(3, 3), evento(2, 2)));
+
+        buffer.warmUp();
+
+        assertEquals(List.of(5L, 4L, 3L), ids(buffer.latest(3).orElseThrow()));
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    void version_ShouldChangeOnlyWhenEventsArrive() {
+        assertTrue(buffer.version(3).isEmpty());
+        when(eventoStore.findLatest(3)).thenReturn(List.of(evento(1, 0)));
+        buffer.warmUp();
+
+        String before = buffer.version(3).orElseThrow().etag();
+        assertEquals(before, buffer.version(3).orElseThrow().etag());
+        buffer.add(evento(2, 1));
+
+        assertNotEquals(before, buffer.version(3).orElseThrow().etag());
+        assertTrue(buffer.version(4).isEmpty());
+    }
+
+    @Test
+    void multiNode_ShouldAlwaysFallBackToStore() {
+        RecentEventsBuffer relay = new RecentEventsBuffer(eventoStore, 3, true, "local");
+        RecentEventsBuffer bus = new RecentEventsBuffer(eventoStore, 3, false, "in-jvm");
+
+        for (RecentEventsBuffer multiNode : List.of(relay, bus)) {
+            multiNode.warmUp();
+            multiNode.add(evento(1, 0));
+
+            assertTrue(multiNode.latest(1).isEmpty());
+            assertTrue(multiNode.version(1).isEmpty());
+            assertEquals(0, multiNode.size());
+        }
+        verifyNoInteractions(eventoStore);
+    }
+
+    private static Evento evento(long id, int minutes) {
+        Evento evento = new Evento();
+        evento.setId(id);
+        evento.setTimestamp(BASE.plusMinutes(minutes));
+        return evento;
+    }
+
+    private static List<Long> ids(List<Evento> eventos) {
+        return eventos.stream().map(Evento::getId).toList();
+    }
+}
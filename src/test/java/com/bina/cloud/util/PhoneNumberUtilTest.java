@@ -0,0 +1,75 @@
+package com.bina.cloud.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PhoneNumberUtilTest {
+
+    private static final long SEED = 20250624L;
+    private static final int CASES = 200_000;
+
+    // Fragmentos que exercitam os caminhos do scanner e da regex original
+    private static final String[] FRAGMENTS = {
+            "\"numero\":", "\"numero\": ", "\"numero\":\t", "\"numero\":\u000B", "\"numero\":\f", "numero",
+            "\"", "\"\"", ":", "{", "}", ",", " ", "\t", "0", "00", "061", "981122752", "61996593711",
+            "123456789012345", "N/A", "\"N/A\"", "abc", "-", "+55", "\n", "\r", " ", "é", "📞",
+            "\"data\":\"24/06/2025 20:00:00\"", "\"receivingNumber\":\"\""
+    };
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"numero\":\"061981122752\",\"data\":\"24/06/2025 20:00:00\"}",
+            "{\"numero\": \"61996593711\"}",
+            "{\"numero\": \"0061996593711\"}",
+            "{\"numero\": \"N/A\"}",
+            "{\"numero\": \"\"}",
+            "{\"numero\":\"000\"}",
+            "{\"numero\":\"1\",\"numero\":\"2\"}",
+            "{\"numero\":\"1\",\"numero\":\"\"}",
+            "{\"numero\":\"abc\"}",
+            "Numero: 061981122752",
+            "{\"test\": \"data\"}",
+            "{\"numero\":\n\"061981122752\"}",
+            "linha 1\n{\"numero\":\"061981122752\"}"
+    })
+    void extractPhoneNumber_ShouldMatchLegacyImplementation(String additionalData) {
+        assertEquals(PhoneNumberUtil.extractPhoneNumberLegacy(additionalData),
+                PhoneNumberUtil.extractPhoneNumber(additionalData));
+    }
+
+    @Test
+    void extractPhoneNumber_RandomInputs_ShouldMatchLegacyImplementation() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < CASES; i++) {
+            String additionalData = randomInput(random);
+            assertEquals(PhoneNumberUtil.extractPhoneNumberLegacy(additionalData),
+                    PhoneNumberUtil.extractPhoneNumber(additionalData), () -> "input=" + additionalData);
+        }
+    }
+
+    @Test
+    void extractPhoneNumber_ShouldNormalizeJsonNumber() {
+        assertEquals("61981122752",
+                PhoneNumberUtil.extractPhoneNumber("{\"numero\":\"061981122752\",\"data\":\"24/06/2025 20:00:00\"}"));
+        assertEquals("", PhoneNumberUtil.extractPhoneNumber(null));
+        assertEquals("", PhoneNumberUtil.extractPhoneNumber("{\"numero\": \"N/A\"}"));
+    }
+
+    private static String randomInput(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int parts = random.nextInt(12);
+        for (int i = 0; i < parts; i++) {
+            if (random.nextInt(8) == 0) {
+                sb.append((char) random.nextInt(0x3000));
+            } else {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.bina.cloud.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TimezoneUtilTest {
+
+    private static final long SEED = 20250624L;
+    private static final int RANDOM_CASES = 200_000;
+    // Cobre o dia inteiro em volta da transição, inclusive a virada de data em Brasília
+    private static final long TRANSITION_RANGE_SECONDS = 26 * 3600;
+    private static final long TRANSITION_STEP_SECONDS = 60;
+    private static final long EXACT_RANGE_SECONDS = 300;
+    private static final int FIRST_YEAR = 1900;
+    private static final int LAST_YEAR = 2100;
+
+    @Test
+    void convertUtcToBrasilia_ShouldMatchFormatterAroundEveryDstTransition() {
+        List<ZoneOffsetTransition> transitions = TimezoneUtil.BRASILIA_ZONE.getRules().getTransitions();
+        assertFalse(transitions.isEmpty());
+
+        for (ZoneOffsetTransition transition : transitions) {
+            long epochSecond = transition.toEpochSecond();
+            // Segundo a segundo perto da transição, minuto a minuto no resto do dia
+            for (long delta = -EXACT_RANGE_SECONDS; delta <= EXACT_RANGE_SECONDS; delta++) {
+                assertConversion(utc(epochSecond + delta));
+            }
+            for (long delta = -TRANSITION_RANGE_SECONDS; delta <= TRANSITION_RANGE_SECONDS;
+                    delta += TRANSITION_STEP_SECONDS) {
+                assertConversion(utc(epochSecond + delta));
+            }
+        }
+    }
+
+    @Test
+    void convertUtcToBrasilia_ShouldMatchFormatterAcrossYears() {
+        long from = LocalDateTime.of(FIRST_YEAR, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long until = LocalDateTime.of(LAST_YEAR, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        // Passo que não é múltiplo de hora, para variar minutos e segundos
+        for (long epochSecond = from; epochSecond < until; epochSecond += 3607) {
+            assertConversion(utc(epochSecond));
+        }
+    }
+
+    @Test
+    void convertUtcToBrasilia_AlternatingWindows_ShouldMatchFormatter() {
+        // Cada chamada troca a janela de offset em cache
+        Random random = new Random(SEED);
+        long from = LocalDateTime.of(1960, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long until = LocalDateTime.of(2040, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            LocalDateTime utc = utc(from + (long) (random.nextDouble() * (until - from)))
+                    .withNano(random.nextInt(1_000_000_000));
+            assertConversion(utc);
+        }
+    }
+
+    @Test
+    void convertUtcToBrasilia_OutsideFourDigitYears_ShouldMatchFormatter() {
+        for (LocalDateTime utc : List.of(LocalDateTime.of(1, 1, 1, 0, 0), LocalDateTime.of(0, 12, 31, 23, 0),
+                LocalDateTime.of(-44, 3, 15, 12, 0), LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+                LocalDateTime.of(10000, 1, 1, 2, 0), LocalDateTime.MAX)) {
+            assertConversion(utc);
+        }
+        assertEquals("N/A", TimezoneUtil.convertUtcToBrasilia(null));
+    }
+
+    @Test
+    void convertAllUtcToBrasilia_ShouldMatchSingleConversions() {
+        List<LocalDateTime> timestamps = new ArrayList<>(Arrays.asList(
+                LocalDateTime.of(2025, 6, 24, 23, 0), null, LocalDateTime.of(2018, 11, 4, 3, 0),
+                LocalDateTime.of(2019, 2, 17, 1, 59, 59), LocalDateTime.of(2025, 1, 1, 2, 59, 59)));
+
+        List<String> converted = TimezoneUtil.convertAllUtcToBrasilia(timestamps);
+
+        assertEquals(timestamps.size(), converted.size());
+        for (int i = 0; i < timestamps.size(); i++) {
+            assertEquals(TimezoneUtil.convertUtcToBrasilia(timestamps.get(i)), converted.get(i));
+        }
+        assertEquals("N/A", converted.get(1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2025-06-24T19:59:59",
+            "2025-06-25T02:30:00",
+            "2018-11-04T02:59:59",
+            "2018-11-04T03:00:00",
+            "2025-06-24T19:59:59.123",
+            "2025-06-24T19:59",
+            "25/06/2025 20:26:56",
+            "99/99/9999 99:99:99",
+            "25/06/2025 20:26:5a",
+            "2025-02-30T10:00:00",
+            "2025-06-24T24:00:00",
+            "2025-06-24T20:15:60",
+            "+2025-06-24T19:59:59",
+            "2025-06-24 19:59:59",
+            "2025-6-24T19:59:59",
+            "0000-01-01T00:00:00",
+            "abc",
+            "   ",
+            ""
+    })
+    void convertTimestampToBrasilia_ShouldMatchLegacyImplementation(String timestamp) {
+        assertEquals(legacyConvertTimestampToBrasilia(timestamp), TimezoneUtil.convertTimestampToBrasilia(timestamp));
+    }
+
+    private static void assertConversion(LocalDateTime utc) {
+        ZonedDateTime expected = utc.atZone(TimezoneUtil.UTC_ZONE).withZoneSameInstant(TimezoneUtil.BRASILIA_ZONE);
+        assertEquals(expected.format(TimezoneUtil.BRASILIA_FORMATTER), TimezoneUtil.convertUtcToBrasilia(utc),
+                () -> "utc=" + utc);
+        assertEquals(expected.toLocalDateTime(), TimezoneUtil.convertUtcToBrasiliaDateTime(utc), () -> "utc=" + utc);
+    }
+
+    private static LocalDateTime utc(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static String legacyConvertTimestampToBrasilia(String timestamp) {
+        if (timestamp == null || timestamp.trim().isEmpty()) {
+            return "N/A";
+        }
+        try {
+            if (timestamp.matches("\\d{2}/\\d{2}/\\d{4} \\d{2}:\\d{2}:\\d{2}")) {
+                return timestamp;
+            }
+            LocalDateTime utcTime = LocalDateTime.parse(timestamp, TimezoneUtil.ISO_FORMATTER);
+            return utcTime.atZone(TimezoneUtil.UTC_ZONE).withZoneSameInstant(TimezoneUtil.BRASILIA_ZONE)
+                    .format(TimezoneUtil.BRASILIA_FORMATTER);
+        } catch (Exception e) {
+            return timestamp;
+        }
+    }
+}